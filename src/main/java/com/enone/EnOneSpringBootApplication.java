@@ -2,11 +2,13 @@ package com.enone;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
 public class EnOneSpringBootApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,280 @@
+package com.enone.application.admin;
+
+import com.enone.domain.model.TransactionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rollups de analítica para los paneles de administración: movimientos por
+ * (hora, tipo, moneda, estado) y altas de perfiles por día.
+ *
+ * Un job avanza una marca de agua ({@code analytics_watermarks}): en cada pasada
+ * recalcula desde la marca menos {@code reopen-hours} hasta el inicio de la pasada,
+ * en bloques de {@code chunk-hours} con la fila de la marca bloqueada, de modo que
+ * dos nodos no consolidan a la vez y un corte retoma donde quedó. Las horas de
+ * movimientos que cambian de estado después (liquidaciones bancarias) se marcan al
+ * hacer commit y se recalculan en la siguiente pasada.
+ *
+ * Las lecturas suman los rollups desde la hora de inicio del rango y completan con
+ * las filas crudas posteriores a la marca, así que el costo depende del rango y de
+ * lo que falta consolidar, no del tamaño de las tablas.
+ */
+@Slf4j
+@Component
+public class AnalyticsRollups {
+
+    private static final String WATERMARK = "analytics";
+    private static final String HOUR_EXPR = "TIMESTAMP(DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'))";
+
+    private static final String LOCK_WATERMARK_SQL =
+            "SELECT covered_until FROM analytics_watermarks WHERE name = ? FOR UPDATE";
+    private static final String DELETE_TX_SQL =
+            "DELETE FROM transaction_hourly_rollups WHERE hour_start >= ? AND hour_start < ?";
+    private static final String INSERT_TX_SQL = "INSERT INTO transaction_hourly_rollups "
+            + "(hour_start, type, currency, status, tx_count, amount_sum, inflow_sum) "
+            + "SELECT " + HOUR_EXPR + ", type, currency, status, COUNT(*), SUM(amount), "
+            + "SUM(CASE WHEN amount > 0 THEN amount ELSE 0 END) "
+            + "FROM transactions WHERE created_at >= ? AND created_at < ? "
+            + "GROUP BY 1, type, currency, status";
+    private static final String DELETE_SIGNUPS_SQL =
+            "DELETE FROM signup_daily_rollups WHERE day >= DATE(?) AND day <= DATE(?)";
+    private static final String INSERT_SIGNUPS_SQL = "INSERT INTO signup_daily_rollups (day, signups) "
+            + "SELECT DATE(created_at), COUNT(*) FROM user_profile "
+            + "WHERE created_at >= DATE(?) AND created_at < ? GROUP BY DATE(created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reopen;
+    private final Duration chunk;
+    private final Set<Instant> dirtyHours = ConcurrentHashMap.newKeySet();
+
+    public record Totals(Instant from, long count, BigDecimal amount, BigDecimal inflow) {
+    }
+
+    public AnalyticsRollups(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.analytics.reopen-hours:2}") long reopenHours,
+                            @Value("${app.analytics.chunk-hours:168}") long chunkHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reopen = Duration.ofHours(Math.max(reopenHours, 0));
+        this.chunk = Duration.ofHours(Math.max(chunkHours, 1));
+    }
+
+    /**
+     * Marca para recalcular la hora de un movimiento cuyo estado cambia en la
+     * transacción actual; se registra al hacer commit.
+     * @param createdAt Fecha de creación del movimiento
+     */
+    public void invalidateAfterCommit(Instant createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+        Instant hour = createdAt.truncatedTo(ChronoUnit.HOURS);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyHours.add(hour);
+                }
+            });
+        } else {
+            dirtyHours.add(hour);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollup-interval-ms:60000}")
+    public void catchUp() {
+        Instant runStart = Instant.now();
+        try {
+            initWatermark(runStart);
+            recomputeDirtyHours();
+            int chunks = 0;
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> advance(runStart)))) {
+                chunks++;
+            }
+            if (chunks > 1) {
+                log.info("Rollups de analítica consolidados en {} bloques hasta {}", chunks, runStart);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error consolidando rollups de analítica: {}", e.getMessage(), e);
+        }
+    }
+
+    public Optional<Instant> coveredUntil() {
+        List<Timestamp> rows = jdbcTemplate.queryForList(
+                "SELECT covered_until FROM analytics_watermarks WHERE name = ?", Timestamp.class, WATERMARK);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0).toInstant());
+    }
+
+    /**
+     * Movimientos por hora desde la hora de {@code since}.
+     */
+    public Map<Instant, Long> hourlyCounts(Instant since, TransactionStatus status) {
+        Instant from = since.truncatedTo(ChronoUnit.HOURS);
+        Map<Instant, Long> counts = new TreeMap<>();
+        RowCallbackHandler merge = rs -> counts.merge(rs.getTimestamp(1).toInstant(), rs.getLong(2), Long::sum);
+
+        jdbcTemplate.query("SELECT hour_start, SUM(tx_count) FROM transaction_hourly_rollups "
+                + "WHERE status = ? AND hour_start >= ? GROUP BY hour_start", merge,
+                status.name(), Timestamp.from(from));
+        jdbcTemplate.query("SELECT " + HOUR_EXPR + ", COUNT(*) FROM transactions "
+                + "WHERE status = ? AND created_at >= ? GROUP BY 1", merge,
+                status.name(), Timestamp.from(tailStart(from)));
+        return counts;
+    }
+
+    /**
+     * Cantidad, suma con signo y suma de montos positivos desde la hora de {@code since}.
+     */
+    public Totals totals(Instant since, TransactionStatus status) {
+        Instant from = since.truncatedTo(ChronoUnit.HOURS);
+        long[] count = {0};
+        BigDecimal[] sums = {BigDecimal.ZERO, BigDecimal.ZERO};
+        RowCallbackHandler merge = rs -> {
+            count[0] += rs.getLong(1);
+            sums[0] = sums[0].add(Optional.ofNullable(rs.getBigDecimal(2)).orElse(BigDecimal.ZERO));
+            sums[1] = sums[1].add(Optional.ofNullable(rs.getBigDecimal(3)).orElse(BigDecimal.ZERO));
+        };
+
+        jdbcTemplate.query("SELECT COALESCE(SUM(tx_count), 0), SUM(amount_sum), SUM(inflow_sum) "
+                + "FROM transaction_hourly_rollups WHERE status = ? AND hour_start >= ?", merge,
+                status.name(), Timestamp.from(from));
+        jdbcTemplate.query("SELECT COUNT(*), SUM(amount), SUM(CASE WHEN amount > 0 THEN amount ELSE 0 END) "
+                + "FROM transactions WHERE status = ? AND created_at >= ?", merge,
+                status.name(), Timestamp.from(tailStart(from)));
+        return new Totals(from, count[0], sums[0], sums[1]);
+    }
+
+    /**
+     * Movimientos por tipo desde la hora de {@code since}.
+     */
+    public Map<String, Long> countsByType(Instant since, TransactionStatus status) {
+        Instant from = since.truncatedTo(ChronoUnit.HOURS);
+        Map<String, Long> counts = new HashMap<>();
+        RowCallbackHandler merge = rs -> counts.merge(rs.getString(1), rs.getLong(2), Long::sum);
+
+        jdbcTemplate.query("SELECT type, SUM(tx_count) FROM transaction_hourly_rollups "
+                + "WHERE status = ? AND hour_start >= ? GROUP BY type", merge,
+                status.name(), Timestamp.from(from));
+        jdbcTemplate.query("SELECT type, COUNT(*) FROM transactions "
+                + "WHERE status = ? AND created_at >= ? GROUP BY type", merge,
+                status.name(), Timestamp.from(tailStart(from)));
+        return counts;
+    }
+
+    /**
+     * Altas por día desde {@code fromDay} (fecha según la base de datos).
+     */
+    public Map<LocalDate, Long> dailySignups(LocalDate fromDay) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        RowCallbackHandler merge = rs -> counts.merge(rs.getDate(1).toLocalDate(), rs.getLong(2), Long::sum);
+
+        Instant from = fromDay.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        jdbcTemplate.query("SELECT day, signups FROM signup_daily_rollups WHERE day >= ?", merge,
+                java.sql.Date.valueOf(fromDay));
+        jdbcTemplate.query("SELECT DATE(created_at), COUNT(*) FROM user_profile "
+                + "WHERE created_at >= ? GROUP BY DATE(created_at)", merge,
+                Timestamp.from(tailStart(from)));
+        return counts;
+    }
+
+    // Las filas anteriores a la marca ya están en los rollups
+    private Instant tailStart(Instant from) {
+        return coveredUntil().filter(covered -> covered.isAfter(from)).orElse(from);
+    }
+
+    private void initWatermark(Instant runStart) {
+        if (coveredUntil().isPresent()) {
+            return;
+        }
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT LEAST("
+                + "COALESCE((SELECT MIN(created_at) FROM transactions), ?), "
+                + "COALESCE((SELECT MIN(created_at) FROM user_profile), ?))", Timestamp.class,
+                Timestamp.from(runStart), Timestamp.from(runStart));
+        Instant start = (oldest != null ? oldest.toInstant() : runStart).truncatedTo(ChronoUnit.DAYS);
+        jdbcTemplate.update("INSERT IGNORE INTO analytics_watermarks (name, covered_until) VALUES (?, ?)",
+                WATERMARK, Timestamp.from(start));
+        log.info("Rollups de analítica: consolidación inicial desde {}", start);
+    }
+
+    private void recomputeDirtyHours() {
+        if (dirtyHours.isEmpty()) {
+            return;
+        }
+        List<Instant> hours = new ArrayList<>(dirtyHours);
+        dirtyHours.removeAll(hours);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant covered = lockWatermark();
+                for (Instant hour : hours) {
+                    if (hour.isBefore(covered)) {
+                        Instant end = hour.plus(Duration.ofHours(1));
+                        recomputeTransactions(hour, end.isBefore(covered) ? end : covered);
+                    }
+                }
+            });
+            log.debug("Rollups de analítica: {} horas recalculadas por cambios de estado", hours.size());
+        } catch (RuntimeException e) {
+            dirtyHours.addAll(hours);
+            throw e;
+        }
+    }
+
+    /**
+     * Consolida un bloque desde la marca de agua.
+     * @return true si quedan bloques por consolidar antes de {@code runStart}
+     */
+    private boolean advance(Instant runStart) {
+        Instant covered = lockWatermark();
+        Instant from = covered.truncatedTo(ChronoUnit.HOURS).minus(reopen);
+        Instant to = from.plus(chunk);
+        boolean more = to.isBefore(runStart);
+        if (!more) {
+            to = runStart;
+        }
+        if (!to.isAfter(covered)) {
+            return false;
+        }
+
+        recomputeTransactions(from, to);
+        jdbcTemplate.update(DELETE_SIGNUPS_SQL, Timestamp.from(from), Timestamp.from(to));
+        jdbcTemplate.update(INSERT_SIGNUPS_SQL, Timestamp.from(from), Timestamp.from(to));
+        jdbcTemplate.update("UPDATE analytics_watermarks SET covered_until = ? WHERE name = ?",
+                Timestamp.from(to), WATERMARK);
+        return more;
+    }
+
+    private void recomputeTransactions(Instant from, Instant to) {
+        jdbcTemplate.update(DELETE_TX_SQL, Timestamp.from(from), Timestamp.from(to));
+        jdbcTemplate.update(INSERT_TX_SQL, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private Instant lockWatermark() {
+        return jdbcTemplate.queryForObject(LOCK_WATERMARK_SQL, Timestamp.class, WATERMARK).toInstant();
+    }
+}
@@ -0,0 +1,141 @@
+package com.enone.application.admin;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo las consultas independientes de un panel de administración.
+ *
+ * Cada sección corre en su propia transacción de solo lectura sobre un pool acotado
+ * (con hilos virtuales si la JVM los ofrece) y tiene un plazo propio: la transacción
+ * lleva ese timeout, así que la consulta también se cancela en MySQL. Una sección que
+ * falla o no llega a tiempo se reemplaza por su valor por defecto y queda anotada como
+ * no disponible, de modo que el panel sale con resultados parciales en vez de fallar.
+ */
+@Slf4j
+@Component
+public class DashboardFanOut {
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public DashboardFanOut(PlatformTransactionManager transactionManager,
+                           @Value("${app.admin.dashboard.threads:6}") int threads,
+                           @Value("${app.admin.dashboard.queue-capacity:64}") int queueCapacity,
+                           @Value("${app.admin.dashboard.query-timeout-ms:3000}") long timeoutMs) {
+        this.timeoutMs = Math.max(timeoutMs, 100);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.readOnlyTemplate.setTimeout((int) Math.max(1, (this.timeoutMs + 999) / 1000));
+        int poolSize = Math.max(threads, 1);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), threadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Secciones de una misma generación del panel.
+     */
+    public final class Batch {
+
+        private final List<String> unavailable = Collections.synchronizedList(new ArrayList<>());
+
+        private Batch() {
+        }
+
+        public <T> Section<T> submit(String name, Supplier<T> query) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(
+                    () -> readOnlyTemplate.execute(status -> query.get()), executor);
+            return new Section<>(name, future, deadline);
+        }
+
+        /**
+         * Espera la sección hasta su plazo; si falla o vence devuelve {@code fallback}.
+         */
+        public <T> T get(Section<T> section, T fallback) {
+            try {
+                long remaining = section.deadlineNanos - System.nanoTime();
+                T value = section.future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                return value != null ? value : fallback;
+            } catch (TimeoutException e) {
+                section.future.cancel(true);
+                log.warn("Sección {} del dashboard excedió {} ms", section.name, timeoutMs);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Error en sección {} del dashboard: {}", section.name, cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                section.future.cancel(true);
+            }
+            unavailable.add(section.name);
+            return fallback;
+        }
+
+        public List<String> unavailable() {
+            return List.copyOf(unavailable);
+        }
+    }
+
+    public static final class Section<T> {
+
+        private final String name;
+        private final CompletableFuture<T> future;
+        private final long deadlineNanos;
+
+        private Section(String name, CompletableFuture<T> future, long deadlineNanos) {
+            this.name = name;
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    // Java 17 no tiene hilos virtuales; desde Java 21 se usan sin cambiar el nivel de compilación
+    private static ThreadFactory threadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                    .getMethod("name", String.class, long.class)
+                    .invoke(builder, "admin-dashboard-", 0L);
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory")
+                    .invoke(builder);
+            log.info("Dashboard de administración con hilos virtuales");
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            return task -> {
+                Thread thread = new Thread(task, "admin-dashboard-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
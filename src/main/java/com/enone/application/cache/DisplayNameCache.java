@@ -0,0 +1,182 @@
+package com.enone.application.cache;
+
+import com.enone.domain.model.User;
+import com.enone.domain.repository.UserRepository;
+import com.enone.web.dto.admin.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nombres para mostrar de contrapartes (nombre y apellido, o el username si el
+ * perfil no los tiene). Los que faltan se resuelven en una sola consulta de
+ * proyección, sin cargar usuarios, perfiles ni roles. Las entradas se descartan
+ * cuando cambia el usuario o su perfil ({@link UserNameChangeListener}).
+ */
+@Component
+public class DisplayNameCache {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+
+    // Cambia con cada invalidación: una carga concurrente con un cambio de nombre no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public DisplayNameCache(UserRepository userRepository,
+                            @Value("${app.cache.display-names.max-entries:50000}") int maxEntries,
+                            @Value("${app.cache.display-names.ttl-minutes:60}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.ttlNanos = Duration.ofMinutes(Math.max(ttlMinutes, 1)).toNanos();
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > DisplayNameCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Nombre para mostrar de un usuario ya cargado.
+     */
+    public static String format(User user) {
+        String first = user.getProfile() != null ? user.getProfile().getFirstName() : null;
+        String last = user.getProfile() != null ? user.getProfile().getLastName() : null;
+        return format(user.getUsername(), first, last);
+    }
+
+    public static String format(String username, String firstName, String lastName) {
+        if (firstName == null && lastName == null) {
+            return username;
+        }
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    /**
+     * Resuelve los nombres de varios usuarios con a lo sumo una consulta.
+     * @param userIds Usuarios a resolver
+     * @return Nombre por id; los usuarios inexistentes no aparecen
+     */
+    public Map<Long, String> displayNames(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        long now = System.nanoTime();
+
+        synchronized (entries) {
+            for (Long userId : userIds) {
+                Entry entry = entries.get(userId);
+                if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                    result.put(userId, entry.name());
+                    hits.increment();
+                    continue;
+                }
+                if (entry != null) {
+                    entries.remove(userId);
+                    expirations.increment();
+                }
+                missing.add(userId);
+                misses.increment();
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long generationBefore = generation.get();
+        Map<Long, String> loaded = new HashMap<>();
+        for (Object[] row : userRepository.findDisplayNameRowsByIdIn(missing)) {
+            loaded.put((Long) row[0], format((String) row[1], (String) row[2], (String) row[3]));
+        }
+        loads.increment();
+        result.putAll(loaded);
+
+        if (generation.get() == generationBefore) {
+            long loadedAt = System.nanoTime();
+            synchronized (entries) {
+                loaded.forEach((userId, name) -> entries.put(userId, new Entry(name, loadedAt)));
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(Long userId) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            if (entries.remove(userId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Descarta el nombre al confirmar la transacción actual (o de inmediato si no hay una).
+     * @param userId Usuario cuyo nombre pudo cambiar
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(userId);
+            }
+        });
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return CacheStats.builder()
+                .name("display-names")
+                .enabled(true)
+                .size(size)
+                .maxSize(maxEntries)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .loads(loads.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .writeThroughs(0L)
+                .invalidations(invalidations.sum())
+                .build();
+    }
+
+    private record Entry(String name, long loadedAt) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.enone.application.cache;
+
+import com.enone.domain.model.User;
+import com.enone.domain.model.UserProfile;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de {@link User} y {@link UserProfile}: cualquier cambio puede
+ * alterar el nombre para mostrar, así que se descarta de {@link DisplayNameCache}.
+ * Hibernate obtiene la instancia desde el contexto de Spring.
+ */
+@Component
+public class UserNameChangeListener {
+
+    private final DisplayNameCache displayNameCache;
+
+    public UserNameChangeListener(@Lazy DisplayNameCache displayNameCache) {
+        this.displayNameCache = displayNameCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof UserProfile profile) {
+            displayNameCache.invalidateAfterCommit(profile.getUserId());
+        } else if (entity instanceof User user) {
+            displayNameCache.invalidateAfterCommit(user.getId());
+        }
+    }
+}
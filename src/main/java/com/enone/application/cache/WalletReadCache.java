@@ -0,0 +1,459 @@
+package com.enone.application.cache;
+
+import com.enone.application.mapper.WalletMapper;
+import com.enone.domain.model.Transaction;
+import com.enone.domain.model.TransactionStatus;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.repository.TransactionRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.web.dto.admin.CacheStats;
+import com.enone.web.dto.wallet.BalanceResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché de lectura por usuario para saldos y últimos movimientos.
+ *
+ * Cada entrada guarda copias inmutables de las wallets del usuario y de una cola
+ * corta de sus movimientos más recientes, nunca entidades JPA; cada lectura devuelve
+ * objetos nuevos. Las operaciones que modifican saldos escriben la entrada después
+ * del commit (write-through), así que un GET posterior a la operación ve el saldo
+ * nuevo sin consultar MySQL. El TTL, contado desde la carga, limita la antigüedad
+ * ante cambios hechos fuera de este servicio.
+ *
+ * Las entradas viven en un {@link ConcurrentHashMap}: una lectura no toma locks y una
+ * escritura solo bloquea la clave del usuario. Al pasar el máximo, un único hilo
+ * descarta las entradas vencidas y las de acceso más antiguo hasta dejar un 10% libre.
+ */
+@Slf4j
+@Component
+public class WalletReadCache {
+
+    private static final int STRIPES = 1024;
+    private static final Comparator<TxSnapshot> NEWEST_SNAPSHOT_FIRST = Comparator
+            .comparing(TxSnapshot::createdAt)
+            .thenComparing(TxSnapshot::id)
+            .reversed();
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId)
+            .reversed();
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletMapper walletMapper;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final int evictTo;
+    private final long ttlNanos;
+    private final int tailSize;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>(256);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Escrituras por franja de usuarios: una carga solo se guarda si ninguna escritura
+    // de su franja estaba en curso o empezó mientras leía de la base de datos
+    private final AtomicLongArray started = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray finished = new AtomicLongArray(STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder writeThroughs = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public WalletReadCache(WalletRepository walletRepository,
+                           TransactionRepository transactionRepository,
+                           WalletMapper walletMapper,
+                           @Value("${app.cache.wallets.enabled:true}") boolean enabled,
+                           @Value("${app.cache.wallets.max-users:10000}") int maxUsers,
+                           @Value("${app.cache.wallets.ttl-seconds:60}") long ttlSeconds,
+                           @Value("${app.cache.wallets.recent-transactions:25}") int tailSize) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletMapper = walletMapper;
+        this.enabled = enabled;
+        this.maxUsers = Math.max(maxUsers, 1);
+        this.evictTo = this.maxUsers - this.maxUsers / 10;
+        this.ttlNanos = Duration.ofSeconds(Math.max(ttlSeconds, 1)).toNanos();
+        this.tailSize = Math.max(tailSize, 1);
+    }
+
+    /**
+     * Saldos de todas las wallets del usuario, en el orden de {@code findByUserId}.
+     * @param userId Usuario
+     * @return Saldos; lista vacía si el usuario no tiene wallets
+     */
+    public List<BalanceResponse> balances(Long userId) {
+        return lookup(userId).balances();
+    }
+
+    /**
+     * Primeros movimientos del historial del usuario, si la cola en caché alcanza
+     * para responder sin consultar la base de datos.
+     * @param userId Usuario
+     * @param currency Moneda a filtrar (null para todas)
+     * @param count Número de movimientos pedidos
+     * @return Movimientos del más reciente al más antiguo, o vacío si hay que ir a la base de datos
+     */
+    public Optional<List<Transaction>> recentTransactions(Long userId, String currency, int count) {
+        if (!enabled || count > tailSize) {
+            return Optional.empty();
+        }
+
+        Entry entry = lookup(userId);
+        List<Transaction> matching = entry.tail().stream()
+                .filter(tx -> currency == null || currency.equalsIgnoreCase(tx.currency()))
+                .limit(count)
+                .map(TxSnapshot::toTransaction)
+                .toList();
+        // La cola tiene los N más recientes del usuario: si no cubre el pedido, solo sirve si es el historial completo
+        if (matching.size() < count && !entry.tailComplete()) {
+            return Optional.empty();
+        }
+        return Optional.of(matching);
+    }
+
+    /**
+     * Registra el estado de la wallet para escribirlo en la caché cuando la transacción
+     * actual haga commit. Debe llamarse con la wallet bloqueada y los movimientos ya insertados.
+     * @param wallet Wallet con el saldo final de la operación
+     * @param transactions Movimientos de la operación (se toman solo los de esta wallet)
+     */
+    public void writeThrough(Wallet wallet, List<Transaction> transactions) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Transaction> own = transactions.stream()
+                .filter(tx -> wallet.getId().equals(tx.getWalletId()))
+                .toList();
+        if (own.isEmpty() || own.stream().anyMatch(tx -> tx.getId() == null)) {
+            // Sin ids no se puede ordenar contra otras escrituras: se descarta la entrada
+            invalidateAfterCommit(wallet.getUserId());
+            return;
+        }
+
+        long lastTxId = own.stream().mapToLong(Transaction::getId).max().getAsLong();
+        WalletView view = WalletView.of(walletMapper.toBalanceResponse(wallet), lastTxId);
+        List<TxSnapshot> snapshots = own.stream().map(TxSnapshot::of).toList();
+        Long userId = wallet.getUserId();
+        Long walletId = wallet.getId();
+        afterCommit(userId, () -> apply(userId, walletId, view, snapshots));
+    }
+
+    /**
+     * Descarta la entrada del usuario cuando la transacción actual haga commit.
+     * Para cambios de saldo que no pasan por {@link #writeThrough} (abonos a slots, ajustes).
+     * @param userId Usuario
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(userId, () -> invalidate(userId));
+    }
+
+    public void invalidate(Long userId) {
+        if (entries.remove(userId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public CacheStats stats() {
+        int size = entries.size();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return CacheStats.builder()
+                .name("wallets")
+                .enabled(enabled)
+                .size(size)
+                .maxSize(maxUsers)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .loads(loads.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .writeThroughs(writeThroughs.sum())
+                .invalidations(invalidations.sum())
+                .build();
+    }
+
+    private Entry lookup(Long userId) {
+        if (!enabled) {
+            return read(userId);
+        }
+
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (!entry.expired(now, ttlNanos)) {
+                entry.accessedAt = now;
+                hits.increment();
+                return entry;
+            }
+            if (entries.remove(userId, entry)) {
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        int stripe = stripe(userId);
+        long startedBefore = started.get(stripe);
+        long finishedBefore = finished.get(stripe);
+
+        Entry loaded = read(userId);
+        loads.increment();
+
+        if (startedBefore == finishedBefore && started.get(stripe) == startedBefore && !loaded.wallets().isEmpty()) {
+            entries.put(userId, loaded);
+            evictIfFull();
+        }
+        return loaded;
+    }
+
+    private void evictIfFull() {
+        // Un solo hilo limpia a la vez; los demás siguen sin esperar
+        if (entries.size() <= maxUsers || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                if (entry.expired(now, ttlNanos)) {
+                    if (entries.remove(e.getKey(), entry)) {
+                        expirations.increment();
+                    }
+                } else {
+                    candidates.add(new Candidate(e.getKey(), entry, entry.accessedAt));
+                }
+            }
+            if (entries.size() <= maxUsers) {
+                return;
+            }
+            candidates.sort(Comparator.comparingLong(c -> c.accessedAt() - now));
+            for (Candidate candidate : candidates) {
+                if (entries.size() <= evictTo) {
+                    break;
+                }
+                if (entries.remove(candidate.userId(), candidate.entry())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private Entry read(Long userId) {
+        List<Wallet> wallets = walletRepository.findByUserId(userId);
+        Map<Long, WalletView> views = new LinkedHashMap<>();
+        List<Transaction> tail = new ArrayList<>();
+        // Un elemento extra por wallet para saber si la cola contiene todo el historial
+        PageRequest page = PageRequest.of(0, tailSize + 1);
+        for (Wallet wallet : wallets) {
+            views.put(wallet.getId(), WalletView.of(walletMapper.toBalanceResponse(wallet), 0L));
+            tail.addAll(transactionRepository.findFirstPageByWalletId(wallet.getId(), page));
+        }
+        tail.sort(NEWEST_FIRST);
+        boolean complete = tail.size() <= tailSize;
+        List<TxSnapshot> trimmed = (complete ? tail : tail.subList(0, tailSize)).stream()
+                .map(TxSnapshot::of)
+                .toList();
+        return new Entry(Collections.unmodifiableMap(views), trimmed, complete, System.nanoTime());
+    }
+
+    private void apply(Long userId, Long walletId, WalletView view, List<TxSnapshot> transactions) {
+        // computeIfPresent es atómico por usuario: dos escrituras de la misma entrada no se pisan
+        entries.computeIfPresent(userId, (id, entry) -> {
+            WalletView current = entry.wallets().get(walletId);
+            if (current == null) {
+                // Wallet nueva para la entrada: se recarga completa en la próxima lectura
+                invalidations.increment();
+                return null;
+            }
+            // Si ya se aplicó una escritura posterior de la misma wallet se conserva su saldo,
+            // pero los movimientos siempre se agregan a la cola
+            WalletView newest = view.lastTxId() > current.lastTxId() ? view : current;
+            writeThroughs.increment();
+            return entry.with(walletId, newest, transactions, tailSize);
+        });
+    }
+
+    private void afterCommit(Long userId, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        int stripe = stripe(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started.incrementAndGet(stripe);
+                counted = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        action.run();
+                    } else if (status == STATUS_UNKNOWN) {
+                        invalidate(userId);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo actualizar la caché de wallets del usuario {}: {}", userId, e.getMessage());
+                    invalidate(userId);
+                } finally {
+                    if (counted) {
+                        finished.incrementAndGet(stripe);
+                    }
+                }
+            }
+        });
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Long.remainderUnsigned(userId * 0x9E3779B97F4A7C15L >>> 32, STRIPES);
+    }
+
+    private record WalletView(String walletNumber, String currency, BigDecimal balance, long lastTxId) {
+
+        static WalletView of(BalanceResponse response, long lastTxId) {
+            return new WalletView(response.getWalletNumber(), response.getCurrency(), response.getBalance(),
+                    lastTxId);
+        }
+
+        BalanceResponse toResponse() {
+            return BalanceResponse.builder()
+                    .walletNumber(walletNumber)
+                    .currency(currency)
+                    .balance(balance)
+                    .build();
+        }
+    }
+
+    /**
+     * Copia de un movimiento: la caché no retiene entidades administradas por JPA.
+     */
+    private record TxSnapshot(Long id, String transactionUid, String securityCode, Long walletId,
+                              TransactionType type, BigDecimal amount, String currency, BigDecimal balanceAfter,
+                              String description, Long relatedUserId, String reference, TransactionStatus status,
+                              Instant createdAt) {
+
+        static TxSnapshot of(Transaction tx) {
+            return new TxSnapshot(tx.getId(), tx.getTransactionUid(), tx.getSecurityCode(), tx.getWalletId(),
+                    tx.getType(), tx.getAmount(), tx.getCurrency(), tx.getBalanceAfter(), tx.getDescription(),
+                    tx.getRelatedUserId(), tx.getReference(), tx.getStatus(), tx.getCreatedAt());
+        }
+
+        Transaction toTransaction() {
+            return Transaction.builder()
+                    .id(id)
+                    .transactionUid(transactionUid)
+                    .securityCode(securityCode)
+                    .walletId(walletId)
+                    .type(type)
+                    .amount(amount)
+                    .currency(currency)
+                    .balanceAfter(balanceAfter)
+                    .description(description)
+                    .relatedUserId(relatedUserId)
+                    .reference(reference)
+                    .status(status)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+
+    private record Candidate(Long userId, Entry entry, long accessedAt) {
+    }
+
+    private static final class Entry {
+
+        private final Map<Long, WalletView> wallets;
+        private final List<TxSnapshot> tail;
+        private final boolean tailComplete;
+        private final long loadedAt;
+        // Solo orienta el descarte por tamaño; se escribe sin lock en cada acierto
+        private volatile long accessedAt;
+
+        Entry(Map<Long, WalletView> wallets, List<TxSnapshot> tail, boolean tailComplete, long loadedAt) {
+            this.wallets = wallets;
+            this.tail = tail;
+            this.tailComplete = tailComplete;
+            this.loadedAt = loadedAt;
+            this.accessedAt = loadedAt;
+        }
+
+        Map<Long, WalletView> wallets() {
+            return wallets;
+        }
+
+        List<TxSnapshot> tail() {
+            return tail;
+        }
+
+        boolean tailComplete() {
+            return tailComplete;
+        }
+
+        boolean expired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+
+        List<BalanceResponse> balances() {
+            return wallets.values().stream().map(WalletView::toResponse).toList();
+        }
+
+        Entry with(Long walletId, WalletView view, List<TxSnapshot> transactions, int tailSize) {
+            Map<Long, WalletView> newWallets = new LinkedHashMap<>(wallets);
+            newWallets.put(walletId, view);
+
+            Set<Long> known = new HashSet<>();
+            tail.forEach(tx -> known.add(tx.id()));
+            List<TxSnapshot> newTail = new ArrayList<>(tail);
+            transactions.stream().filter(tx -> known.add(tx.id())).forEach(newTail::add);
+            newTail.sort(NEWEST_SNAPSHOT_FIRST);
+
+            boolean complete = tailComplete && newTail.size() <= tailSize;
+            if (newTail.size() > tailSize) {
+                newTail = newTail.subList(0, tailSize);
+            }
+            Entry next = new Entry(Collections.unmodifiableMap(newWallets), List.copyOf(newTail), complete,
+                    loadedAt);
+            next.accessedAt = accessedAt;
+            return next;
+        }
+    }
+}
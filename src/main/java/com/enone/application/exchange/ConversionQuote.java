@@ -0,0 +1,16 @@
+package com.enone.application.exchange;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Tipo de cambio reservado para un usuario y un par de monedas hasta {@code expiresAt}.
+ * El {@code id} es el que recibe el cliente y va firmado ({@link ConversionQuoteStore}).
+ */
+public record ConversionQuote(String id, Long userId, String fromCurrency, String toCurrency,
+                              BigDecimal rate, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
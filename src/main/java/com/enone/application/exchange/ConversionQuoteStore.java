@@ -0,0 +1,174 @@
+package com.enone.application.exchange;
+
+import com.enone.exception.ApiException;
+import com.enone.util.exchange.ExchangeRateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cotizaciones de conversión con tipo de cambio bloqueado, en memoria del nodo.
+ *
+ * El tipo de cambio se consulta una sola vez al emitir la cotización; al convertir
+ * se canjea la cotización y la transacción ya no depende de las APIs externas. El id
+ * lleva el usuario, el par y el vencimiento firmados con HMAC, de modo que un id
+ * alterado o de otro usuario se rechaza sin consultar el mapa. Cada cotización se
+ * canjea una sola vez; si la conversión falla se devuelve al mapa mientras siga vigente.
+ */
+@Slf4j
+@Component
+public class ConversionQuoteStore {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ExchangeRateService exchangeRateService;
+    private final SecretKeySpec signingKey;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, ConversionQuote> quotes = new ConcurrentHashMap<>();
+
+    public ConversionQuoteStore(ExchangeRateService exchangeRateService,
+                                @Value("${app.exchange.quotes.secret:${spring.security.jwt.secret}}") String secret,
+                                @Value("${app.exchange.quotes.ttl-seconds:30}") long ttlSeconds,
+                                @Value("${app.exchange.quotes.max-entries:100000}") int maxEntries) {
+        this.exchangeRateService = exchangeRateService;
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttl = Duration.ofSeconds(Math.max(ttlSeconds, 1));
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    /**
+     * Consulta el tipo de cambio y lo reserva para el usuario durante el TTL configurado.
+     * @param userId Id del usuario
+     * @param fromCurrency Moneda origen
+     * @param toCurrency Moneda destino
+     * @return Cotización emitida
+     */
+    public ConversionQuote issue(Long userId, String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency)) {
+            throw new ApiException(400, "No se puede convertir a la misma moneda");
+        }
+        if (quotes.size() >= maxEntries) {
+            purgeExpired();
+            if (quotes.size() >= maxEntries) {
+                throw new ApiException(503, "Demasiadas cotizaciones activas, intente nuevamente");
+            }
+        }
+
+        BigDecimal rate = exchangeRateService.getSettlementRate(fromCurrency, toCurrency);
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(ttl);
+
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        String payload = String.join(".", ENCODER.encodeToString(nonce), userId.toString(),
+                fromCurrency, toCurrency, Long.toString(expiresAt.toEpochMilli()));
+        String id = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + sign(payload);
+
+        ConversionQuote quote = new ConversionQuote(id, userId, fromCurrency, toCurrency, rate, issuedAt, expiresAt);
+        quotes.put(id, quote);
+        log.info("Cotización emitida para usuario {}: 1 {} = {} {} hasta {}", userId, fromCurrency, rate,
+                toCurrency, expiresAt);
+        return quote;
+    }
+
+    /**
+     * Canjea una cotización vigente. Después del canje la cotización ya no puede
+     * volver a usarse, salvo que se devuelva con {@link #release(ConversionQuote)}.
+     * @param userId Usuario que convierte
+     * @param quoteId Id firmado de la cotización
+     * @param fromCurrency Moneda origen de la conversión
+     * @param toCurrency Moneda destino de la conversión
+     * @return Cotización canjeada
+     */
+    public ConversionQuote redeem(Long userId, String quoteId, String fromCurrency, String toCurrency) {
+        String[] claims = verify(quoteId);
+        if (!claims[1].equals(userId.toString())) {
+            throw new ApiException(403, "La cotización no pertenece al usuario");
+        }
+        if (!claims[2].equals(fromCurrency) || !claims[3].equals(toCurrency)) {
+            throw new ApiException(400, "La cotización es para " + claims[2] + " -> " + claims[3]);
+        }
+
+        Instant now = Instant.now();
+        if (!now.isBefore(Instant.ofEpochMilli(Long.parseLong(claims[4])))) {
+            quotes.remove(quoteId);
+            throw new ApiException(410, "La cotización expiró, solicite una nueva");
+        }
+
+        ConversionQuote quote = quotes.remove(quoteId);
+        if (quote == null) {
+            throw new ApiException(409, "La cotización ya fue utilizada o no está disponible");
+        }
+        if (quote.isExpired(now)) {
+            throw new ApiException(410, "La cotización expiró, solicite una nueva");
+        }
+        return quote;
+    }
+
+    /**
+     * Devuelve una cotización canjeada cuya conversión no llegó a confirmarse.
+     */
+    public void release(ConversionQuote quote) {
+        if (!quote.isExpired(Instant.now())) {
+            quotes.putIfAbsent(quote.id(), quote);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.exchange.quotes.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int before = quotes.size();
+        quotes.values().removeIf(quote -> quote.isExpired(now));
+        int purged = before - quotes.size();
+        if (purged > 0) {
+            log.debug("Cotizaciones vencidas descartadas: {}", purged);
+        }
+    }
+
+    private String[] verify(String quoteId) {
+        int dot = quoteId == null ? -1 : quoteId.indexOf('.');
+        if (dot <= 0 || dot == quoteId.length() - 1) {
+            throw new ApiException(400, "Cotización inválida");
+        }
+        try {
+            String payload = new String(DECODER.decode(quoteId.substring(0, dot)), StandardCharsets.UTF_8);
+            byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+            byte[] actual = quoteId.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+            String[] claims = payload.split("\\.");
+            if (!MessageDigest.isEqual(expected, actual) || claims.length != 5) {
+                throw new ApiException(400, "Cotización inválida");
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Cotización inválida");
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return ENCODER.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar la cotización", e);
+        }
+    }
+}
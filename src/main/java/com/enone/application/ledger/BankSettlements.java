@@ -0,0 +1,380 @@
+package com.enone.application.ledger;
+
+import com.enone.application.admin.AnalyticsRollups;
+import com.enone.application.cache.WalletReadCache;
+import com.enone.application.notification.WalletEventHub;
+import com.enone.application.service.BalanceSnapshotService;
+import com.enone.application.service.StatementService;
+import com.enone.application.service.MockBancoService;
+import com.enone.domain.model.BankSettlement;
+import com.enone.domain.model.JournalEntry;
+import com.enone.domain.model.JournalEntryType;
+import com.enone.domain.model.LedgerAccountType;
+import com.enone.domain.model.Transaction;
+import com.enone.domain.model.TransactionStatus;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.model.UserTarjeta;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.repository.BankSettlementRepository;
+import com.enone.domain.repository.UserTarjetaRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.wallet.RealizarAbonoRequest;
+import com.enone.web.dto.wallet.RealizarAbonoResponse;
+import com.enone.web.dto.wallet.RealizarCobroRequest;
+import com.enone.web.dto.wallet.RealizarCobroResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Liquidación en dos fases de depósitos y retiros contra el banco.
+ *
+ * Fase 1 (en {@code WalletServiceImpl}): se registra el movimiento en PENDING y su
+ * {@link BankSettlement} y se hace commit; un retiro además descuenta el saldo en
+ * esa misma transacción. Fase 2 (aquí): se llama al banco fuera de toda transacción
+ * y se liquida el resultado: el depósito se abona o falla, el retiro se confirma o
+ * se compensa devolviendo el saldo. El banco recibe el uid del movimiento como
+ * referencia idempotente, así que repetir la llamada es seguro y el proceso de
+ * recuperación simplemente vuelve a ejecutar la fase 2.
+ */
+@Slf4j
+@Component
+public class BankSettlements {
+
+    private final BankSettlementRepository bankSettlementRepository;
+    private final WalletRepository walletRepository;
+    private final UserTarjetaRepository userTarjetaRepository;
+    private final MockBancoService mockBancoService;
+    private final WalletLockManager walletLockManager;
+    private final LedgerJournal ledgerJournal;
+    private final WalletReadCache walletReadCache;
+    private final WalletEventHub walletEventHub;
+    private final AnalyticsRollups analyticsRollups;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final StatementService statementService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleAfter;
+    private final int recoveryBatchSize;
+
+    public BankSettlements(BankSettlementRepository bankSettlementRepository,
+                           WalletRepository walletRepository,
+                           UserTarjetaRepository userTarjetaRepository,
+                           MockBancoService mockBancoService,
+                           WalletLockManager walletLockManager,
+                           LedgerJournal ledgerJournal,
+                           WalletReadCache walletReadCache,
+                           WalletEventHub walletEventHub,
+                           AnalyticsRollups analyticsRollups,
+                           BalanceSnapshotService balanceSnapshotService,
+                           StatementService statementService,
+                           EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.settlement.stale-after-ms:120000}") long staleAfterMs,
+                           @Value("${app.settlement.recovery-batch-size:100}") int recoveryBatchSize) {
+        this.bankSettlementRepository = bankSettlementRepository;
+        this.walletRepository = walletRepository;
+        this.userTarjetaRepository = userTarjetaRepository;
+        this.mockBancoService = mockBancoService;
+        this.walletLockManager = walletLockManager;
+        this.ledgerJournal = ledgerJournal;
+        this.walletReadCache = walletReadCache;
+        this.walletEventHub = walletEventHub;
+        this.analyticsRollups = analyticsRollups;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.statementService = statementService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.recoveryBatchSize = Math.max(recoveryBatchSize, 1);
+    }
+
+    /**
+     * Registra la liquidación pendiente del movimiento en la transacción actual (fase 1).
+     * @param transaction Movimiento en PENDING ya insertado
+     * @param userId Dueño de la wallet del movimiento
+     * @param tarjeta Tarjeta contra la que se liquida
+     * @return Liquidación creada
+     */
+    public BankSettlement open(Transaction transaction, Long userId, UserTarjeta tarjeta) {
+        return bankSettlementRepository.save(BankSettlement.builder()
+                .transactionId(transaction.getId())
+                .walletId(transaction.getWalletId())
+                .userId(userId)
+                .tarjetaId(tarjeta.getId())
+                .type(transaction.getType())
+                .amount(transaction.getAmount().abs())
+                .build());
+    }
+
+    /**
+     * Ejecuta la fase 2 de la liquidación. Si el hilo está dentro de una transacción
+     * externa, la fase 1 aún no tiene commit y no se puede llamar al banco: el
+     * movimiento queda en PENDING y lo liquida el proceso de recuperación.
+     * @param settlement Liquidación registrada en la fase 1
+     * @return Resultado de la liquidación
+     */
+    public SettlementResult settle(BankSettlement settlement) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.info("Liquidación {} dentro de una transacción externa, se resolverá en segundo plano",
+                    settlement.getId());
+            return new SettlementResult(entityManager.find(Transaction.class, settlement.getTransactionId()),
+                    TransactionStatus.PENDING, null);
+        }
+        return settle(settlement.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.settlement.recovery-interval-ms:60000}")
+    public void recoverPending() {
+        Instant before = Instant.now().minus(staleAfter);
+        List<Long> ids = bankSettlementRepository.findIdsByStatusUpdatedBefore(TransactionStatus.PENDING, before,
+                PageRequest.of(0, recoveryBatchSize));
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int resolved = 0;
+        for (Long id : ids) {
+            try {
+                if (settle(id).status() != TransactionStatus.PENDING) {
+                    resolved++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudo recuperar la liquidación {}: {}", id, e.getMessage());
+            }
+        }
+        log.info("Recuperación de liquidaciones: {} pendientes revisadas, {} resueltas", ids.size(), resolved);
+    }
+
+    private SettlementResult settle(Long settlementId) {
+        BankSettlement settlement = bankSettlementRepository.findById(settlementId)
+                .orElseThrow(() -> new ApiException(404, "Liquidación no encontrada"));
+        Transaction transaction = entityManager.find(Transaction.class, settlement.getTransactionId());
+        if (settlement.getStatus() != TransactionStatus.PENDING) {
+            return new SettlementResult(transaction, settlement.getStatus(), settlement.getLastError());
+        }
+
+        BankOutcome outcome = callBank(settlement, transaction.getTransactionUid());
+        if (outcome.approved() == null) {
+            recordAttempt(settlementId, outcome.message());
+            return new SettlementResult(transaction, TransactionStatus.PENDING, outcome.message());
+        }
+        return outcome.approved()
+                ? complete(settlement, outcome.bankTransactionId())
+                : reject(settlement, outcome.message());
+    }
+
+    private BankOutcome callBank(BankSettlement settlement, String reference) {
+        UserTarjeta tarjeta = userTarjetaRepository.findById(settlement.getTarjetaId()).orElse(null);
+        if (tarjeta == null) {
+            return new BankOutcome(false, null, "Tarjeta no encontrada");
+        }
+
+        try {
+            if (settlement.getType() == TransactionType.DEPOSIT) {
+                RealizarCobroResponse response = mockBancoService.realizarCobro(RealizarCobroRequest.builder()
+                        .numeroTarjeta(tarjeta.getNumeroTarjetaCompleto())
+                        .monto(settlement.getAmount())
+                        .referencia(reference)
+                        .build());
+                return new BankOutcome(Boolean.TRUE.equals(response.getSuccess()), response.getTransactionId(),
+                        response.getMensaje());
+            }
+            RealizarAbonoResponse response = mockBancoService.acreditarDinero(RealizarAbonoRequest.builder()
+                    .numeroTarjeta(tarjeta.getNumeroTarjetaCompleto())
+                    .monto(settlement.getAmount())
+                    .referencia(reference)
+                    .build());
+            return new BankOutcome(Boolean.TRUE.equals(response.getSuccess()), response.getTransactionId(),
+                    response.getMensaje());
+        } catch (ApiException e) {
+            // Un 4xx del banco es un rechazo definitivo; cualquier otro error deja el resultado desconocido
+            if (e.getStatus() >= 400 && e.getStatus() < 500) {
+                return new BankOutcome(false, null, e.getMessage());
+            }
+            log.warn("Respuesta desconocida del banco para liquidación {}: {}", settlement.getId(), e.getMessage());
+            return new BankOutcome(null, null, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Respuesta desconocida del banco para liquidación {}: {}", settlement.getId(), e.getMessage());
+            return new BankOutcome(null, null, e.getMessage());
+        }
+    }
+
+    private SettlementResult complete(BankSettlement settlement, String bankTransactionId) {
+        if (settlement.getType() == TransactionType.DEPOSIT) {
+            // El depósito recién ahora mueve saldo: se abona con la wallet bloqueada
+            return walletLockManager.executeLocked(List.of(settlement.getWalletId()), wallets -> {
+                BankSettlement locked = lockSettlement(settlement.getId());
+                Transaction transaction = loadTransaction(locked.getTransactionId());
+                if (locked.getStatus() != TransactionStatus.PENDING) {
+                    return new SettlementResult(transaction, locked.getStatus(), locked.getLastError());
+                }
+
+                Wallet wallet = wallets.get(locked.getWalletId());
+                wallet.setBalance(wallet.getBalance().add(locked.getAmount()));
+                wallet.setUpdatedAt(Instant.now());
+                walletRepository.save(wallet);
+
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                analyticsRollups.invalidateAfterCommit(transaction.getCreatedAt());
+                // El depósito se aplica ahora pero cuenta en el día en que se registró
+                balanceSnapshotService.reopenAfterCommit(locked.getWalletId(), transaction.getCreatedAt());
+                statementService.reopenFrom(locked.getWalletId(), transaction.getCreatedAt());
+                transaction.setBalanceAfter(wallet.getBalance());
+                transaction.setReference(bankTransactionId);
+                markResolved(locked, TransactionStatus.COMPLETED, bankTransactionId, null);
+
+                ledgerJournal.post(JournalEntry.builder()
+                        .type(JournalEntryType.DEPOSIT)
+                        .reference(transaction.getTransactionUid())
+                        .description(transaction.getDescription())
+                        .build()
+                        .walletPosting(wallet.getId(), wallet.getCurrency(), locked.getAmount())
+                        .systemPosting(LedgerAccountType.BANK_SETTLEMENT, wallet.getCurrency(),
+                                locked.getAmount().negate()));
+
+                walletReadCache.invalidateAfterCommit(locked.getUserId());
+                walletEventHub.balanceChanged(wallet, wallet.getBalance(), transaction);
+                log.info("Depósito liquidado - ID: {}, banco: {}, nuevo saldo: {}",
+                        transaction.getId(), bankTransactionId, wallet.getBalance());
+                return new SettlementResult(transaction, TransactionStatus.COMPLETED, null);
+            });
+        }
+
+        // El retiro ya descontó el saldo en la fase 1: solo se confirma
+        return transactionTemplate.execute(status -> {
+            BankSettlement locked = lockSettlement(settlement.getId());
+            Transaction transaction = loadTransaction(locked.getTransactionId());
+            if (locked.getStatus() != TransactionStatus.PENDING) {
+                return new SettlementResult(transaction, locked.getStatus(), locked.getLastError());
+            }
+
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            analyticsRollups.invalidateAfterCommit(transaction.getCreatedAt());
+            transaction.setReference(bankTransactionId);
+            markResolved(locked, TransactionStatus.COMPLETED, bankTransactionId, null);
+
+            walletReadCache.invalidateAfterCommit(locked.getUserId());
+            log.info("Retiro liquidado - ID: {}, banco: {}", transaction.getId(), bankTransactionId);
+            return new SettlementResult(transaction, TransactionStatus.COMPLETED, null);
+        });
+    }
+
+    private SettlementResult reject(BankSettlement settlement, String message) {
+        if (settlement.getType() == TransactionType.DEPOSIT) {
+            // El depósito no movió saldo: basta con marcarlo fallido
+            return transactionTemplate.execute(status -> {
+                BankSettlement locked = lockSettlement(settlement.getId());
+                Transaction transaction = loadTransaction(locked.getTransactionId());
+                if (locked.getStatus() != TransactionStatus.PENDING) {
+                    return new SettlementResult(transaction, locked.getStatus(), locked.getLastError());
+                }
+
+                transaction.setStatus(TransactionStatus.FAILED);
+                analyticsRollups.invalidateAfterCommit(transaction.getCreatedAt());
+                markResolved(locked, TransactionStatus.FAILED, null, message);
+
+                walletReadCache.invalidateAfterCommit(locked.getUserId());
+                log.info("Depósito rechazado por el banco - ID: {}: {}", transaction.getId(), message);
+                return new SettlementResult(transaction, TransactionStatus.FAILED, message);
+            });
+        }
+
+        // Compensación del retiro: se devuelve el saldo y se revierte el asiento
+        return walletLockManager.executeLocked(List.of(settlement.getWalletId()), wallets -> {
+            BankSettlement locked = lockSettlement(settlement.getId());
+            Transaction transaction = loadTransaction(locked.getTransactionId());
+            if (locked.getStatus() != TransactionStatus.PENDING) {
+                return new SettlementResult(transaction, locked.getStatus(), locked.getLastError());
+            }
+
+            Wallet wallet = wallets.get(locked.getWalletId());
+            wallet.setBalance(wallet.getBalance().add(locked.getAmount()));
+            wallet.setUpdatedAt(Instant.now());
+            walletRepository.save(wallet);
+
+            transaction.setStatus(TransactionStatus.FAILED);
+            analyticsRollups.invalidateAfterCommit(transaction.getCreatedAt());
+            // El retiro ya descontaba en su día; al revertirse deja de contar
+            balanceSnapshotService.reopenAfterCommit(locked.getWalletId(), transaction.getCreatedAt());
+            statementService.reopenFrom(locked.getWalletId(), transaction.getCreatedAt());
+            markResolved(locked, TransactionStatus.FAILED, null, message);
+
+            ledgerJournal.post(JournalEntry.builder()
+                    .type(JournalEntryType.WITHDRAWAL_REVERSAL)
+                    .reference(transaction.getTransactionUid())
+                    .description("Reversión de retiro rechazado por el banco")
+                    .build()
+                    .walletPosting(wallet.getId(), wallet.getCurrency(), locked.getAmount())
+                    .systemPosting(LedgerAccountType.BANK_SETTLEMENT, wallet.getCurrency(),
+                            locked.getAmount().negate()));
+
+            walletReadCache.invalidateAfterCommit(locked.getUserId());
+            walletEventHub.balanceChanged(wallet, wallet.getBalance(), transaction);
+            log.info("Retiro rechazado por el banco y compensado - ID: {}: {}", transaction.getId(), message);
+            return new SettlementResult(transaction, TransactionStatus.FAILED, message);
+        });
+    }
+
+    private void recordAttempt(Long settlementId, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BankSettlement locked = lockSettlement(settlementId);
+            if (locked.getStatus() == TransactionStatus.PENDING) {
+                locked.setAttempts(locked.getAttempts() + 1);
+                locked.setLastError(truncate(error));
+            }
+        });
+    }
+
+    private void markResolved(BankSettlement settlement, TransactionStatus status, String bankTransactionId,
+                              String error) {
+        settlement.setStatus(status);
+        settlement.setAttempts(settlement.getAttempts() + 1);
+        settlement.setBankTransactionId(bankTransactionId);
+        settlement.setLastError(truncate(error));
+    }
+
+    private BankSettlement lockSettlement(Long settlementId) {
+        // Con open-in-view puede haber copias previas en el contexto de persistencia: se descartan
+        entityManager.detach(entityManager.getReference(BankSettlement.class, settlementId));
+        BankSettlement locked = entityManager.find(BankSettlement.class, settlementId, LockModeType.PESSIMISTIC_WRITE);
+        if (locked == null) {
+            throw new ApiException(404, "Liquidación no encontrada");
+        }
+        return locked;
+    }
+
+    private Transaction loadTransaction(Long transactionId) {
+        entityManager.detach(entityManager.getReference(Transaction.class, transactionId));
+        Transaction transaction = entityManager.find(Transaction.class, transactionId);
+        if (transaction == null) {
+            throw new ApiException(404, "Transacción no encontrada");
+        }
+        return transaction;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+
+    public record SettlementResult(Transaction transaction, TransactionStatus status, String message) {
+    }
+
+    /**
+     * @param approved true/false si el banco respondió; null si el resultado es desconocido
+     */
+    private record BankOutcome(Boolean approved, String bankTransactionId, String message) {
+    }
+}
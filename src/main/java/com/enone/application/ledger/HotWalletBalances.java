@@ -0,0 +1,124 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.Wallet;
+import com.enone.domain.model.WalletBalanceSlot;
+import com.enone.domain.repository.WalletBalanceSlotRepository;
+import com.enone.domain.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sub-saldos de wallets "calientes" (comercios que reciben muchos abonos a la vez).
+ *
+ * Los abonos se reparten al azar entre N filas de wallet_balance_slots, de modo
+ * que transferencias concurrentes hacia el mismo comercio no compiten por la fila
+ * de la wallet. Los débitos y la consolidación periódica pliegan los slots sobre
+ * la fila principal mientras la wallet está bloqueada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotWalletBalances {
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceSlotRepository slotRepository;
+
+    public boolean isHot(Long walletId) {
+        Integer slots = walletRepository.findHotSlotsById(walletId);
+        return slots != null && slots > 0;
+    }
+
+    /**
+     * Abona el monto en un slot elegido al azar sin bloquear la fila de la wallet.
+     * Debe ejecutarse dentro de una transacción.
+     * @param wallet Wallet caliente destino
+     * @param amount Monto a abonar
+     * @return Saldo lógico tras el abono (informativo: otros abonos pueden estar en curso)
+     */
+    public BigDecimal credit(Wallet wallet, BigDecimal amount) {
+        int slot = ThreadLocalRandom.current().nextInt(wallet.getHotSlots());
+        int updated = slotRepository.addToSlot(wallet.getId(), slot, amount, Instant.now());
+        if (updated == 0) {
+            // La wallet dejó de ser caliente entre la lectura y el abono: el origen ya se debitó,
+            // así que se fuerza el rollback y el reintento de toda la operación
+            throw new CannotAcquireLockException("Slots de la wallet " + wallet.getId() + " no disponibles");
+        }
+        return walletRepository.findLogicalBalanceById(wallet.getId());
+    }
+
+    /**
+     * Traslada el saldo de los slots a la fila principal de una wallet ya bloqueada.
+     * Los slots se bloquean en orden, después de la fila de la wallet.
+     * @param wallet Wallet bloqueada con SELECT ... FOR UPDATE
+     * @return Monto consolidado
+     */
+    public BigDecimal fold(Wallet wallet) {
+        List<WalletBalanceSlot> slots = slotRepository.findByWalletIdForUpdate(wallet.getId());
+        BigDecimal folded = BigDecimal.ZERO;
+        Instant now = Instant.now();
+        for (WalletBalanceSlot slot : slots) {
+            if (slot.getBalance().signum() != 0) {
+                folded = folded.add(slot.getBalance());
+                slot.setBalance(BigDecimal.ZERO);
+                slot.setUpdatedAt(now);
+            }
+        }
+        wallet.absorbSlots(folded);
+        if (folded.signum() != 0) {
+            log.debug("Consolidados {} {} en wallet {}", folded, wallet.getCurrency(), wallet.getId());
+        }
+        return folded;
+    }
+
+    /**
+     * Activa el modo caliente creando los slots vacíos. La wallet debe estar bloqueada.
+     * @param wallet Wallet bloqueada
+     * @param slotCount Número de slots
+     */
+    public void enable(Wallet wallet, int slotCount) {
+        if (wallet.isHot()) {
+            fold(wallet);
+            slotRepository.deleteByWalletId(wallet.getId());
+            slotRepository.flush();
+        }
+        Instant now = Instant.now();
+        List<WalletBalanceSlot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(WalletBalanceSlot.builder()
+                    .walletId(wallet.getId())
+                    .slot(i)
+                    .balance(BigDecimal.ZERO)
+                    .updatedAt(now)
+                    .build());
+        }
+        slotRepository.saveAll(slots);
+        wallet.setHotSlots(slotCount);
+        wallet.setUpdatedAt(now);
+        walletRepository.save(wallet);
+    }
+
+    /**
+     * Desactiva el modo caliente consolidando y eliminando los slots. La wallet debe estar bloqueada.
+     * @param wallet Wallet bloqueada
+     */
+    public void disable(Wallet wallet) {
+        fold(wallet);
+        slotRepository.flush();
+        slotRepository.deleteByWalletId(wallet.getId());
+        wallet.setHotSlots(null);
+        wallet.setUpdatedAt(Instant.now());
+        walletRepository.save(wallet);
+    }
+
+    public List<Long> findWalletsWithPendingSlots() {
+        return slotRepository.findWalletIdsWithPendingSlots();
+    }
+}
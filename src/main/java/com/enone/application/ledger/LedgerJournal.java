@@ -0,0 +1,137 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.JournalEntry;
+import com.enone.domain.model.JournalPosting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diario contable de partida doble, solo de inserción.
+ *
+ * Cada asiento lleva postings que suman cero por moneda. El saldo de una wallet
+ * es la suma de sus postings; {@code Wallet.balance} es una proyección que se
+ * actualiza en la misma transacción que el asiento.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerJournal {
+
+    private static final String INSERT_ENTRY_SQL = "INSERT INTO journal_entries "
+            + "(type, reference, description, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_POSTING_SQL = "INSERT INTO journal_postings "
+            + "(entry_id, account_type, wallet_id, currency, amount, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void post(JournalEntry entry) {
+        postAll(List.of(entry));
+    }
+
+    /**
+     * Registra los asientos en la transacción actual con dos INSERT en batch
+     * (asientos y postings).
+     * @param entries Asientos con sus postings
+     */
+    public void postAll(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        for (JournalEntry entry : entries) {
+            validateBalanced(entry);
+            entry.setCreatedAt(now);
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ENTRY_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        JournalEntry entry = entries.get(i);
+                        ps.setString(1, entry.getType().name());
+                        ps.setString(2, entry.getReference());
+                        ps.setString(3, entry.getDescription());
+                        ps.setTimestamp(4, Timestamp.from(entry.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != entries.size()) {
+            throw new IllegalStateException("No se obtuvieron los ids de los asientos contables");
+        }
+
+        List<JournalPosting> postings = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            entry.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            for (JournalPosting posting : entry.getPostings()) {
+                posting.setEntryId(entry.getId());
+                posting.setCreatedAt(now);
+                postings.add(posting);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_POSTING_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                JournalPosting posting = postings.get(i);
+                ps.setLong(1, posting.getEntryId());
+                ps.setString(2, posting.getAccountType().name());
+                if (posting.getWalletId() != null) {
+                    ps.setLong(3, posting.getWalletId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setString(4, posting.getCurrency());
+                ps.setBigDecimal(5, posting.getAmount());
+                ps.setTimestamp(6, Timestamp.from(posting.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        });
+    }
+
+    private void validateBalanced(JournalEntry entry) {
+        if (entry.getPostings().size() < 2) {
+            throw new IllegalStateException("Un asiento necesita al menos dos postings");
+        }
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (JournalPosting posting : entry.getPostings()) {
+            totals.merge(posting.getCurrency(), posting.getAmount(), BigDecimal::add);
+        }
+        totals.forEach((currency, total) -> {
+            if (total.signum() != 0) {
+                throw new IllegalStateException(
+                        "Asiento " + entry.getType() + " descuadrado en " + currency + ": " + total.toPlainString());
+            }
+        });
+    }
+}
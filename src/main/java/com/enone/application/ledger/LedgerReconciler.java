@@ -0,0 +1,349 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.JournalEntryType;
+import com.enone.domain.model.ReconciliationMismatchKind;
+import com.enone.domain.model.ReconciliationRun;
+import com.enone.domain.model.ReconciliationStatus;
+import com.enone.domain.model.TransactionStatus;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.repository.ReconciliationRunRepository;
+import com.enone.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conciliación de saldos: comprueba que el saldo lógico de cada wallet sea su saldo
+ * de apertura (asiento OPENING_BALANCE) más la suma de los movimientos aplicados, y
+ * que cada {@code balanceAfter} sea el anterior más el monto del movimiento.
+ *
+ * Las wallets se reparten por rangos de id en un ForkJoinPool propio. Cada rango se
+ * lee dentro de una transacción de solo lectura (una misma vista REPEATABLE READ
+ * para saldos y movimientos, sin falsos positivos por escrituras en curso) y los
+ * movimientos se recorren con un cursor del servidor, sin cargar entidades: la
+ * memoria por rango depende del número de wallets, no de movimientos.
+ *
+ * El asiento de apertura de una wallet anterior al diario ya trae su saldo de ese
+ * momento, con todo el historial incluido: de esas wallets solo se suman y encadenan
+ * los movimientos creados después del asiento.
+ *
+ * Movimientos aplicados: COMPLETED, y los retiros PENDING (descuentan al registrarse).
+ * Un depósito toma su balanceAfter al liquidarse, así que si otra operación se
+ * cuela entre su registro y su liquidación aparece como CHAIN. Las wallets calientes
+ * no se revisan en cadena: sus abonos a slots no tienen un orden único.
+ */
+@Slf4j
+@Component
+public class LedgerReconciler {
+
+    private static final String WALLETS_SQL = "SELECT w.id, w.balance + COALESCE((SELECT SUM(s.balance) "
+            + "FROM wallet_balance_slots s WHERE s.wallet_id = w.id), 0), w.hot_slots "
+            + "FROM wallets w WHERE w.id BETWEEN ? AND ?";
+    private static final String OPENING_SQL = "SELECT p.wallet_id, SUM(p.amount), MAX(e.created_at) "
+            + "FROM journal_postings p "
+            + "JOIN journal_entries e ON e.id = p.entry_id "
+            + "WHERE p.wallet_id BETWEEN ? AND ? AND e.type = ? GROUP BY p.wallet_id";
+    // Recorre idx_tx_wallet_created_id en orden, sin ordenar en memoria
+    private static final String TRANSACTIONS_SQL = "SELECT t.wallet_id, t.id, t.amount, t.balance_after, t.status, "
+            + "t.type, t.created_at FROM transactions t WHERE t.wallet_id BETWEEN ? AND ? "
+            + "ORDER BY t.wallet_id, t.created_at, t.id";
+    private static final String INSERT_MISMATCH_SQL = "INSERT INTO reconciliation_mismatches "
+            + "(run_id, wallet_id, kind, transaction_id, expected, actual, detected_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COMPLETED = TransactionStatus.COMPLETED.name();
+    private static final String PENDING = TransactionStatus.PENDING.name();
+    private static final String WITHDRAWAL = TransactionType.WITHDRAWAL.name();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReconciliationRunRepository runRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final int parallelism;
+    private final long partitionWidth;
+    private final int fetchSize;
+    private final int maxRecordedMismatches;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ledger-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LedgerReconciler(JdbcTemplate jdbcTemplate,
+                            ReconciliationRunRepository runRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.reconciliation.parallelism:4}") int parallelism,
+                            @Value("${app.reconciliation.partition-width:2000}") long partitionWidth,
+                            @Value("${app.reconciliation.fetch-size:5000}") int fetchSize,
+                            @Value("${app.reconciliation.max-recorded-mismatches:10000}") int maxRecordedMismatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.runRepository = runRepository;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.parallelism = Math.max(parallelism, 1);
+        this.partitionWidth = Math.max(partitionWidth, 1);
+        this.fetchSize = Math.max(fetchSize, 1);
+        this.maxRecordedMismatches = Math.max(maxRecordedMismatches, 0);
+    }
+
+    @PreDestroy
+    void stop() {
+        launcher.shutdownNow();
+    }
+
+    /**
+     * Inicia una conciliación en segundo plano.
+     * @param triggeredBy Quién la solicitó
+     * @return Ejecución en estado RUNNING
+     */
+    public ReconciliationRun start(String triggeredBy) {
+        ReconciliationRun run = claim(triggeredBy);
+        launcher.execute(() -> execute(run));
+        return run;
+    }
+
+    /**
+     * Ejecuta una conciliación completa en el hilo actual.
+     * @param triggeredBy Quién la solicitó
+     * @return Ejecución terminada (COMPLETED o FAILED)
+     */
+    public ReconciliationRun reconcile(String triggeredBy) {
+        return execute(claim(triggeredBy));
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 30 3 * * *}", zone = "${app.statements.zone:America/Lima}")
+    public void scheduledReconciliation() {
+        if (running.get()) {
+            log.info("Conciliación programada omitida: ya hay una en curso");
+            return;
+        }
+        // En segundo plano: el hilo del scheduler lo comparten todos los jobs programados
+        try {
+            start("scheduler");
+        } catch (ApiException e) {
+            log.info("Conciliación programada omitida: {}", e.getMessage());
+        }
+    }
+
+    private ReconciliationRun claim(String triggeredBy) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException(409, "Ya hay una conciliación en curso");
+        }
+        try {
+            return runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .triggeredBy(triggeredBy)
+                    .startedAt(Instant.now())
+                    .build());
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private ReconciliationRun execute(ReconciliationRun run) {
+        long startNanos = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM wallets");
+            Totals totals = Totals.EMPTY;
+            if (bounds.get("lo") != null) {
+                long lo = ((Number) bounds.get("lo")).longValue();
+                long hi = ((Number) bounds.get("hi")).longValue();
+                totals = pool.invoke(new RangeTask(run.getId(), lo, hi, new AtomicInteger()));
+            }
+
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setPartitions(totals.partitions());
+            run.setWalletsChecked(totals.wallets());
+            run.setTransactionsChecked(totals.transactions());
+            run.setMismatchCount(totals.mismatches());
+
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+            log.info("Conciliación {} terminada: {} wallets, {} movimientos, {} diferencias en {}s ({} mov/min)",
+                    run.getId(), totals.wallets(), totals.transactions(), totals.mismatches(),
+                    String.format("%.1f", seconds), Math.round(totals.transactions() * 60 / seconds));
+        } catch (RuntimeException e) {
+            log.error("Conciliación {} fallida", run.getId(), e);
+            run.setStatus(ReconciliationStatus.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            run.setErrorMessage(message.length() > 255 ? message.substring(0, 255) : message);
+        } finally {
+            pool.shutdown();
+            run.setFinishedAt(Instant.now());
+            try {
+                runRepository.save(run);
+            } finally {
+                running.set(false);
+            }
+        }
+        return run;
+    }
+
+    private Totals checkPartition(Long runId, long lo, long hi, AtomicInteger recorded) {
+        List<Mismatch> found = new ArrayList<>();
+        long[] counts = snapshotTemplate.execute(status -> {
+            Map<Long, WalletState> wallets = new HashMap<>();
+            jdbcTemplate.query(WALLETS_SQL, (RowCallbackHandler) rs -> wallets.put(rs.getLong(1),
+                    new WalletState(rs.getBigDecimal(2), rs.getObject(3) != null)), lo, hi);
+            if (wallets.isEmpty()) {
+                return new long[]{0, 0};
+            }
+            jdbcTemplate.query(OPENING_SQL, (RowCallbackHandler) rs -> {
+                WalletState state = wallets.get(rs.getLong(1));
+                if (state != null) {
+                    state.opening = rs.getBigDecimal(2);
+                    state.openedAt = rs.getTimestamp(3).toInstant();
+                }
+            }, lo, hi, JournalEntryType.OPENING_BALANCE.name());
+
+            long[] transactions = {0};
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(TRANSACTIONS_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, lo);
+                ps.setLong(2, hi);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                transactions[0]++;
+                WalletState state = wallets.get(rs.getLong(1));
+                String txStatus = rs.getString(5);
+                boolean applied = COMPLETED.equals(txStatus)
+                        || (PENDING.equals(txStatus) && WITHDRAWAL.equals(rs.getString(6)));
+                if (state == null || !applied) {
+                    return;
+                }
+                // Ya incluido en el saldo de apertura
+                if (state.openedAt != null && rs.getTimestamp(7).toInstant().isBefore(state.openedAt)) {
+                    return;
+                }
+
+                BigDecimal amount = rs.getBigDecimal(3);
+                state.sum = state.sum.add(amount);
+                BigDecimal balanceAfter = rs.getBigDecimal(4);
+                if (state.hot || balanceAfter == null) {
+                    return;
+                }
+                BigDecimal expected = (state.last != null ? state.last : state.opening).add(amount);
+                if (expected.compareTo(balanceAfter) != 0) {
+                    found.add(new Mismatch(rs.getLong(1), ReconciliationMismatchKind.CHAIN, rs.getLong(2),
+                            expected, balanceAfter));
+                }
+                // Se sigue desde el valor guardado: un salto aislado no se arrastra al resto de la cadena
+                state.last = balanceAfter;
+            });
+
+            wallets.forEach((walletId, state) -> {
+                BigDecimal expected = state.opening.add(state.sum);
+                if (expected.compareTo(state.balance) != 0) {
+                    found.add(new Mismatch(walletId, ReconciliationMismatchKind.BALANCE, null, expected,
+                            state.balance));
+                }
+            });
+            return new long[]{wallets.size(), transactions[0]};
+        });
+
+        record(runId, found, recorded);
+        return new Totals(1, counts[0], counts[1], found.size());
+    }
+
+    private void record(Long runId, List<Mismatch> found, AtomicInteger recorded) {
+        if (found.isEmpty()) {
+            return;
+        }
+        // Se cuentan todas, pero se guardan hasta max-recorded-mismatches por ejecución
+        int allowed = Math.min(found.size(), Math.max(maxRecordedMismatches - recorded.getAndAdd(found.size()), 0));
+        if (allowed == 0) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_MISMATCH_SQL, found.subList(0, allowed), allowed, (ps, m) -> {
+            ps.setLong(1, runId);
+            ps.setLong(2, m.walletId());
+            ps.setString(3, m.kind().name());
+            ps.setObject(4, m.transactionId());
+            ps.setBigDecimal(5, m.expected());
+            ps.setBigDecimal(6, m.actual());
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    private final class RangeTask extends RecursiveTask<Totals> {
+
+        private final Long runId;
+        private final long lo;
+        private final long hi;
+        private final AtomicInteger recorded;
+
+        private RangeTask(Long runId, long lo, long hi, AtomicInteger recorded) {
+            this.runId = runId;
+            this.lo = lo;
+            this.hi = hi;
+            this.recorded = recorded;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (hi - lo < partitionWidth) {
+                return checkPartition(runId, lo, hi, recorded);
+            }
+            long mid = lo + (hi - lo) / 2;
+            RangeTask left = new RangeTask(runId, lo, mid, recorded);
+            RangeTask right = new RangeTask(runId, mid + 1, hi, recorded);
+            left.fork();
+            Totals rightTotals = right.compute();
+            return left.join().plus(rightTotals);
+        }
+    }
+
+    private static final class WalletState {
+        private final BigDecimal balance;
+        private final boolean hot;
+        private BigDecimal opening = BigDecimal.ZERO;
+        private Instant openedAt;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private BigDecimal last;
+
+        private WalletState(BigDecimal balance, boolean hot) {
+            this.balance = balance;
+            this.hot = hot;
+        }
+    }
+
+    private record Mismatch(Long walletId, ReconciliationMismatchKind kind, Long transactionId,
+                            BigDecimal expected, BigDecimal actual) {
+    }
+
+    private record Totals(int partitions, long wallets, long transactions, long mismatches) {
+        static final Totals EMPTY = new Totals(0, 0, 0, 0);
+
+        Totals plus(Totals other) {
+            return new Totals(partitions + other.partitions, wallets + other.wallets,
+                    transactions + other.transactions, mismatches + other.mismatches);
+        }
+    }
+}
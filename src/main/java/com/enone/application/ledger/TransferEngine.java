@@ -0,0 +1,236 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.Wallet;
+import com.enone.exception.ApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Motor de transferencias con un único escritor por partición (modo opcional).
+ *
+ * Cada comando se encola en la partición de la wallet origen. El escritor de la
+ * partición toma hasta {@code max-batch} comandos y los aplica en orden dentro de
+ * una sola transacción (group commit) a través de {@link WalletLockManager}, de
+ * modo que los locks y el commit se pagan una vez por grupo y no por comando.
+ * El hilo HTTP espera el resultado con un plazo máximo.
+ */
+@Slf4j
+@Component
+public class TransferEngine {
+
+    private static final String TIMEOUT_MESSAGE =
+            "La transferencia sigue en proceso. Revise sus movimientos antes de reintentar.";
+
+    private final WalletLockManager walletLockManager;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final int maxBatch;
+    private final int queueCapacity;
+    private final long deadlineMs;
+    private final long commitGraceMs;
+    private final List<Partition> partitions = new ArrayList<>();
+
+    public TransferEngine(WalletLockManager walletLockManager,
+                          @Value("${app.ledger.engine.enabled:false}") boolean enabled,
+                          @Value("${app.ledger.engine.partitions:8}") int partitionCount,
+                          @Value("${app.ledger.engine.max-batch:64}") int maxBatch,
+                          @Value("${app.ledger.engine.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.ledger.engine.deadline-ms:5000}") long deadlineMs,
+                          @Value("${app.ledger.engine.commit-grace-ms:5000}") long commitGraceMs) {
+        this.walletLockManager = walletLockManager;
+        this.enabled = enabled;
+        this.partitionCount = Math.max(partitionCount, 1);
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.deadlineMs = deadlineMs;
+        this.commitGraceMs = commitGraceMs;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition(i, new ArrayBlockingQueue<>(queueCapacity));
+            Thread writer = new Thread(() -> runWriter(partition), "transfer-engine-" + i);
+            writer.setDaemon(true);
+            partition.writer = writer;
+            partitions.add(partition);
+            writer.start();
+        }
+        log.info("Motor de transferencias activo: {} particiones, grupos de hasta {} comandos",
+                partitionCount, maxBatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Partition partition : partitions) {
+            partition.writer.interrupt();
+        }
+        for (Partition partition : partitions) {
+            List<Command<?>> pending = new ArrayList<>();
+            partition.queue.drainTo(pending);
+            pending.forEach(cmd -> cmd.result.completeExceptionally(
+                    new ApiException(503, "Servicio en mantenimiento. Intente nuevamente.")));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encola la operación en la partición de la wallet origen y espera su resultado.
+     * @param senderWalletId Wallet origen (clave de partición)
+     * @param walletIds Wallets que la operación necesita bloqueadas
+     * @param work Operación a aplicar con las wallets bloqueadas
+     * @return Resultado de la operación, ya confirmado en la base de datos
+     */
+    public <T> T submit(Long senderWalletId, Collection<Long> walletIds, Function<Map<Long, Wallet>, T> work) {
+        if (!enabled) {
+            return walletLockManager.executeLocked(walletIds, work);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Command<T> command = new Command<>(List.copyOf(walletIds), work, deadline, new CompletableFuture<>());
+        Partition partition = partitions.get(partitionIndex(senderWalletId));
+        if (!partition.queue.offer(command)) {
+            throw new ApiException(503, "Servicio ocupado. Intente nuevamente en unos segundos.");
+        }
+
+        try {
+            return command.result.get(deadlineMs + commitGraceMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException(500, "Error al procesar la transferencia", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ApiException(504, TIMEOUT_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Operación interrumpida", e);
+        }
+    }
+
+    private void runWriter(Partition partition) {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(partition.queue.take());
+                partition.queue.drainTo(batch, maxBatch - 1);
+                applyGroup(dropExpired(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en partición {} del motor de transferencias", partition.index, e);
+                batch.forEach(cmd -> cmd.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private List<Command<?>> dropExpired(List<Command<?>> batch) {
+        // Un comando cuyo cliente ya dejó de esperar no se aplica
+        long now = System.nanoTime();
+        List<Command<?>> live = new ArrayList<>(batch.size());
+        for (Command<?> command : batch) {
+            if (now - command.deadline > 0) {
+                command.result.completeExceptionally(new ApiException(504, TIMEOUT_MESSAGE));
+            } else {
+                live.add(command);
+            }
+        }
+        return live;
+    }
+
+    private void applyGroup(List<Command<?>> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        Set<Long> walletIds = new LinkedHashSet<>();
+        group.forEach(cmd -> walletIds.addAll(cmd.walletIds));
+
+        List<Runnable> completions;
+        try {
+            completions = walletLockManager.executeLocked(walletIds, wallets -> {
+                List<Runnable> done = new ArrayList<>(group.size());
+                for (Command<?> command : group) {
+                    done.add(command.apply(wallets));
+                }
+                return done;
+            });
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // Falló el grupo completo (no una validación de negocio): se aplica cada comando por separado
+            log.warn("Group commit de {} transferencias falló, se aplican individualmente: {}",
+                    group.size(), e.getMessage());
+            for (Command<?> command : group) {
+                applyGroup(List.of(command));
+            }
+            return;
+        }
+
+        // Los futuros se completan solo después del commit
+        completions.forEach(Runnable::run);
+    }
+
+    private int partitionIndex(Long walletId) {
+        long h = walletId * 0x9E3779B97F4A7C15L;
+        return (int) Long.remainderUnsigned(h >>> 32, partitionCount);
+    }
+
+    private static final class Partition {
+        private final int index;
+        private final BlockingQueue<Command<?>> queue;
+        private Thread writer;
+
+        private Partition(int index, BlockingQueue<Command<?>> queue) {
+            this.index = index;
+            this.queue = queue;
+        }
+    }
+
+    private record Command<T>(List<Long> walletIds,
+                              Function<Map<Long, Wallet>, T> work,
+                              long deadline,
+                              CompletableFuture<T> result) {
+
+        /**
+         * Aplica el comando dentro de la transacción del grupo. Los rechazos de negocio
+         * ({@link ApiException}) se lanzan antes de modificar saldos, así que solo afectan
+         * a este comando y el resto del grupo continúa.
+         */
+        private Runnable apply(Map<Long, Wallet> wallets) {
+            try {
+                T value = work.apply(wallets);
+                return () -> result.complete(value);
+            } catch (ApiException e) {
+                return () -> result.completeExceptionally(e);
+            }
+        }
+    }
+}
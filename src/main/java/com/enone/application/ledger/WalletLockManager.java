@@ -0,0 +1,178 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.Wallet;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.exception.ApiException;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coordina el bloqueo de wallets para cualquier operación que modifique saldos.
+ *
+ * Los locks se toman siempre en orden ascendente (por stripe en la JVM y por id
+ * de wallet en MySQL), de modo que A→B y B→A nunca se bloquean mutuamente. Los
+ * locks de la JVM se mantienen hasta que la transacción termina, así que la
+ * contención entre hilos del mismo nodo no llega a la base de datos.
+ *
+ * Los abonos a wallets calientes ({@link HotWalletBalances}) no pasan por aquí:
+ * solo bloquean un slot, que siempre se toma después de las filas de wallets.
+ */
+@Slf4j
+@Component
+public class WalletLockManager {
+
+    private final WalletRepository walletRepository;
+    private final HotWalletBalances hotWalletBalances;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMs;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public WalletLockManager(WalletRepository walletRepository,
+                             HotWalletBalances hotWalletBalances,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.ledger.lock.stripes:1024}") int stripeCount,
+                             @Value("${app.ledger.lock.timeout-ms:5000}") long lockTimeoutMs,
+                             @Value("${app.ledger.lock.max-attempts:3}") int maxAttempts,
+                             @Value("${app.ledger.lock.backoff-ms:50}") long backoffMs) {
+        this.walletRepository = walletRepository;
+        this.hotWalletBalances = hotWalletBalances;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Siempre una transacción propia: si se uniera a la del llamador, los locks de la JVM
+        // se soltarían antes de su commit y un timeout de lock la dejaría marcada rollback-only
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(stripeCount, 1))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockTimeoutMs = lockTimeoutMs;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoffMs = backoffMs;
+    }
+
+    /**
+     * Ejecuta {@code work} en una transacción nueva con las wallets indicadas
+     * bloqueadas (en JVM y con SELECT ... FOR UPDATE), reintentando ante timeouts
+     * o deadlocks de la base de datos. Si el llamador ya tiene una transacción, esta
+     * queda suspendida y {@code work} se confirma por separado.
+     * @param walletIds Ids de las wallets a bloquear
+     * @param work Operación que recibe las wallets bloqueadas indexadas por id
+     * @return Resultado de la operación
+     */
+    public <T> T executeLocked(Collection<Long> walletIds, Function<Map<Long, Wallet>, T> work) {
+        TreeSet<Long> orderedIds = new TreeSet<>(walletIds);
+
+        for (int attempt = 1; ; attempt++) {
+            List<ReentrantLock> held = new ArrayList<>();
+            try {
+                // Dentro del try: un timeout del lock local se reintenta y termina en 409 como el de MySQL
+                acquireStripes(orderedIds, held);
+                return transactionTemplate.execute(status -> work.apply(lockRows(orderedIds)));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("No se pudo bloquear wallets {} tras {} intentos", orderedIds, attempt);
+                    throw new ApiException(409,
+                            "La operación no pudo completarse por alta concurrencia. Intente nuevamente.", e);
+                }
+                log.debug("Timeout de lock en wallets {} (intento {}), reintentando", orderedIds, attempt);
+            } finally {
+                releaseStripes(held);
+            }
+            sleepBackoff(attempt);
+        }
+    }
+
+    private void acquireStripes(TreeSet<Long> orderedIds, List<ReentrantLock> held) {
+        // Un mismo stripe puede cubrir varias wallets: se deduplica y se ordena por índice
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long id : orderedIds) {
+            indexes.add(stripeIndex(id));
+        }
+
+        try {
+            for (Integer index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    releaseStripes(held);
+                    throw new CannotAcquireLockException("Timeout esperando lock local de wallets " + orderedIds);
+                }
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            releaseStripes(held);
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Operación interrumpida", e);
+        }
+    }
+
+    private void releaseStripes(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            ReentrantLock lock = held.get(i);
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+        held.clear();
+    }
+
+    private Map<Long, Wallet> lockRows(TreeSet<Long> orderedIds) {
+        // Con open-in-view el contexto de persistencia puede traer copias previas de estas
+        // wallets; se descartan para que el SELECT ... FOR UPDATE devuelva el saldo vigente
+        for (Long id : orderedIds) {
+            entityManager.detach(entityManager.getReference(Wallet.class, id));
+        }
+        List<Wallet> locked = walletRepository.findAllByIdInForUpdate(orderedIds);
+        Map<Long, Wallet> byId = new LinkedHashMap<>();
+        for (Wallet wallet : locked) {
+            byId.put(wallet.getId(), wallet);
+        }
+        if (byId.size() != orderedIds.size()) {
+            throw new ApiException(404, "Wallet no encontrada");
+        }
+        // En wallets calientes los slots se pliegan sobre la fila principal, así la
+        // operación trabaja con el saldo total y puede escribirlo directamente
+        for (Wallet wallet : byId.values()) {
+            if (wallet.isHot()) {
+                hotWalletBalances.fold(wallet);
+            }
+        }
+        return byId;
+    }
+
+    private int stripeIndex(Long walletId) {
+        long h = walletId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & (stripes.length - 1);
+    }
+
+    private void sleepBackoff(int attempt) {
+        long jitter = ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        try {
+            Thread.sleep(backoffMs * attempt + jitter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Operación interrumpida", e);
+        }
+    }
+}
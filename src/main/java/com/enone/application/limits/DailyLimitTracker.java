@@ -0,0 +1,290 @@
+package com.enone.application.limits;
+
+import com.enone.domain.model.TransactionStatus;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.repository.TransactionRepository;
+import com.enone.exception.ApiException;
+import com.enone.util.exchange.ExchangeRateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contadores de límite diario con ventana móvil real de 24 horas.
+ *
+ * Cada usuario tiene un anillo de buckets (PEN y USD en céntimos) que se reemplaza
+ * atómicamente con compare-and-set, así que la verificación del límite no toma
+ * locks ni escribe el perfil. Los contadores se reconstruyen desde transactions al
+ * arrancar y se vuelcan periódicamente a user_daily_usage como referencia.
+ */
+@Slf4j
+@Component
+public class DailyLimitTracker {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final String UPSERT_SQL = "INSERT INTO user_daily_usage (user_id, volume_pen, volume_usd, updated_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "volume_pen = VALUES(volume_pen), volume_usd = VALUES(volume_usd), updated_at = VALUES(updated_at)";
+
+    private final TransactionRepository transactionRepository;
+    private final ExchangeRateService exchangeRateService;
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final Map<Long, UserWindow> windows = new ConcurrentHashMap<>();
+    private volatile BigDecimal usdToPenRate;
+
+    public DailyLimitTracker(TransactionRepository transactionRepository,
+                             ExchangeRateService exchangeRateService,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${app.limits.bucket-minutes:15}") int bucketMinutes,
+                             @Value("${app.limits.initial-usd-pen-rate:3.75}") BigDecimal initialUsdToPenRate) {
+        this.transactionRepository = transactionRepository;
+        this.exchangeRateService = exchangeRateService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketMillis = Duration.ofMinutes(Math.max(bucketMinutes, 1)).toMillis();
+        this.bucketCount = (int) ((WINDOW.toMillis() + bucketMillis - 1) / bucketMillis);
+        this.usdToPenRate = initialUsdToPenRate;
+    }
+
+    /**
+     * Verifica el límite y reserva el monto en la ventana del usuario. Si hay una
+     * transacción activa, la reserva se libera automáticamente cuando hace rollback.
+     * @param userId Usuario origen
+     * @param limitPen Límite diario en soles
+     * @param amount Monto de la operación
+     * @param currency Moneda de la operación (PEN o USD)
+     * @throws ApiException si el monto excede lo disponible en las últimas 24 horas
+     */
+    public void reserve(Long userId, BigDecimal limitPen, BigDecimal amount, String currency) {
+        long cents = toCents(amount);
+        boolean usd = "USD".equals(currency);
+        long nowBucket = currentBucket();
+        BigDecimal rate = usdToPenRate;
+        long limitCents = toCents(limitPen);
+
+        UserWindow window = windows.computeIfAbsent(userId, id -> new UserWindow(bucketCount));
+        while (true) {
+            WindowState current = window.state.get();
+            if (current == WindowState.RETIRED) {
+                // La ventana fue descartada por flush(): se usa (o crea) la vigente
+                windows.remove(userId, window);
+                window = windows.computeIfAbsent(userId, id -> new UserWindow(bucketCount));
+                continue;
+            }
+            WindowState advanced = current.advance(nowBucket);
+            long usedCents = advanced.totalInPenCents(rate);
+            long amountCents = usd ? toPenCents(cents, rate) : cents;
+            if (usedCents + amountCents > limitCents) {
+                throw new ApiException(400,
+                        String.format("Límite diario excedido. Límite: S/ %s, Gastado hoy: S/ %s, Disponible: S/ %s",
+                                limitPen.toPlainString(),
+                                fromCents(usedCents).toPlainString(),
+                                fromCents(limitCents - usedCents).toPlainString()));
+            }
+            if (window.state.compareAndSet(current, advanced.add(nowBucket, usd, cents))) {
+                break;
+            }
+        }
+        window.dirty = true;
+
+        UserWindow reserved = window;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(reserved, nowBucket, usd, cents);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Volumen consumido por el usuario en las últimas 24 horas.
+     * @param userId Usuario
+     * @return Volumen en PEN, en USD y total equivalente en PEN
+     */
+    public DailyUsage usage(Long userId) {
+        UserWindow window = windows.get(userId);
+        if (window == null) {
+            return new DailyUsage(BigDecimal.ZERO.setScale(2), BigDecimal.ZERO.setScale(2), BigDecimal.ZERO.setScale(2));
+        }
+        WindowState state = window.state.get().advance(currentBucket());
+        return new DailyUsage(fromCents(state.sum(false)), fromCents(state.sum(true)),
+                fromCents(state.totalInPenCents(usdToPenRate)));
+    }
+
+    /**
+     * Reconstruye las ventanas desde las transferencias salientes de las últimas 24 horas.
+     * Descarta las ventanas actuales: se llama antes de aceptar operaciones.
+     * @return Número de usuarios con volumen en la ventana
+     */
+    public int rebuild() {
+        Instant since = Instant.ofEpochMilli((currentBucket() - bucketCount + 1) * bucketMillis);
+        List<Object[]> rows = transactionRepository.findVolumeRowsSince(
+                TransactionType.TRANSFER_OUT, TransactionStatus.COMPLETED, since);
+
+        windows.clear();
+        long nowBucket = currentBucket();
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            boolean usd = "USD".equals(row[1]);
+            long cents = toCents(((BigDecimal) row[2]).abs());
+            long bucket = ((Instant) row[3]).toEpochMilli() / bucketMillis;
+
+            UserWindow window = windows.computeIfAbsent(userId, id -> new UserWindow(bucketCount));
+            window.state.set(window.state.get().advance(nowBucket).add(bucket, usd, cents));
+            window.dirty = true;
+        }
+
+        log.info("Contadores de límite diario reconstruidos: {} usuarios, {} movimientos", windows.size(), rows.size());
+        return windows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.limits.flush-interval-ms:60000}")
+    public void flush() {
+        long nowBucket = currentBucket();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>();
+
+        windows.forEach((userId, window) -> {
+            if (!window.dirty) {
+                return;
+            }
+            window.dirty = false;
+            WindowState current = window.state.get();
+            WindowState state = current.advance(nowBucket);
+            batch.add(new Object[] { userId, fromCents(state.sum(false)), fromCents(state.sum(true)), now });
+            // Ventana vacía: se retira con CAS para que ninguna reserva concurrente quede en ella
+            if (state.sum(false) == 0 && state.sum(true) == 0
+                    && window.state.compareAndSet(current, WindowState.RETIRED)) {
+                windows.remove(userId, window);
+            }
+        });
+
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            log.debug("Volumen diario volcado para {} usuarios", batch.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.limits.rate-refresh-ms:600000}")
+    public void refreshRate() {
+        try {
+            BigDecimal rate = exchangeRateService.getRate("USD", "PEN");
+            if (rate != null && rate.signum() > 0) {
+                usdToPenRate = rate;
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo actualizar el tipo de cambio para límites, se mantiene {}: {}",
+                    usdToPenRate, e.getMessage());
+        }
+    }
+
+    private void release(UserWindow window, long bucket, boolean usd, long cents) {
+        while (true) {
+            WindowState current = window.state.get();
+            if (window.state.compareAndSet(current, current.add(bucket, usd, -cents))) {
+                window.dirty = true;
+                return;
+            }
+        }
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long toPenCents(long usdCents, BigDecimal rate) {
+        return BigDecimal.valueOf(usdCents).multiply(rate).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public record DailyUsage(BigDecimal volumePen, BigDecimal volumeUsd, BigDecimal totalInPen) {
+    }
+
+    private static final class UserWindow {
+        private final AtomicReference<WindowState> state;
+        private volatile boolean dirty;
+
+        private UserWindow(int bucketCount) {
+            this.state = new AtomicReference<>(new WindowState(0, new long[bucketCount], new long[bucketCount]));
+        }
+    }
+
+    /**
+     * Anillo inmutable de buckets; el bucket absoluto b vive en la posición b % n.
+     */
+    private record WindowState(long head, long[] pen, long[] usd) {
+
+        static final WindowState RETIRED = new WindowState(Long.MAX_VALUE, new long[0], new long[0]);
+
+        WindowState advance(long nowBucket) {
+            if (nowBucket <= head) {
+                return this;
+            }
+            int n = pen.length;
+            long[] newPen = pen.clone();
+            long[] newUsd = usd.clone();
+            long expired = Math.min(nowBucket - head, n);
+            for (long b = nowBucket - expired + 1; b <= nowBucket; b++) {
+                int i = (int) (b % n);
+                newPen[i] = 0;
+                newUsd[i] = 0;
+            }
+            return new WindowState(nowBucket, newPen, newUsd);
+        }
+
+        WindowState add(long bucket, boolean isUsd, long cents) {
+            // Un bucket que ya salió de la ventana no se modifica
+            if (this == RETIRED || bucket <= head - pen.length || bucket > head) {
+                return this;
+            }
+            int i = (int) (bucket % pen.length);
+            long[] newPen = isUsd ? pen : pen.clone();
+            long[] newUsd = isUsd ? usd.clone() : usd;
+            if (isUsd) {
+                newUsd[i] += cents;
+            } else {
+                newPen[i] += cents;
+            }
+            return new WindowState(head, newPen, newUsd);
+        }
+
+        long sum(boolean isUsd) {
+            long total = 0;
+            for (long value : isUsd ? usd : pen) {
+                total += value;
+            }
+            return total;
+        }
+
+        long totalInPenCents(BigDecimal rate) {
+            return sum(false) + toPenCents(sum(true), rate);
+        }
+    }
+}
@@ -44,8 +44,6 @@ public class AuthMapperImpl implements AuthMapper {
                 .lastName(request.getLastName())
                 .gender(request.getGender())
                 .dailyTransactionLimit(DEFAULT_USER_LIMIT)
-                .dailyVolumePen(BigDecimal.ZERO)
-                .dailyVolumeUsd(BigDecimal.ZERO)
                 .twoFactorEnabled(false)
                 .build();
     }
@@ -1,31 +1,27 @@
 package com.enone.application.mapper.impl;
 
 
+import com.enone.application.limits.DailyLimitTracker;
 import com.enone.application.mapper.UserMapper;
 import com.enone.domain.model.Role;
 import com.enone.domain.model.User;
 import com.enone.domain.model.UserProfile;
 import com.enone.web.dto.user.UserResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class UserMapperImpl implements UserMapper {
 
-    private static final BigDecimal USD_TO_PEN_RATE = new BigDecimal("3.75");
+    private final DailyLimitTracker dailyLimitTracker;
 
     @Override
     public UserResponse toResponse(User user, UserProfile profile) {
-        BigDecimal dailyVolumePen = profile != null ? profile.getDailyVolumePen() : BigDecimal.ZERO;
-        BigDecimal dailyVolumeUsd = profile != null ? profile.getDailyVolumeUsd() : BigDecimal.ZERO;
-        
-
-        BigDecimal totalVolumeInPen = dailyVolumePen.add(
-            dailyVolumeUsd.multiply(USD_TO_PEN_RATE)
-        );
-        
+        DailyLimitTracker.DailyUsage usage = dailyLimitTracker.usage(user.getId());
+
         return UserResponse.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -43,9 +39,9 @@ public class UserMapperImpl implements UserMapper {
                 .birthDate(profile != null ? profile.getBirthDate() : null)
                 .createdAt(profile != null ? profile.getCreatedAt() : null)
                 .dailyTransactionLimit(profile != null ? profile.getDailyTransactionLimit() : null)
-                .dailyVolumePen(dailyVolumePen)
-                .dailyVolumeUsd(dailyVolumeUsd)
-                .totalDailyVolumeInPen(totalVolumeInPen)
+                .dailyVolumePen(usage.volumePen())
+                .dailyVolumeUsd(usage.volumeUsd())
+                .totalDailyVolumeInPen(usage.totalInPen())
                 .twoFactorEnabled(profile != null ? profile.getTwoFactorEnabled() : false)
                 .build();
     }
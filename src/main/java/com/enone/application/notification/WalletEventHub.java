@@ -0,0 +1,416 @@
+package com.enone.application.notification;
+
+import com.enone.application.cache.DisplayNameCache;
+import com.enone.domain.model.Transaction;
+import com.enone.domain.model.Wallet;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.wallet.WalletEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal de eventos de wallet por Server-Sent Events.
+ *
+ * Las conexiones son respuestas asíncronas del servlet: una conexión inactiva no
+ * ocupa un hilo. Los eventos se publican después del commit y se guardan en un
+ * buffer corto por usuario; cada conexión recuerda el último evento que recibió y
+ * un hilo de envío (uno por carril, el usuario siempre cae en el mismo) le manda
+ * los siguientes en orden. El id de cada evento es el cursor de reanudación: al
+ * reconectar, el navegador lo devuelve en {@code Last-Event-ID}. Si el cursor es de
+ * otro arranque o ya salió del buffer se envía {@code resync} y el cliente vuelve a
+ * consultar saldo y movimientos.
+ */
+@Slf4j
+@Component
+public class WalletEventHub {
+
+    public static final String BALANCE_CHANGED = "balance-changed";
+    public static final String TRANSFER_RECEIVED = "transfer-received";
+    private static final String READY = "ready";
+    private static final String RESYNC = "resync";
+
+    private final DisplayNameCache displayNameCache;
+    private final long streamTimeoutMs;
+    private final long reconnectMs;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final int bufferPerUser;
+    private final int maxBufferedUsers;
+    private final long bufferTtlNanos;
+
+    // Identifica el arranque: un cursor de otro proceso no se puede reanudar aquí
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Map<Long, Channel> channels;
+    // Mayor secuencia perdida al descartar el canal completo de algún usuario
+    private volatile long evictedUpTo;
+    private final ThreadPoolExecutor[] lanes;
+
+    public WalletEventHub(DisplayNameCache displayNameCache,
+                          @Value("${app.notifications.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                          @Value("${app.notifications.reconnect-ms:3000}") long reconnectMs,
+                          @Value("${app.notifications.max-connections:20000}") int maxConnections,
+                          @Value("${app.notifications.max-connections-per-user:5}") int maxConnectionsPerUser,
+                          @Value("${app.notifications.buffer-per-user:50}") int bufferPerUser,
+                          @Value("${app.notifications.max-buffered-users:20000}") int maxBufferedUsers,
+                          @Value("${app.notifications.buffer-ttl-minutes:15}") long bufferTtlMinutes,
+                          @Value("${app.notifications.dispatch-threads:4}") int dispatchThreads,
+                          @Value("${app.notifications.dispatch-queue-capacity:50000}") int dispatchQueueCapacity) {
+        this.displayNameCache = displayNameCache;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.maxConnections = Math.max(maxConnections, 1);
+        this.maxConnectionsPerUser = Math.max(maxConnectionsPerUser, 1);
+        this.bufferPerUser = Math.max(bufferPerUser, 1);
+        this.maxBufferedUsers = Math.max(maxBufferedUsers, 1);
+        this.bufferTtlNanos = Duration.ofMinutes(Math.max(bufferTtlMinutes, 1)).toNanos();
+        this.channels = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Channel> eldest) {
+                // Un canal con conexiones abiertas no se descarta
+                if (size() > WalletEventHub.this.maxBufferedUsers && eldest.getValue().emitters.isEmpty()) {
+                    discarded(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        int threads = Math.max(dispatchThreads, 1);
+        int queueCapacity = Math.max(dispatchQueueCapacity / threads, 1);
+        this.lanes = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "wallet-events-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    task -> {
+                        Thread thread = new Thread(task, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+        synchronized (channels) {
+            channels.values().forEach(channel -> new ArrayList<>(channel.emitters).forEach(c -> c.emitter.complete()));
+        }
+    }
+
+    /**
+     * Abre el stream de eventos del usuario.
+     * @param userId Usuario autenticado
+     * @param cursor Último id de evento recibido (Last-Event-ID), o null en una conexión nueva
+     */
+    public SseEmitter subscribe(Long userId, String cursor) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ApiException(503, "Servicio de notificaciones ocupado. Intente nuevamente en unos segundos.");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Connection connection = new Connection(emitter);
+        Connection displaced = null;
+        synchronized (channels) {
+            Channel channel = channel(userId);
+            connection.lastSent = resumePoint(cursor);
+            if (channel.emitters.size() >= maxConnectionsPerUser) {
+                displaced = channel.emitters.remove(0);
+            }
+            channel.emitters.add(connection);
+            channel.touchedAt = System.nanoTime();
+        }
+        if (displaced != null) {
+            // Ya salió de la lista: su release no la encuentra, así que el cupo se libera aquí
+            connections.decrementAndGet();
+            displaced.emitter.complete();
+        }
+
+        Runnable release = () -> release(userId, connection);
+        emitter.onCompletion(release);
+        emitter.onTimeout(release);
+        emitter.onError(e -> release.run());
+
+        send(connection, SseEmitter.event()
+                .name(READY)
+                .id(cursor(Math.max(connection.lastSent, 0)))
+                .reconnectTime(reconnectMs)
+                .data(Map.of("cursor", cursor(Math.max(connection.lastSent, 0))), MediaType.APPLICATION_JSON));
+        dispatch(userId, () -> flush(userId));
+        return emitter;
+    }
+
+    /**
+     * Publica el nuevo saldo de la wallet cuando la transacción actual haga commit.
+     */
+    public void balanceChanged(Wallet wallet, BigDecimal balance, Transaction transaction) {
+        WalletEvent event = WalletEvent.builder()
+                .walletId(wallet.getId())
+                .currency(wallet.getCurrency())
+                .balance(balance)
+                .transactionId(transaction != null ? transaction.getId() : null)
+                .build();
+        afterCommit(() -> publish(wallet.getUserId(), BALANCE_CHANGED, event));
+    }
+
+    /**
+     * Publica al destinatario la transferencia recibida y su nuevo saldo cuando la transacción haga commit.
+     */
+    public void transferReceived(Wallet toWallet, BigDecimal balance, Transaction incoming) {
+        WalletEvent event = WalletEvent.builder()
+                .walletId(toWallet.getId())
+                .currency(incoming.getCurrency())
+                .transactionId(incoming.getId())
+                .amount(incoming.getAmount())
+                .fromUserId(incoming.getRelatedUserId())
+                .description(incoming.getDescription())
+                .build();
+        afterCommit(() -> {
+            if (event.getFromUserId() != null) {
+                event.setFromName(displayNameCache.displayNames(List.of(event.getFromUserId()))
+                        .get(event.getFromUserId()));
+            }
+            publish(toWallet.getUserId(), TRANSFER_RECEIVED, event);
+        });
+        balanceChanged(toWallet, balance, incoming);
+    }
+
+    /**
+     * Mantiene vivas las conexiones (y los proxies intermedios) y descarta los buffers vencidos.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        List<Long> connected = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (channels) {
+            Iterator<Channel> it = channels.values().iterator();
+            while (it.hasNext()) {
+                Channel channel = it.next();
+                if (!channel.emitters.isEmpty()) {
+                    connected.add(channel.userId);
+                } else if (now - channel.touchedAt > bufferTtlNanos) {
+                    discarded(channel);
+                    it.remove();
+                }
+            }
+        }
+        for (Long userId : connected) {
+            dispatch(userId, () -> ping(userId));
+        }
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    private void publish(Long userId, String type, WalletEvent event) {
+        event.setOccurredAt(Instant.now());
+        synchronized (channels) {
+            Channel channel = channel(userId);
+            channel.events.addLast(new StoredEvent(sequence.incrementAndGet(), type, event));
+            while (channel.events.size() > bufferPerUser) {
+                channel.droppedUpTo = channel.events.removeFirst().seq();
+            }
+            channel.touchedAt = System.nanoTime();
+            if (channel.emitters.isEmpty()) {
+                return;
+            }
+        }
+        dispatch(userId, () -> flush(userId));
+    }
+
+    private void flush(Long userId) {
+        List<Connection> targets;
+        List<StoredEvent> events;
+        long droppedUpTo;
+        synchronized (channels) {
+            Channel channel = channels.get(userId);
+            if (channel == null || channel.emitters.isEmpty()) {
+                return;
+            }
+            targets = List.copyOf(channel.emitters);
+            events = List.copyOf(channel.events);
+            droppedUpTo = channel.droppedUpTo;
+        }
+
+        long latest = events.isEmpty() ? Math.max(droppedUpTo, 0) : events.get(events.size() - 1).seq();
+        for (Connection connection : targets) {
+            if (connection.lastSent < droppedUpTo) {
+                // Hay eventos que ya no están en el buffer: el cliente debe recargar su estado
+                if (send(connection, SseEmitter.event().name(RESYNC).id(cursor(latest)).data("{}"))) {
+                    connection.lastSent = latest;
+                }
+                continue;
+            }
+            for (StoredEvent stored : events) {
+                if (stored.seq() <= connection.lastSent) {
+                    continue;
+                }
+                if (!send(connection, SseEmitter.event()
+                        .name(stored.type())
+                        .id(cursor(stored.seq()))
+                        .data(stored.event(), MediaType.APPLICATION_JSON))) {
+                    break;
+                }
+                connection.lastSent = stored.seq();
+            }
+        }
+    }
+
+    private void ping(Long userId) {
+        List<Connection> targets;
+        synchronized (channels) {
+            Channel channel = channels.get(userId);
+            if (channel == null) {
+                return;
+            }
+            targets = List.copyOf(channel.emitters);
+        }
+        targets.forEach(connection -> send(connection, SseEmitter.event().comment("hb")));
+    }
+
+    private boolean send(Connection connection, SseEmitter.SseEventBuilder event) {
+        try {
+            connection.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: el contenedor completa la respuesta y se libera la conexión
+            connection.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void dispatch(Long userId, Runnable task) {
+        try {
+            lanes[(int) Math.floorMod(userId, (long) lanes.length)].execute(task);
+        } catch (RejectedExecutionException e) {
+            // El siguiente flush del usuario envía lo pendiente desde su cursor
+            log.debug("Cola de eventos llena; se omite un envío al usuario {}", userId);
+        }
+    }
+
+    private void release(Long userId, Connection connection) {
+        boolean removed;
+        synchronized (channels) {
+            Channel channel = channels.get(userId);
+            removed = channel != null && channel.emitters.remove(connection);
+            if (channel != null) {
+                channel.touchedAt = System.nanoTime();
+            }
+        }
+        if (removed) {
+            connections.decrementAndGet();
+        }
+    }
+
+    private long resumePoint(String cursor) {
+        long current = sequence.get();
+        if (cursor == null || cursor.isBlank()) {
+            return current;
+        }
+        int dash = cursor.lastIndexOf('-');
+        if (dash > 0 && cursor.substring(0, dash).equals(epoch)) {
+            try {
+                long seq = Long.parseLong(cursor.substring(dash + 1));
+                if (seq >= 0 && seq <= current) {
+                    return seq;
+                }
+            } catch (NumberFormatException ignored) {
+                // Cursor ilegible: se trata como uno de otro arranque
+            }
+        }
+        // -1 queda por debajo de cualquier droppedUpTo y fuerza un resync
+        return -1;
+    }
+
+    private Channel channel(Long userId) {
+        Channel channel = channels.get(userId);
+        if (channel == null) {
+            channel = new Channel(userId);
+            // Lo que se perdió con un canal anterior del usuario no se puede reenviar
+            channel.droppedUpTo = evictedUpTo;
+            channels.put(userId, channel);
+        }
+        return channel;
+    }
+
+    private void discarded(Channel channel) {
+        if (!channel.events.isEmpty()) {
+            evictedUpTo = Math.max(evictedUpTo, channel.events.getLast().seq());
+        }
+    }
+
+    private String cursor(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo publicar un evento de wallet: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static final class Channel {
+        private final Long userId;
+        private final ArrayDeque<StoredEvent> events = new ArrayDeque<>();
+        private final List<Connection> emitters = new ArrayList<>(1);
+        private long droppedUpTo;
+        private long touchedAt = System.nanoTime();
+
+        private Channel(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Connection {
+        private final SseEmitter emitter;
+        // Solo lo modifica el carril del usuario (y la suscripción antes de publicarse)
+        private volatile long lastSent;
+
+        private Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private record StoredEvent(long seq, String type, WalletEvent event) {
+    }
+}
@@ -19,6 +19,5 @@ public interface AuthService {
     void sendNewPhoneCode(Long userId, NewPhoneRequest request);
     void confirmNewPhone(Long userId, VerifyCodeRequest request);
     void requestLimitChange(Long userId, UpdateLimitRequest request);
-    void checkAndResetDailyVolume(Long userId);
     void confirmLimitChange(Long userId, ConfirmLimitRequest request);
 }
\ No newline at end of file
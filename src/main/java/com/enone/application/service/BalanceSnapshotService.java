@@ -0,0 +1,19 @@
+package com.enone.application.service;
+
+import com.enone.web.dto.admin.DailyBalanceTotal;
+import com.enone.web.dto.wallet.BalanceAtResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BalanceSnapshotService {
+
+    List<BalanceAtResponse> getBalancesAt(Long userId, LocalDate date, String currency);
+
+    List<DailyBalanceTotal> getDailyTotals(LocalDate from, LocalDate to);
+
+    int closePendingDays();
+
+    void reopenAfterCommit(Long walletId, Instant createdAt);
+}
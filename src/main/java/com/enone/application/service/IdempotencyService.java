@@ -0,0 +1,9 @@
+package com.enone.application.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    <T> T execute(Long userId, String idempotencyKey, String operation, Object request, Class<T> responseType,
+                  Supplier<T> action);
+}
@@ -0,0 +1,30 @@
+package com.enone.application.service;
+
+import com.enone.web.dto.admin.HotWalletStatus;
+import com.enone.web.dto.admin.LedgerIntegrityReport;
+import com.enone.web.dto.admin.ReconciliationMismatchResponse;
+import com.enone.web.dto.admin.ReconciliationRunResponse;
+import com.enone.web.dto.admin.WalletLedgerBalance;
+
+import java.util.List;
+
+public interface LedgerService {
+
+    LedgerIntegrityReport checkIntegrity(int limit);
+
+    WalletLedgerBalance rebuildWalletBalance(Long walletId);
+
+    int backfillOpeningBalances();
+
+    HotWalletStatus enableHotWallet(Long walletId, int slots);
+
+    HotWalletStatus disableHotWallet(Long walletId);
+
+    int consolidateHotWallets();
+
+    ReconciliationRunResponse startReconciliation(String triggeredBy);
+
+    ReconciliationRunResponse getLatestReconciliation();
+
+    List<ReconciliationMismatchResponse> getReconciliationMismatches(Long runId, int limit);
+}
@@ -0,0 +1,20 @@
+package com.enone.application.service;
+
+import com.enone.web.dto.wallet.ScheduledTransferRequest;
+import com.enone.web.dto.wallet.ScheduledTransferResponse;
+import com.enone.web.dto.wallet.ScheduledTransferRunResponse;
+
+import java.util.List;
+
+public interface ScheduledTransferService {
+
+    ScheduledTransferResponse create(Long userId, ScheduledTransferRequest request);
+
+    List<ScheduledTransferResponse> list(Long userId);
+
+    ScheduledTransferResponse cancel(Long userId, Long scheduleId);
+
+    List<ScheduledTransferRunResponse> getRuns(Long userId, Long scheduleId, int limit);
+
+    int dispatchDue();
+}
@@ -0,0 +1,15 @@
+package com.enone.application.service;
+
+import com.enone.web.dto.wallet.StatementResponse;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+public interface StatementService {
+
+    StatementResponse getStatement(Long userId, YearMonth period);
+
+    int closePendingStatements();
+
+    void reopenFrom(Long walletId, Instant createdAt);
+}
@@ -0,0 +1,19 @@
+package com.enone.application.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface TransactionExportService {
+
+    enum Format { CSV, NDJSON }
+
+    /**
+     * Escribe en {@code out} los movimientos del usuario entre ambas fechas (inclusive), en
+     * orden cronológico, leyendo por cursor sin materializar el historial en memoria.
+     * @param from Primer día a exportar, o null para desde el inicio
+     * @param to Último día a exportar, o null para hasta hoy
+     * @return Número de filas exportadas
+     */
+    long export(Long userId, Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+}
@@ -1,10 +1,15 @@
 package com.enone.application.service;
 
 
-
+import com.enone.application.exchange.ConversionQuote;
+import com.enone.util.exchange.ExchangeRateSnapshot;
 import com.enone.domain.model.Transaction;
 import com.enone.domain.model.UserTarjeta;
 import com.enone.domain.model.Wallet;
+import com.enone.web.dto.wallet.BatchTransferRequest;
+import com.enone.web.dto.wallet.BatchTransferResponse;
+import com.enone.web.dto.wallet.ExchangeRateHistoryResponse;
+import com.enone.web.dto.wallet.TransactionCursor;
 import com.enone.web.dto.wallet.ValidarTarjetaRequest;
 import com.enone.web.dto.wallet.ValidarTarjetaResponse;
 
@@ -17,12 +22,19 @@ public interface WalletService {
     Wallet getWalletByUserId(Long userId);
     List<Wallet> getAllWalletsByUserId(Long userId);
     List<Transaction> getAllTransactions(Long userId, int limit);
+    List<Transaction> getTransactionsPage(Long userId, String currency, TransactionCursor after, int limit);
     Optional<UserTarjeta> getTarjetaActivaDeUsuario(Long userId);
     Transaction deposit(Long userId, BigDecimal amount, String description);
     ValidarTarjetaResponse activarTarjeta(Long userId, ValidarTarjetaRequest request);
     Transaction transfer(Long fromUserId, Long toUserId, BigDecimal amount, String description, String token2fa, String currency);
+    Transaction scheduledTransfer(Long fromUserId, Long toUserId, BigDecimal amount, String description, String currency);
+    BatchTransferResponse transferBatch(Long fromUserId, BatchTransferRequest request);
     Transaction convert(Long userId, String fromCurrency, String toCurrency, BigDecimal amount, String description);
+    Transaction convert(Long userId, String fromCurrency, String toCurrency, BigDecimal amount, String description, String quoteId);
+    ConversionQuote quoteConversion(Long userId, String fromCurrency, String toCurrency);
     BigDecimal getExchangeRate(String fromCurrency, String toCurrency);
+    ExchangeRateSnapshot getExchangeRateSnapshot();
+    ExchangeRateHistoryResponse getExchangeRateHistory(String pair, String range, String interval);
     Wallet getOrCreateWallet(Long userId, String currency);
     void desactivarTarjetaActiva(Long userId);
     Transaction withdraw(Long userId, BigDecimal amount, String description);
@@ -1,6 +1,8 @@
 package com.enone.application.service.impl;
 
 
+import com.enone.application.admin.AnalyticsRollups;
+import com.enone.application.admin.DashboardFanOut;
 import com.enone.application.service.AdminService;
 import com.enone.domain.model.Transaction;
 import com.enone.domain.model.TransactionStatus;
@@ -27,7 +29,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -46,73 +50,79 @@ public class AdminServiceImpl implements AdminService {
     private final TransactionRepository transactionRepository;
     private final UserProfileRepository userProfileRepository;
     private final EmailService emailService;
+    private final DashboardFanOut dashboardFanOut;
+    private final AnalyticsRollups analyticsRollups;
 
     @Override
     public DashboardStatsDTO getDashboardStats() {
         log.info("Generando estadísticas del dashboard");
-        
-        try {
-
-            List<Object[]> balanceResults = walletRepository.getSumOfBalancesByCurrency();
-            Map<String, BigDecimal> totalBalances = balanceResults.stream()
-                    .collect(Collectors.toMap(
-                        row -> (String) row[0],
-                        row -> (BigDecimal) row[1]
-                    ));
-
-            long totalUsers = userRepository.countAllActiveUsers();
-            Instant todayStart = LocalDate.now().atStartOfDay().toInstant(ZoneOffset.UTC);
-            long newUsersToday = userRepository.countNewUsersSince(todayStart);
-            
-            Instant sevenDaysAgo = Instant.now().minus(7, ChronoUnit.DAYS);
-            long activeUsersLast7Days = countActiveUsersSince(sevenDaysAgo);
-
-            Map<String, Long> userActivityStats = getUserActivityStats();
-
-            log.debug("Obteniendo transacciones por hora...");
-            Map<String, Long> hourlyTxCounts = getHourlyTransactionCounts();
-            
-            log.debug("Obteniendo stats de transacciones...");
-            long totalTransactionsToday = countTransactionsSince(todayStart);
-            BigDecimal totalVolumeToday = getTotalVolumeSince(todayStart);
 
-            log.debug("Obteniendo transacciones recientes...");
-            List<Transaction> recentTransactions = getRecentTransactionsOptimized(10);
-            List<TransactionResponse> recentTxResponse = recentTransactions.stream()
-                    .map(this::toTransactionResponseForAdmin)
-                    .collect(Collectors.toList());
-
-            log.debug("Obteniendo estadísticas destacadas...");
-            Map<String, Object> highlightStats = getHighlightStats();
+        // Las consultas son independientes: se lanzan todas y la latencia es la de la más lenta
+        Instant todayStart = LocalDate.now().atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant sevenDaysAgo = Instant.now().minus(7, ChronoUnit.DAYS);
+        Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
 
-            log.debug("Obteniendo estadísticas de 2FA...");
-            Map<String, Long> twoFactorStats = getTwoFactorStats();
+        DashboardFanOut.Batch batch = dashboardFanOut.batch();
+        DashboardFanOut.Section<Map<String, BigDecimal>> balances = batch.submit("balances",
+                () -> walletRepository.getSumOfBalancesByCurrency().stream()
+                        .collect(Collectors.toMap(row -> (String) row[0], row -> (BigDecimal) row[1])));
+        DashboardFanOut.Section<Long> totalUsers = batch.submit("totalUsers", userRepository::countAllActiveUsers);
+        DashboardFanOut.Section<Long> newUsersToday = batch.submit("newUsersToday",
+                () -> userRepository.countNewUsersSince(todayStart));
+        DashboardFanOut.Section<Long> activeUsersLast7Days = batch.submit("activeUsersLast7Days",
+                () -> countActiveUsersSince(sevenDaysAgo));
+        DashboardFanOut.Section<Long> activeUsers = batch.submit("activeUsers",
+                () -> countUsersWithActivitySince(sevenDaysAgo));
+        DashboardFanOut.Section<Long> neverUsedUsers = batch.submit("neverUsedUsers", this::countUsersWithoutActivity);
+        DashboardFanOut.Section<Long> inactiveUsers = batch.submit("inactiveUsers",
+                () -> countUsersInactiveSince(thirtyDaysAgo));
+        DashboardFanOut.Section<Long> disabledUsers = batch.submit("disabledUsers", userRepository::countDisabledUsers);
+        DashboardFanOut.Section<Map<String, Long>> hourlyTxCounts = batch.submit("hourlyTxCounts",
+                this::getHourlyTransactionCounts);
+        DashboardFanOut.Section<Long> totalTransactionsToday = batch.submit("totalTransactionsToday",
+                () -> countTransactionsSince(todayStart));
+        DashboardFanOut.Section<BigDecimal> totalVolumeToday = batch.submit("totalVolumeToday",
+                () -> getTotalVolumeSince(todayStart));
+        DashboardFanOut.Section<List<TransactionResponse>> recentTransactions = batch.submit("recentTransactions",
+                () -> getRecentTransactionsOptimized(10).stream()
+                        .map(this::toTransactionResponseForAdmin)
+                        .collect(Collectors.toList()));
+        DashboardFanOut.Section<Map<String, Object>> highlightStats = batch.submit("highlightStats",
+                this::getHighlightStats);
+        DashboardFanOut.Section<Long> twoFactorEnabled = batch.submit("twoFactorEnabled",
+                () -> countTwoFactorUsers(true));
+        DashboardFanOut.Section<Long> twoFactorDisabled = batch.submit("twoFactorDisabled",
+                () -> countTwoFactorUsers(false));
+
+        Map<String, BigDecimal> totalBalances = batch.get(balances, Map.of());
+        DashboardStatsDTO stats = DashboardStatsDTO.builder()
+                .totalBalancePen(totalBalances.getOrDefault("PEN", BigDecimal.ZERO))
+                .totalBalanceUsd(totalBalances.getOrDefault("USD", BigDecimal.ZERO))
+                .totalUsers(batch.get(totalUsers, 0L))
+                .newUsersToday(batch.get(newUsersToday, 0L))
+                .activeUsersLast7Days(batch.get(activeUsersLast7Days, 0L))
+                .activeUsers(batch.get(activeUsers, 0L))
+                .inactiveUsers(batch.get(inactiveUsers, 0L))
+                .neverUsedUsers(batch.get(neverUsedUsers, 0L))
+                .disabledUsers(batch.get(disabledUsers, 0L))
+                .hourlyTxCounts(batch.get(hourlyTxCounts, Map.of()))
+                .totalTransactionsToday(batch.get(totalTransactionsToday, 0L))
+                .totalVolumeToday(batch.get(totalVolumeToday, BigDecimal.ZERO))
+                .recentTransactions(batch.get(recentTransactions, List.of()))
+                .twoFactorEnabledCount(batch.get(twoFactorEnabled, 0L))
+                .twoFactorDisabledCount(batch.get(twoFactorDisabled, 0L))
+                .highlightStats(batch.get(highlightStats, Map.of()))
+                .unavailableSections(batch.unavailable())
+                .partial(!batch.unavailable().isEmpty())
+                .generatedAt(Instant.now())
+                .build();
 
+        if (stats.getPartial()) {
+            log.warn("Dashboard stats parciales, secciones no disponibles: {}", stats.getUnavailableSections());
+        } else {
             log.info("Dashboard stats generados exitosamente");
-            return DashboardStatsDTO.builder()
-                    .totalBalancePen(totalBalances.getOrDefault("PEN", BigDecimal.ZERO))
-                    .totalBalanceUsd(totalBalances.getOrDefault("USD", BigDecimal.ZERO))
-                    .totalUsers(totalUsers)
-                    .newUsersToday(newUsersToday)
-                    .activeUsersLast7Days(activeUsersLast7Days)
-                    .activeUsers(userActivityStats.get("active"))
-                    .inactiveUsers(userActivityStats.get("inactive"))
-                    .neverUsedUsers(userActivityStats.get("neverUsed"))
-                    .disabledUsers(userActivityStats.get("disabled"))
-                    .hourlyTxCounts(hourlyTxCounts)
-                    .totalTransactionsToday(totalTransactionsToday)
-                    .totalVolumeToday(totalVolumeToday)
-                    .recentTransactions(recentTxResponse)
-                    .twoFactorEnabledCount(twoFactorStats.get("enabled"))
-                    .twoFactorDisabledCount(twoFactorStats.get("disabled"))
-                    .highlightStats(highlightStats)
-                    .generatedAt(Instant.now())
-                    .build();
-                    
-        } catch (Exception e) {
-            log.error("ERROR en getDashboardStats: {}", e.getMessage(), e);
-            throw e;
         }
+        return stats;
     }
 
     private List<Transaction> getRecentTransactionsOptimized(int limit) {
@@ -128,26 +138,12 @@ public class AdminServiceImpl implements AdminService {
 
     private Map<String, Long> getHourlyTransactionCounts() {
         Instant twentyFourHoursAgo = Instant.now().minus(24, ChronoUnit.HOURS);
-        
-        String jpql = "SELECT FUNCTION('DATE_FORMAT', t.createdAt, '%Y-%m-%d %H:00') as hour_slot, " +
-                      "COUNT(t) " +
-                      "FROM Transaction t " +
-                      "WHERE t.createdAt >= :startDate " +
-                      "AND t.status = :status " +
-                      "GROUP BY hour_slot " +
-                      "ORDER BY hour_slot ASC";
-        
-        Query query = entityManager.createQuery(jpql);
-        query.setParameter("startDate", twentyFourHoursAgo);
-        query.setParameter("status", TransactionStatus.COMPLETED);
-        
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = query.getResultList();
-        
-        return results.stream().collect(Collectors.toMap(
-            row -> (String) row[0], 
-            row -> (Long) row[1]    
-        ));
+        DateTimeFormatter hourSlot = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00").withZone(ZoneId.systemDefault());
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        analyticsRollups.hourlyCounts(twentyFourHoursAgo, TransactionStatus.COMPLETED)
+                .forEach((hour, count) -> counts.put(hourSlot.format(hour), count));
+        return counts;
     }
 
     private long countActiveUsersSince(Instant since) {
@@ -164,10 +160,7 @@ public class AdminServiceImpl implements AdminService {
         return count != null ? count : 0L;
     }
 
-    private Map<String, Long> getUserActivityStats() {
-        Instant sevenDaysAgo = Instant.now().minus(7, ChronoUnit.DAYS);
-        Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
-
+    private long countUsersWithActivitySince(Instant since) {
         String activeQuery = 
             "SELECT COUNT(DISTINCT w.userId) " +
             "FROM Wallet w " +
@@ -180,10 +173,13 @@ public class AdminServiceImpl implements AdminService {
             ")";
         
         Long activeUsers = entityManager.createQuery(activeQuery, Long.class)
-                .setParameter("sevenDays", sevenDaysAgo)
+                .setParameter("sevenDays", since)
                 .setParameter("txStatus", TransactionStatus.COMPLETED)
                 .getSingleResult();
+        return activeUsers != null ? activeUsers : 0L;
+    }
 
+    private long countUsersWithoutActivity() {
         String neverUsedQuery = 
             "SELECT COUNT(DISTINCT w.userId) " +
             "FROM Wallet w " +
@@ -197,7 +193,10 @@ public class AdminServiceImpl implements AdminService {
         Long neverUsedUsers = entityManager.createQuery(neverUsedQuery, Long.class)
                 .setParameter("txStatus", TransactionStatus.COMPLETED)
                 .getSingleResult();
+        return neverUsedUsers != null ? neverUsedUsers : 0L;
+    }
 
+    private long countUsersInactiveSince(Instant since) {
         String inactiveQuery = 
             "SELECT COUNT(DISTINCT w.userId) " +
             "FROM Wallet w " +
@@ -215,42 +214,18 @@ public class AdminServiceImpl implements AdminService {
             ")";
         
         Long inactiveUsers = entityManager.createQuery(inactiveQuery, Long.class)
-                .setParameter("thirtyDays", thirtyDaysAgo)
+                .setParameter("thirtyDays", since)
                 .setParameter("txStatus", TransactionStatus.COMPLETED)
                 .getSingleResult();
-
-        Long disabledUsers = userRepository.countDisabledUsers();
-        
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("active", activeUsers != null ? activeUsers : 0L);
-        stats.put("neverUsed", neverUsedUsers != null ? neverUsedUsers : 0L);
-        stats.put("inactive", inactiveUsers != null ? inactiveUsers : 0L);
-        stats.put("disabled", disabledUsers != null ? disabledUsers : 0L);
-        
-        return stats;
+        return inactiveUsers != null ? inactiveUsers : 0L;
     }
 
     private long countTransactionsSince(Instant since) {
-        String jpql = "SELECT COUNT(t) FROM Transaction t " +
-                      "WHERE t.createdAt >= :since " +
-                      "AND t.status = :status";
-        
-        return entityManager.createQuery(jpql, Long.class)
-                .setParameter("since", since)
-                .setParameter("status", TransactionStatus.COMPLETED)
-                .getSingleResult();
+        return analyticsRollups.totals(since, TransactionStatus.COMPLETED).count();
     }
 
     private BigDecimal getTotalVolumeSince(Instant since) {
-        String jpql = "SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
-                      "WHERE t.createdAt >= :since " +
-                      "AND t.status = :status " +
-                      "AND t.amount > 0"; 
-        
-        return entityManager.createQuery(jpql, BigDecimal.class)
-                .setParameter("since", since)
-                .setParameter("status", TransactionStatus.COMPLETED)
-                .getSingleResult();
+        return analyticsRollups.totals(since, TransactionStatus.COMPLETED).inflow();
     }
 
 private  TransactionResponse toTransactionResponseForAdmin(Transaction tx) {
@@ -509,28 +484,11 @@ private  TransactionResponse toTransactionResponseForAdmin(Transaction tx) {
                 dailyCounts.put(date.toString(), 0L); 
             }
 
-            LocalDateTime startDateTime = today.minusDays(days - 1).atStartOfDay();
-
-            String sql = "SELECT DATE(p.created_at) as signup_date, COUNT(p.user_id) as user_count " +
-                        "FROM user_profile p " + 
-                        "WHERE p.created_at >= ? " +
-                        "GROUP BY DATE(p.created_at) " +
-                        "ORDER BY signup_date ASC";
-
-            Query query = entityManager.createNativeQuery(sql);
-            query.setParameter(1, startDateTime);
-
-            @SuppressWarnings("unchecked")
-            List<Object[]> results = query.getResultList();
-
-            for (Object[] row : results) {
-                String dateFromDB = row[0].toString(); 
-                Long countFromDB = (row[1] != null) ? ((Number) row[1]).longValue() : 0L; 
-                
-                if (dailyCounts.containsKey(dateFromDB)) {
-                    dailyCounts.put(dateFromDB, countFromDB);
+            analyticsRollups.dailySignups(today.minusDays(days - 1)).forEach((date, count) -> {
+                if (dailyCounts.containsKey(date.toString())) {
+                    dailyCounts.put(date.toString(), count);
                 }
-            }
+            });
 
             log.info("Stats de crecimiento generados: {} días", dailyCounts.size());
             return dailyCounts;
@@ -548,36 +506,20 @@ private  TransactionResponse toTransactionResponseForAdmin(Transaction tx) {
         }
     }
 
-    private Map<String, Long> getTwoFactorStats() {
-        try {
-            String jpqlEnabled = "SELECT COUNT(p.userId) FROM UserProfile p " +
-                               "JOIN p.user u " +
-                               "WHERE p.twoFactorEnabled = true " +
-                               "AND u.enabled = true " +
-                               "AND u.deletedAt IS NULL";
-            Long enabledCount = entityManager.createQuery(jpqlEnabled, Long.class).getSingleResult();
-
-            String jpqlDisabled = "SELECT COUNT(p.userId) FROM UserProfile p " +
-                                "JOIN p.user u " +
-                                "WHERE (p.twoFactorEnabled = false OR p.twoFactorEnabled IS NULL) " +
-                                "AND u.enabled = true " +
-                                "AND u.deletedAt IS NULL";
-            Long disabledCount = entityManager.createQuery(jpqlDisabled, Long.class).getSingleResult();
-
-            Map<String, Long> stats = new HashMap<>();
-            stats.put("enabled", enabledCount != null ? enabledCount : 0L);
-            stats.put("disabled", disabledCount != null ? disabledCount : 0L);
-
-            log.debug("Stats 2FA - Habilitado: {}, Deshabilitado: {}", enabledCount, disabledCount);
-            return stats;
-
-        } catch (Exception e) {
-            log.error("Error obteniendo stats de 2FA: {}", e.getMessage(), e);
-            Map<String, Long> defaultStats = new HashMap<>();
-            defaultStats.put("enabled", 0L);
-            defaultStats.put("disabled", 0L);
-            return defaultStats;
-        }
+    private long countTwoFactorUsers(boolean enabled) {
+        String jpql = enabled
+                ? "SELECT COUNT(p.userId) FROM UserProfile p " +
+                  "JOIN p.user u " +
+                  "WHERE p.twoFactorEnabled = true " +
+                  "AND u.enabled = true " +
+                  "AND u.deletedAt IS NULL"
+                : "SELECT COUNT(p.userId) FROM UserProfile p " +
+                  "JOIN p.user u " +
+                  "WHERE (p.twoFactorEnabled = false OR p.twoFactorEnabled IS NULL) " +
+                  "AND u.enabled = true " +
+                  "AND u.deletedAt IS NULL";
+        Long count = entityManager.createQuery(jpql, Long.class).getSingleResult();
+        return count != null ? count : 0L;
     }
 
     @Override
@@ -601,41 +543,15 @@ private  TransactionResponse toTransactionResponseForAdmin(Transaction tx) {
                     .collect(Collectors.toList());
 
             Instant last24Hours = Instant.now().minus(24, ChronoUnit.HOURS);
-            String jpqlTodayVolume = "SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
-                                   "WHERE t.createdAt >= :last24Hours " +
-                                   "AND t.status = :status";
-            
-            BigDecimal todayVolume = entityManager.createQuery(jpqlTodayVolume, BigDecimal.class)
-                    .setParameter("last24Hours", last24Hours)
-                    .setParameter("status", TransactionStatus.COMPLETED)
-                    .getSingleResult();
+            BigDecimal todayVolume = analyticsRollups.totals(last24Hours, TransactionStatus.COMPLETED).amount();
 
-            Instant oneHourAgo = Instant.now().minus(1, ChronoUnit.HOURS);
-            String jpqlLastHour = "SELECT COUNT(t) FROM Transaction t " +
-                                "WHERE t.createdAt >= :oneHourAgo " +
-                                "AND t.status = :status";
-            
-            Long txLastHour = entityManager.createQuery(jpqlLastHour, Long.class)
-                    .setParameter("oneHourAgo", oneHourAgo)
-                    .setParameter("status", TransactionStatus.COMPLETED)
-                    .getSingleResult();
-            
-            double txPerMinute = txLastHour != null ? txLastHour / 60.0 : 0.0;
-
-            String jpqlByType = "SELECT t.type, COUNT(t) FROM Transaction t " +
-                              "WHERE t.createdAt >= :last24Hours " +
-                              "AND t.status = :status " +
-                              "GROUP BY t.type";
+            // Los rollups cuentan horas completas: la tasa se calcula sobre los minutos que abarca el total
+            AnalyticsRollups.Totals lastHour = analyticsRollups.totals(Instant.now().minus(1, ChronoUnit.HOURS),
+                    TransactionStatus.COMPLETED);
+            long minutes = Math.max(ChronoUnit.MINUTES.between(lastHour.from(), Instant.now()), 1);
+            double txPerMinute = (double) lastHour.count() / minutes;
 
-            List<Object[]> typeResults = entityManager.createQuery(jpqlByType)
-                    .setParameter("last24Hours", last24Hours)
-                    .setParameter("status", TransactionStatus.COMPLETED)
-                    .getResultList();
-            
-            Map<String, Long> txByType = new HashMap<>();
-            for (Object[] row : typeResults) {
-                txByType.put(row[0].toString(), ((Number) row[1]).longValue());
-            }
+            Map<String, Long> txByType = analyticsRollups.countsByType(last24Hours, TransactionStatus.COMPLETED);
 
             String systemStatus = "OPERATIONAL"; 
             
@@ -583,24 +583,4 @@ public class AuthServiceImpl implements AuthService {
         
         log.info("Límite actualizado exitosamente a {} para usuario: {}", pendingLimit, userId);
     }
-
-    @Override
-    @Transactional
-    public void checkAndResetDailyVolume(Long userId) {
-        UserProfile profile = userProfileRepository.findByUserId(userId)
-                .orElseThrow(() -> new ApiException(404, "Perfil no encontrado"));
-
-        Instant now = Instant.now();
-        Instant lastReset = profile.getLastVolumeResetAt();
-
-        // Resetear si han pasado 24 horas
-        if (lastReset == null || now.isAfter(lastReset.plus(24, ChronoUnit.HOURS))) {
-            profile.setDailyVolumePen(BigDecimal.ZERO);
-            profile.setDailyVolumeUsd(BigDecimal.ZERO);
-            profile.setLastVolumeResetAt(now);
-            userProfileRepository.save(profile);
-            
-            log.debug("Volumen diario reseteado para usuario: {}", userId);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.service.BalanceSnapshotService;
+import com.enone.domain.model.TransactionStatus;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.model.WalletDailyBalance;
+import com.enone.domain.repository.TransactionRepository;
+import com.enone.domain.repository.WalletDailyBalanceRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.admin.DailyBalanceTotal;
+import com.enone.web.dto.wallet.BalanceAtResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Saldos de cierre diarios por wallet. Un job después de medianoche cierra de forma
+ * incremental los días terminados (cada día parte del cierre del anterior) con los
+ * movimientos aplicados al saldo, por fecha de creación en la zona de los estados:
+ * COMPLETED y retiros PENDING, que descuentan al registrarse. El saldo a una fecha
+ * sale del snapshot de ese día, o del más cercano anterior más los movimientos
+ * posteriores si el job va atrasado.
+ *
+ * Cuando una liquidación cambia lo aplicado en un día ya cerrado (un depósito que se
+ * acredita o un retiro rechazado), los cierres de la wallet desde ese día se borran
+ * junto con el cambio de estado y se rehacen después del commit.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotServiceImpl implements BalanceSnapshotService {
+
+    private static final String DAY_ROWS_SQL = "SELECT created_at, amount FROM transactions "
+            + "WHERE wallet_id = ? AND created_at >= ? AND created_at < ? "
+            + "AND (status = ? OR (status = ? AND type = ?))";
+    private static final String DELETE_FROM_DAY_SQL =
+            "DELETE FROM wallet_daily_balances WHERE wallet_id = ? AND day >= ?";
+    private static final int MAX_SERIES_DAYS = 366;
+
+    private final WalletDailyBalanceRepository dailyBalanceRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final ZoneId zone;
+    private final int chunkSize;
+
+    public BalanceSnapshotServiceImpl(WalletDailyBalanceRepository dailyBalanceRepository,
+                                      WalletRepository walletRepository,
+                                      TransactionRepository transactionRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.statements.zone:America/Lima}") String zone,
+                                      @Value("${app.balance-snapshots.chunk-size:500}") int chunkSize) {
+        this.dailyBalanceRepository = dailyBalanceRepository;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Saldo actual y suma de movimientos de la misma vista: el primer cierre de una wallet se deriva de ambos
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // Propia también cuando se reabre desde el afterCommit de una liquidación
+        this.snapshotTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.zone = ZoneId.of(zone);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    @Override
+    public List<BalanceAtResponse> getBalancesAt(Long userId, LocalDate date, String currency) {
+        LocalDate today = LocalDate.now(zone);
+        if (date.isAfter(today)) {
+            throw new ApiException(400, "La fecha no puede ser futura");
+        }
+
+        List<Wallet> wallets = walletRepository.findByUserIdOrderByCreatedAt(userId).stream()
+                .filter(w -> currency == null || w.getCurrency().equalsIgnoreCase(currency))
+                .toList();
+        if (wallets.isEmpty()) {
+            throw new ApiException(404, "No se encontraron wallets");
+        }
+
+        List<BalanceAtResponse> result = new ArrayList<>(wallets.size());
+        for (Wallet wallet : wallets) {
+            BigDecimal balance;
+            LocalDate snapshotDay = null;
+            if (!date.isBefore(today)) {
+                balance = wallet.getBalance();
+            } else if (date.isBefore(LocalDate.ofInstant(wallet.getCreatedAt(), zone))) {
+                balance = BigDecimal.ZERO;
+            } else {
+                Optional<WalletDailyBalance> snapshot = dailyBalanceRepository
+                        .findTopByWalletIdAndDayLessThanEqualOrderByDayDesc(wallet.getId(), date);
+                if (snapshot.isPresent()) {
+                    snapshotDay = snapshot.get().getDay();
+                    balance = snapshotDay.equals(date)
+                            ? snapshot.get().getClosingBalance()
+                            : snapshot.get().getClosingBalance().add(transactionRepository.sumAppliedForWalletBetween(
+                                    wallet.getId(), start(snapshotDay.plusDays(1)), start(date.plusDays(1))));
+                } else {
+                    // Wallet aún sin cierres: saldo actual menos lo movido después de la fecha
+                    balance = wallet.getBalance().subtract(transactionRepository.sumAppliedForWalletSince(
+                            wallet.getId(), start(date.plusDays(1))));
+                }
+            }
+
+            result.add(BalanceAtResponse.builder()
+                    .walletId(wallet.getId())
+                    .walletNumber(wallet.getWalletNumber())
+                    .currency(wallet.getCurrency())
+                    .date(date)
+                    .balance(balance)
+                    .snapshotDay(snapshotDay)
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public List<DailyBalanceTotal> getDailyTotals(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ApiException(400, "La fecha inicial debe ser anterior a la final");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_SERIES_DAYS) {
+            throw new ApiException(400, "El rango no puede superar " + MAX_SERIES_DAYS + " días");
+        }
+
+        return dailyBalanceRepository.sumClosingByDayAndCurrency(from, to).stream()
+                .map(row -> DailyBalanceTotal.builder()
+                        .day((LocalDate) row[0])
+                        .currency((String) row[1])
+                        .totalBalance((BigDecimal) row[2])
+                        .wallets((Long) row[3])
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Cierra, para cada wallet, todos los días terminados que aún no tienen saldo de cierre.
+     * @return Número de cierres creados
+     */
+    @Override
+    @Scheduled(cron = "${app.balance-snapshots.close-cron:0 5 0 * * *}", zone = "${app.statements.zone:America/Lima}")
+    public int closePendingDays() {
+        LocalDate lastClosable = LocalDate.now(zone).minusDays(1);
+        int created = 0;
+        long afterId = 0L;
+
+        while (true) {
+            List<Long> walletIds = walletRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (walletIds.isEmpty()) {
+                break;
+            }
+            for (Long walletId : walletIds) {
+                try {
+                    Integer closed = snapshotTemplate.execute(status -> closeWallet(walletId, lastClosable));
+                    created += closed != null ? closed : 0;
+                } catch (RuntimeException e) {
+                    // La wallet queda para la próxima ejecución, que retoma desde su último cierre
+                    log.warn("No se pudieron cerrar los saldos diarios de la wallet {}: {}", walletId, e.getMessage());
+                }
+            }
+            afterId = walletIds.get(walletIds.size() - 1);
+        }
+
+        if (created > 0) {
+            log.info("Saldos diarios cerrados: {} (hasta {})", created, lastClosable);
+        }
+        return created;
+    }
+
+    /**
+     * Borra, en la transacción actual, los cierres de la wallet desde el día de
+     * {@code createdAt} y los rehace después del commit. Si el recálculo falla, el
+     * próximo cierre diario los vuelve a crear desde el último que quedó.
+     * @param walletId Wallet del movimiento liquidado
+     * @param createdAt Fecha de creación del movimiento
+     */
+    @Override
+    public void reopenAfterCommit(Long walletId, Instant createdAt) {
+        LocalDate day = LocalDate.ofInstant(createdAt, zone);
+        if (jdbcTemplate.update(DELETE_FROM_DAY_SQL, walletId, Date.valueOf(day)) == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reclose(walletId, day);
+                }
+            });
+        } else {
+            reclose(walletId, day);
+        }
+    }
+
+    private void reclose(Long walletId, LocalDate day) {
+        try {
+            snapshotTemplate.execute(status -> closeWallet(walletId, LocalDate.now(zone).minusDays(1)));
+            log.debug("Saldos diarios de la wallet {} recalculados desde {}", walletId, day);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron recalcular los saldos diarios de la wallet {} desde {}: {}",
+                    walletId, day, e.getMessage());
+        }
+    }
+
+    private int closeWallet(Long walletId, LocalDate lastClosable) {
+        Wallet wallet = walletRepository.findById(walletId).orElse(null);
+        if (wallet == null) {
+            return 0;
+        }
+
+        Optional<WalletDailyBalance> last = dailyBalanceRepository.findTopByWalletIdOrderByDayDesc(walletId);
+        LocalDate first = last.map(d -> d.getDay().plusDays(1))
+                .orElseGet(() -> LocalDate.ofInstant(wallet.getCreatedAt(), zone));
+        if (first.isAfter(lastClosable)) {
+            return 0;
+        }
+
+        BigDecimal balance = last.map(WalletDailyBalance::getClosingBalance)
+                .orElseGet(() -> wallet.getBalance().subtract(transactionRepository.sumAppliedForWalletSince(
+                        walletId, start(first))));
+
+        Map<LocalDate, DayTotal> days = dayTotals(walletId, first, lastClosable);
+        Instant now = Instant.now();
+        List<WalletDailyBalance> rows = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(lastClosable); day = day.plusDays(1)) {
+            DayTotal total = days.getOrDefault(day, DayTotal.NONE);
+            balance = balance.add(total.net());
+            rows.add(WalletDailyBalance.builder()
+                    .walletId(walletId)
+                    .day(day)
+                    .currency(wallet.getCurrency())
+                    .closingBalance(balance)
+                    .netChange(total.net())
+                    .transactionCount(total.count())
+                    .createdAt(now)
+                    .build());
+        }
+        dailyBalanceRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    private Map<LocalDate, DayTotal> dayTotals(Long walletId, LocalDate first, LocalDate last) {
+        // Se agrega por día al leer: la memoria depende de los días, no de los movimientos
+        Map<LocalDate, DayTotal> days = new HashMap<>();
+        jdbcTemplate.query(DAY_ROWS_SQL, (RowCallbackHandler) rs -> {
+            LocalDate day = LocalDate.ofInstant(rs.getTimestamp(1).toInstant(), zone);
+            BigDecimal amount = rs.getBigDecimal(2);
+            days.merge(day, new DayTotal(amount, 1), DayTotal::plus);
+        }, walletId, Timestamp.from(start(first)), Timestamp.from(start(last.plusDays(1))),
+                TransactionStatus.COMPLETED.name(), TransactionStatus.PENDING.name(), TransactionType.WITHDRAWAL.name());
+        return days;
+    }
+
+    private Instant start(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant();
+    }
+
+    private record DayTotal(BigDecimal net, int count) {
+        static final DayTotal NONE = new DayTotal(BigDecimal.ZERO, 0);
+
+        DayTotal plus(DayTotal other) {
+            return new DayTotal(net.add(other.net), count + other.count);
+        }
+    }
+}
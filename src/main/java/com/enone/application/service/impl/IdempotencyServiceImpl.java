@@ -0,0 +1,258 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.service.IdempotencyService;
+import com.enone.domain.model.IdempotencyRecord;
+import com.enone.domain.model.IdempotencyStatus;
+import com.enone.domain.repository.IdempotencyRecordRepository;
+import com.enone.exception.ApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplica operaciones que mueven dinero a partir del header Idempotency-Key.
+ *
+ * La respuesta de la primera ejecución se guarda en memoria (acotada, con TTL) y en
+ * la tabla idempotency_keys para sobrevivir reinicios. Un duplicado concurrente
+ * espera el resultado de la ejecución en curso en lugar de repetirla.
+ *
+ * Cada clave guarda la huella (SHA-256 del JSON canónico) de la solicitud original:
+ * reutilizarla con otro cuerpo responde 422 en lugar de repetir una respuesta que no
+ * le corresponde. Una clave IN_PROGRESS se conserva solo durante su lease; si el nodo
+ * que la ejecutaba cayó, al vencer otra solicitud puede tomarla.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper canonicalMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int maxEntries;
+    private final long waitTimeoutMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(String operation, String requestHash, CompletableFuture<Object> result, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return now.isAfter(expiresAt);
+        }
+    }
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository repository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                                  @Value("${app.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                                  @Value("${app.idempotency.lease-ms:120000}") long leaseMs) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        // Mismo cuerpo, mismo JSON: propiedades y mapas en orden alfabético
+        this.canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxEntries = maxEntries;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    public <T> T execute(Long userId, String idempotencyKey, String operation, Object request,
+            Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(400, "Idempotency-Key no puede exceder " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String requestHash = fingerprint(request);
+        Instant now = Instant.now();
+        Entry created = new Entry(operation, requestHash, new CompletableFuture<>(), now.plus(ttl));
+        Entry entry = entries.compute(userId + ":" + key,
+                (k, current) -> current != null && !current.isExpired(now) ? current : created);
+
+        if (entry != created) {
+            log.info("Solicitud duplicada con Idempotency-Key {} para userId {}", key, userId);
+            return awaitExisting(entry, operation, requestHash, responseType);
+        }
+
+        try {
+            T response = runOnce(userId, key, operation, requestHash, responseType, action);
+            entry.result().complete(response);
+            evictIfNeeded();
+            return response;
+        } catch (RuntimeException e) {
+            // Un fallo no se memoriza: el cliente puede reintentar con la misma clave
+            entries.remove(userId + ":" + key, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private <T> T awaitExisting(Entry entry, String operation, String requestHash, Class<T> responseType) {
+        if (!entry.operation().equals(operation)) {
+            throw new ApiException(409, "La Idempotency-Key ya fue usada para otra operación");
+        }
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new ApiException(422, "La Idempotency-Key ya fue usada con otros datos");
+        }
+        try {
+            return responseType.cast(entry.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException(500, "Error en la solicitud original", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ApiException(409, "Una solicitud con esta Idempotency-Key sigue en proceso");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Operación interrumpida", e);
+        }
+    }
+
+    private <T> T runOnce(Long userId, String key, String operation, String requestHash, Class<T> responseType,
+            Supplier<T> action) {
+        IdempotencyRecord record = null;
+        Optional<IdempotencyRecord> stored = repository.findByUserIdAndIdempotencyKey(userId, key);
+        if (stored.isPresent()) {
+            IdempotencyRecord existing = stored.get();
+            Instant now = Instant.now();
+            if (existing.isExpired()) {
+                repository.delete(existing);
+            } else if (!existing.getOperation().equals(operation)) {
+                throw new ApiException(409, "La Idempotency-Key ya fue usada para otra operación");
+            } else if (existing.getRequestHash() != null && !existing.getRequestHash().equals(requestHash)) {
+                throw new ApiException(422, "La Idempotency-Key ya fue usada con otros datos");
+            } else if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+                log.info("Respuesta recuperada de idempotency_keys para clave {} (userId {})", key, userId);
+                return deserialize(existing.getResponseBody(), responseType);
+            } else if (!existing.isLeaseExpired(now)) {
+                // Otra instancia la está ejecutando
+                throw new ApiException(409, "Una solicitud con esta Idempotency-Key sigue en proceso");
+            } else {
+                // La ejecución anterior se interrumpió sin confirmar el resultado: se toma la clave
+                Instant leaseUntil = now.plus(lease);
+                if (repository.claimExpiredLease(existing.getId(), now, leaseUntil, requestHash) == 0) {
+                    throw new ApiException(409, "Una solicitud con esta Idempotency-Key sigue en proceso");
+                }
+                log.warn("Idempotency-Key {} (userId {}) retomada tras vencer su lease", key, userId);
+                existing.setLeaseUntil(leaseUntil);
+                existing.setRequestHash(requestHash);
+                record = existing;
+            }
+        }
+
+        if (record == null) {
+            // La restricción única (user_id, idempotency_key) arbitra entre nodos
+            try {
+                record = repository.saveAndFlush(IdempotencyRecord.builder()
+                        .userId(userId)
+                        .idempotencyKey(key)
+                        .operation(operation)
+                        .requestHash(requestHash)
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .expiresAt(Instant.now().plus(ttl))
+                        .leaseUntil(Instant.now().plus(lease))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                throw new ApiException(409, "Una solicitud con esta Idempotency-Key sigue en proceso");
+            }
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            repository.delete(record);
+            throw e;
+        }
+
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResponseBody(serialize(response));
+        repository.save(record);
+        return response;
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        Instant now = Instant.now();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+
+        // La copia durable sigue en base de datos, así que se pueden soltar entradas ya resueltas
+        var it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            if (it.next().getValue().result().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now) && e.getValue().result().isDone());
+        int deleted = repository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Idempotency-Keys expiradas eliminadas: {}", deleted);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonicalMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new ApiException(500, "No se pudo registrar la solicitud idempotente", e);
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new ApiException(500, "No se pudo registrar la respuesta idempotente", e);
+        }
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new ApiException(500, "No se pudo recuperar la respuesta idempotente", e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.cache.WalletReadCache;
+import com.enone.application.ledger.HotWalletBalances;
+import com.enone.application.ledger.LedgerJournal;
+import com.enone.application.ledger.LedgerReconciler;
+import com.enone.application.ledger.WalletLockManager;
+import com.enone.application.service.LedgerService;
+import com.enone.domain.model.JournalEntry;
+import com.enone.domain.model.JournalEntryType;
+import com.enone.domain.model.LedgerAccountType;
+import com.enone.domain.model.ReconciliationRun;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.repository.JournalPostingRepository;
+import com.enone.domain.repository.ReconciliationMismatchRepository;
+import com.enone.domain.repository.ReconciliationRunRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.admin.HotWalletStatus;
+import com.enone.web.dto.admin.LedgerIntegrityReport;
+import com.enone.web.dto.admin.ReconciliationMismatchResponse;
+import com.enone.web.dto.admin.ReconciliationRunResponse;
+import com.enone.web.dto.admin.WalletLedgerBalance;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Slf4j
+@Service
+public class LedgerServiceImpl implements LedgerService {
+
+    private final JournalPostingRepository journalPostingRepository;
+    private final WalletRepository walletRepository;
+    private final WalletLockManager walletLockManager;
+    private final LedgerJournal ledgerJournal;
+    private final HotWalletBalances hotWalletBalances;
+    private final WalletReadCache walletReadCache;
+    private final LedgerReconciler ledgerReconciler;
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+    private final int maxHotSlots;
+
+    public LedgerServiceImpl(JournalPostingRepository journalPostingRepository,
+                             WalletRepository walletRepository,
+                             WalletLockManager walletLockManager,
+                             LedgerJournal ledgerJournal,
+                             HotWalletBalances hotWalletBalances,
+                             WalletReadCache walletReadCache,
+                             LedgerReconciler ledgerReconciler,
+                             ReconciliationRunRepository reconciliationRunRepository,
+                             ReconciliationMismatchRepository reconciliationMismatchRepository,
+                             @Value("${app.ledger.hot-wallet.max-slots:64}") int maxHotSlots) {
+        this.journalPostingRepository = journalPostingRepository;
+        this.walletRepository = walletRepository;
+        this.walletLockManager = walletLockManager;
+        this.ledgerJournal = ledgerJournal;
+        this.hotWalletBalances = hotWalletBalances;
+        this.walletReadCache = walletReadCache;
+        this.ledgerReconciler = ledgerReconciler;
+        this.reconciliationRunRepository = reconciliationRunRepository;
+        this.reconciliationMismatchRepository = reconciliationMismatchRepository;
+        this.maxHotSlots = maxHotSlots;
+    }
+
+    @Override
+    public LedgerIntegrityReport checkIntegrity(int limit) {
+        log.info("Verificando integridad del diario contable");
+
+        List<Long> unbalanced = journalPostingRepository.findUnbalancedEntryIds(PageRequest.of(0, limit));
+        List<WalletLedgerBalance> mismatches = journalPostingRepository
+                .findWalletsOutOfBalance(PageRequest.of(0, limit))
+                .stream()
+                .map(row -> toBalance((Long) row[0], (BigDecimal) row[1], (BigDecimal) row[2], false))
+                .toList();
+
+        return LedgerIntegrityReport.builder()
+                .unbalancedEntryIds(unbalanced)
+                .walletsOutOfBalance(mismatches)
+                .consistent(unbalanced.isEmpty() && mismatches.isEmpty())
+                .checkedAt(Instant.now())
+                .build();
+    }
+
+    @Override
+    public WalletLedgerBalance rebuildWalletBalance(Long walletId) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new ApiException(404, "Wallet no encontrada");
+        }
+
+        return walletLockManager.executeLocked(List.of(walletId), wallets -> {
+            Wallet wallet = wallets.get(walletId);
+            BigDecimal projected = wallet.getBalance();
+            BigDecimal journal = journalPostingRepository.sumByWalletId(walletId);
+
+            boolean corrected = projected.compareTo(journal) != 0;
+            if (corrected) {
+                log.warn("Saldo de wallet {} reconstruido desde el diario: {} -> {}", walletId, projected, journal);
+                wallet.setBalance(journal);
+                wallet.setUpdatedAt(Instant.now());
+                walletRepository.save(wallet);
+                walletReadCache.invalidateAfterCommit(wallet.getUserId());
+            }
+            return toBalance(walletId, projected, journal, corrected);
+        });
+    }
+
+    @Override
+    public int backfillOpeningBalances() {
+        List<Long> walletIds = journalPostingRepository.findWalletIdsWithoutPostings();
+        int created = 0;
+
+        for (Long walletId : walletIds) {
+            boolean posted = walletLockManager.executeLocked(List.of(walletId), wallets -> {
+                // Revisar de nuevo con la wallet bloqueada: otra operación pudo registrar un asiento
+                if (journalPostingRepository.existsByWalletId(walletId)) {
+                    return false;
+                }
+                Wallet wallet = wallets.get(walletId);
+                ledgerJournal.post(JournalEntry.builder()
+                        .type(JournalEntryType.OPENING_BALANCE)
+                        .reference(wallet.getWalletNumber())
+                        .description("Saldo de apertura")
+                        .build()
+                        .walletPosting(walletId, wallet.getCurrency(), wallet.getBalance())
+                        .systemPosting(LedgerAccountType.OPENING_EQUITY, wallet.getCurrency(),
+                                wallet.getBalance().negate()));
+                return true;
+            });
+            if (posted) {
+                created++;
+            }
+        }
+
+        if (created > 0) {
+            log.info("Asientos de apertura creados para {} wallets", created);
+        }
+        return created;
+    }
+
+    @Override
+    public HotWalletStatus enableHotWallet(Long walletId, int slots) {
+        if (slots < 2 || slots > maxHotSlots) {
+            throw new ApiException(400, "El número de slots debe estar entre 2 y " + maxHotSlots);
+        }
+        if (!walletRepository.existsById(walletId)) {
+            throw new ApiException(404, "Wallet no encontrada");
+        }
+
+        return walletLockManager.executeLocked(List.of(walletId), wallets -> {
+            Wallet wallet = wallets.get(walletId);
+            hotWalletBalances.enable(wallet, slots);
+            log.info("Wallet {} en modo caliente con {} slots", walletId, slots);
+            return toHotStatus(wallet);
+        });
+    }
+
+    @Override
+    public HotWalletStatus disableHotWallet(Long walletId) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new ApiException(404, "Wallet no encontrada");
+        }
+
+        return walletLockManager.executeLocked(List.of(walletId), wallets -> {
+            Wallet wallet = wallets.get(walletId);
+            if (wallet.isHot()) {
+                hotWalletBalances.disable(wallet);
+                log.info("Wallet {} vuelve al modo normal", walletId);
+            }
+            return toHotStatus(wallet);
+        });
+    }
+
+    /**
+     * Pliega periódicamente los slots de las wallets calientes sobre su saldo principal.
+     * El bloqueo de la wallet ya realiza la consolidación; aquí solo se fuerza.
+     * @return Número de wallets consolidadas
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.ledger.hot-wallet.consolidate-interval-ms:30000}")
+    public int consolidateHotWallets() {
+        List<Long> walletIds = hotWalletBalances.findWalletsWithPendingSlots();
+        int consolidated = 0;
+
+        for (Long walletId : walletIds) {
+            try {
+                walletLockManager.executeLocked(List.of(walletId), wallets -> {
+                    walletRepository.save(wallets.get(walletId));
+                    return null;
+                });
+                consolidated++;
+            } catch (ApiException e) {
+                // Wallet con mucha actividad: se reintenta en la siguiente pasada
+                log.debug("Consolidación de wallet {} pospuesta: {}", walletId, e.getMessage());
+            }
+        }
+
+        if (consolidated > 0) {
+            log.debug("Slots consolidados en {} wallets calientes", consolidated);
+        }
+        return consolidated;
+    }
+
+    @Override
+    public ReconciliationRunResponse startReconciliation(String triggeredBy) {
+        return toRunResponse(ledgerReconciler.start(triggeredBy));
+    }
+
+    @Override
+    public ReconciliationRunResponse getLatestReconciliation() {
+        return reconciliationRunRepository.findTopByOrderByIdDesc()
+                .map(this::toRunResponse)
+                .orElseThrow(() -> new ApiException(404, "Aún no se ha ejecutado ninguna conciliación"));
+    }
+
+    @Override
+    public List<ReconciliationMismatchResponse> getReconciliationMismatches(Long runId, int limit) {
+        if (!reconciliationRunRepository.existsById(runId)) {
+            throw new ApiException(404, "Conciliación no encontrada");
+        }
+        return reconciliationMismatchRepository.findByRunIdOrderByIdAsc(runId, PageRequest.of(0, limit)).stream()
+                .map(m -> ReconciliationMismatchResponse.builder()
+                        .walletId(m.getWalletId())
+                        .kind(m.getKind().name())
+                        .transactionId(m.getTransactionId())
+                        .expected(m.getExpected())
+                        .actual(m.getActual())
+                        .difference(m.getActual().subtract(m.getExpected()))
+                        .detectedAt(m.getDetectedAt())
+                        .build())
+                .toList();
+    }
+
+    private ReconciliationRunResponse toRunResponse(ReconciliationRun run) {
+        return ReconciliationRunResponse.builder()
+                .id(run.getId())
+                .status(run.getStatus().name())
+                .triggeredBy(run.getTriggeredBy())
+                .partitions(run.getPartitions())
+                .walletsChecked(run.getWalletsChecked())
+                .transactionsChecked(run.getTransactionsChecked())
+                .mismatchCount(run.getMismatchCount())
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+
+    private HotWalletStatus toHotStatus(Wallet wallet) {
+        return HotWalletStatus.builder()
+                .walletId(wallet.getId())
+                .slots(wallet.getHotSlots())
+                .balance(wallet.getBalance())
+                .build();
+    }
+
+    private WalletLedgerBalance toBalance(Long walletId, BigDecimal projected, BigDecimal journal,
+            boolean corrected) {
+        return WalletLedgerBalance.builder()
+                .walletId(walletId)
+                .projectedBalance(projected)
+                .journalBalance(journal)
+                .difference(projected.subtract(journal))
+                .corrected(corrected)
+                .build();
+    }
+}
@@ -2,7 +2,9 @@ package com.enone.application.service.impl;
 
 
 import com.enone.application.service.MockBancoService;
+import com.enone.domain.model.MockBancoOperacion;
 import com.enone.domain.model.MockTarjeta;
+import com.enone.domain.repository.MockBancoOperacionRepository;
 import com.enone.domain.repository.MockTarjetaRepository;
 import com.enone.exception.ApiException;
 
@@ -23,6 +25,7 @@ import java.util.UUID;
 public class MockBancoServiceImpl implements MockBancoService {
 
     private final MockTarjetaRepository tarjetaRepository;
+    private final MockBancoOperacionRepository operacionRepository;
 
     @Override
     @Transactional
@@ -92,25 +95,37 @@ public class MockBancoServiceImpl implements MockBancoService {
     @Transactional
     public RealizarCobroResponse realizarCobro(RealizarCobroRequest request) {
         log.info("Realizando cobro por monto: {}", request.getMonto());
+
+        Optional<MockBancoOperacion> previa = buscarOperacion(request.getReferencia());
+        if (previa.isPresent()) {
+            MockBancoOperacion op = previa.get();
+            log.info("Cobro con referencia {} ya procesado, se devuelve el resultado original", op.getReferencia());
+            return RealizarCobroResponse.builder()
+                    .success(op.getSuccess())
+                    .mensaje(op.getMensaje())
+                    .transactionId(op.getTransactionId())
+                    .nuevoSaldo(op.getNuevoSaldo())
+                    .build();
+        }
         
         Optional<MockTarjeta> tarjetaOpt = tarjetaRepository.findByNumeroTarjeta(request.getNumeroTarjeta());
         
         if (tarjetaOpt.isEmpty()) {
-            return RealizarCobroResponse.builder()
+            return registrarCobro(request, RealizarCobroResponse.builder()
                     .success(false)
                     .mensaje("Tarjeta no encontrada")
-                    .build();
+                    .build());
         }
         
         MockTarjeta tarjeta = tarjetaOpt.get();
         
         // Validar saldo suficiente
         if (tarjeta.getSaldoDisponible().compareTo(request.getMonto()) < 0) {
-            return RealizarCobroResponse.builder()
+            return registrarCobro(request, RealizarCobroResponse.builder()
                     .success(false)
                     .mensaje("Saldo insuficiente en la tarjeta")
                     .nuevoSaldo(tarjeta.getSaldoDisponible())
-                    .build();
+                    .build());
         }
         
         // Realizar el cobro
@@ -123,18 +138,30 @@ public class MockBancoServiceImpl implements MockBancoService {
         
         log.info("Cobro realizado exitosamente - Monto: {}, ID: {}", request.getMonto(), transactionId);
         
-        return RealizarCobroResponse.builder()
+        return registrarCobro(request, RealizarCobroResponse.builder()
                 .success(true)
                 .mensaje("Cobro realizado exitosamente")
                 .transactionId(transactionId)
                 .nuevoSaldo(nuevoSaldo)
-                .build();
+                .build());
     }
     
     @Override
     @Transactional
     public RealizarAbonoResponse acreditarDinero(RealizarAbonoRequest request) {
         log.info("Acreditando dinero por monto: {}", request.getMonto());
+
+        Optional<MockBancoOperacion> previa = buscarOperacion(request.getReferencia());
+        if (previa.isPresent()) {
+            MockBancoOperacion op = previa.get();
+            log.info("Abono con referencia {} ya procesado, se devuelve el resultado original", op.getReferencia());
+            return RealizarAbonoResponse.builder()
+                    .success(op.getSuccess())
+                    .mensaje(op.getMensaje())
+                    .transactionId(op.getTransactionId())
+                    .nuevoSaldo(op.getNuevoSaldo())
+                    .build();
+        }
         
         Optional<MockTarjeta> tarjetaOpt = tarjetaRepository.findByNumeroTarjeta(request.getNumeroTarjeta());
 
@@ -154,12 +181,41 @@ public class MockBancoServiceImpl implements MockBancoService {
         
         log.info("Abono exitoso a tarjeta - Monto: {}, ID: {}", request.getMonto(), transactionId);
 
-        return RealizarAbonoResponse.builder()
+        RealizarAbonoResponse response = RealizarAbonoResponse.builder()
                 .success(true)
                 .mensaje("Abono recibido exitosamente")
                 .transactionId(transactionId)
                 .nuevoSaldo(nuevoSaldo)
                 .build();
+        registrarOperacion(request.getReferencia(), "ABONO", request.getMonto(), response.getSuccess(),
+                response.getMensaje(), response.getTransactionId(), response.getNuevoSaldo());
+        return response;
+    }
+
+    private Optional<MockBancoOperacion> buscarOperacion(String referencia) {
+        return referencia == null ? Optional.empty() : operacionRepository.findByReferencia(referencia);
+    }
+
+    private RealizarCobroResponse registrarCobro(RealizarCobroRequest request, RealizarCobroResponse response) {
+        registrarOperacion(request.getReferencia(), "COBRO", request.getMonto(), response.getSuccess(),
+                response.getMensaje(), response.getTransactionId(), response.getNuevoSaldo());
+        return response;
+    }
+
+    private void registrarOperacion(String referencia, String tipo, BigDecimal monto, Boolean success,
+                                    String mensaje, String transactionId, BigDecimal nuevoSaldo) {
+        if (referencia == null) {
+            return;
+        }
+        operacionRepository.save(MockBancoOperacion.builder()
+                .referencia(referencia)
+                .tipo(tipo)
+                .monto(monto)
+                .success(success)
+                .mensaje(mensaje)
+                .transactionId(transactionId)
+                .nuevoSaldo(nuevoSaldo)
+                .build());
     }
     
     private String enmascararTarjeta(String numeroTarjeta) {
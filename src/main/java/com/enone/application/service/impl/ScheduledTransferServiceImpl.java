@@ -0,0 +1,448 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.cache.DisplayNameCache;
+import com.enone.application.service.ScheduledTransferService;
+import com.enone.application.service.TwoFactorAuthService;
+import com.enone.application.service.WalletService;
+import com.enone.domain.model.ScheduleFrequency;
+import com.enone.domain.model.ScheduledRunStatus;
+import com.enone.domain.model.ScheduledTransfer;
+import com.enone.domain.model.ScheduledTransferRun;
+import com.enone.domain.model.ScheduledTransferStatus;
+import com.enone.domain.model.Transaction;
+import com.enone.domain.model.User;
+import com.enone.domain.repository.ScheduledTransferRepository;
+import com.enone.domain.repository.ScheduledTransferRunRepository;
+import com.enone.domain.repository.UserRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.wallet.ScheduledTransferRequest;
+import com.enone.web.dto.wallet.ScheduledTransferResponse;
+import com.enone.web.dto.wallet.ScheduledTransferRunResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transferencias programadas y recurrentes.
+ *
+ * El despachador recorre las vencidas por el índice (status, next_run_at) en bloques
+ * acotados. Cada bloque se reclama en una transacción corta: se bloquean las filas
+ * (saltando las que tiene otra instancia), se inserta un registro de ejecución en
+ * QUEUED y se avanza next_run_at. Después las transferencias se ejecutan en un pool
+ * de hilos acotado con la misma lógica que {@link WalletService#transfer}; si la cola
+ * del pool está llena el despachador espera, lo que frena la lectura de bloques. El
+ * despachador corre en su propio hilo, no en el del scheduler que comparten los jobs.
+ *
+ * Una ocurrencia se reclama una sola vez: ante una caída la ejecución queda en QUEUED
+ * o RUNNING y pasa a INTERRUPTED, sin reintentarse. Un worker solo la ejecuta si sigue
+ * en QUEUED al tomarla, y desde ahí cuenta el tiempo para considerarla interrumpida. Las ocurrencias perdidas mientras el servicio
+ * estuvo detenido se agrupan en una sola ejecución.
+ */
+@Slf4j
+@Service
+public class ScheduledTransferServiceImpl implements ScheduledTransferService {
+
+    private static final int ERROR_MESSAGE_LENGTH = 255;
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ScheduledTransferRunRepository runRepository;
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+    private final TwoFactorAuthService twoFactorAuthService;
+    private final DisplayNameCache displayNameCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zone;
+    private final int chunkSize;
+    private final int maxChunksPerPoll;
+    private final int maxActivePerUser;
+    private final int maxConsecutiveFailures;
+    private final Duration runStaleAfter;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor dispatcher;
+
+    public ScheduledTransferServiceImpl(ScheduledTransferRepository scheduledTransferRepository,
+                                        ScheduledTransferRunRepository runRepository,
+                                        UserRepository userRepository,
+                                        WalletRepository walletRepository,
+                                        WalletService walletService,
+                                        TwoFactorAuthService twoFactorAuthService,
+                                        DisplayNameCache displayNameCache,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${app.scheduled-transfers.zone:America/Lima}") String zone,
+                                        @Value("${app.scheduled-transfers.chunk-size:200}") int chunkSize,
+                                        @Value("${app.scheduled-transfers.max-chunks-per-poll:50}") int maxChunksPerPoll,
+                                        @Value("${app.scheduled-transfers.workers:8}") int workerCount,
+                                        @Value("${app.scheduled-transfers.queue-capacity:400}") int queueCapacity,
+                                        @Value("${app.scheduled-transfers.max-active-per-user:50}") int maxActivePerUser,
+                                        @Value("${app.scheduled-transfers.max-consecutive-failures:3}") int maxConsecutiveFailures,
+                                        @Value("${app.scheduled-transfers.run-stale-after-ms:600000}") long runStaleAfterMs) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.runRepository = runRepository;
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.walletService = walletService;
+        this.twoFactorAuthService = twoFactorAuthService;
+        this.displayNameCache = displayNameCache;
+        this.transactionTemplate = transactionTemplate;
+        this.zone = ZoneId.of(zone);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxChunksPerPoll = Math.max(maxChunksPerPoll, 1);
+        this.maxActivePerUser = Math.max(maxActivePerUser, 1);
+        this.maxConsecutiveFailures = Math.max(maxConsecutiveFailures, 1);
+        this.runStaleAfter = Duration.ofMillis(runStaleAfterMs);
+
+        int threads = Math.max(workerCount, 1);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                task -> {
+                    Thread thread = new Thread(task, "scheduled-transfer-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> {
+                    // Cola llena: el despachador espera un hueco en lugar de ejecutar la tarea él mismo
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Pool de transferencias programadas detenido");
+                    }
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Despacho interrumpido", e);
+                    }
+                });
+        // Un despacho a la vez y como mucho uno pendiente; los demás disparos se descartan
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                task -> {
+                    Thread thread = new Thread(task, "scheduled-transfer-dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        workers.shutdown();
+    }
+
+    @Override
+    public ScheduledTransferResponse create(Long userId, ScheduledTransferRequest request) {
+        User fromUser = userRepository.findById(userId)
+                .orElseThrow(() -> new ApiException(404, "Usuario origen no encontrado"));
+        if (!fromUser.isEnabled()) {
+            throw new ApiException(403,
+                    "Su cuenta se encuentra bloqueada. No puede realizar transacciones. Por favor, comuníquese con soporte.");
+        }
+
+        User toUser = userRepository.findByEmailOrPhone(request.getToUsername())
+                .orElseThrow(() -> new ApiException(404,
+                        "Usuario destino no encontrado. Verifica el email o teléfono: " + request.getToUsername()));
+        if (toUser.getId().equals(userId)) {
+            throw new ApiException(400, "No puedes transferir dinero a ti mismo.");
+        }
+        if (!toUser.isEnabled()) {
+            throw new ApiException(400, "El usuario destino está deshabilitado.");
+        }
+
+        String currency = request.getCurrency().toUpperCase();
+        walletRepository.findIdByUserIdAndCurrency(userId, currency)
+                .orElseThrow(() -> new ApiException(404, "Wallet " + currency + " origen no encontrada"));
+
+        if (scheduledTransferRepository.countByUserIdAndStatus(userId, ScheduledTransferStatus.ACTIVE)
+                >= maxActivePerUser) {
+            throw new ApiException(400, "Alcanzó el máximo de " + maxActivePerUser + " transferencias programadas activas");
+        }
+
+        // Las ejecuciones no piden 2FA: se verifica una vez al programar
+        if (twoFactorAuthService.isEnabled(userId)) {
+            if (request.getToken2fa() == null || request.getToken2fa().trim().isEmpty()) {
+                throw new ApiException(400, "Código 2FA requerido");
+            }
+            if (!twoFactorAuthService.verifyCode(userId, request.getToken2fa())) {
+                throw new ApiException(400, "Código 2FA inválido");
+            }
+        }
+
+        ScheduledTransfer schedule = scheduledTransferRepository.save(ScheduledTransfer.builder()
+                .userId(userId)
+                .toUserId(toUser.getId())
+                .amount(request.getAmount())
+                .currency(currency)
+                .description(request.getDescription())
+                .frequency(request.getFrequency())
+                .anchorAt(request.getFirstRunAt())
+                .nextRunAt(request.getFirstRunAt())
+                .maxRuns(request.getFrequency() == ScheduleFrequency.ONCE ? Integer.valueOf(1) : request.getMaxRuns())
+                .build());
+
+        log.info("Transferencia programada {} creada: {} -> {}, {} {} ({})", schedule.getId(), userId,
+                toUser.getId(), schedule.getAmount(), currency, schedule.getFrequency());
+        return toResponse(schedule, DisplayNameCache.format(toUser));
+    }
+
+    @Override
+    public List<ScheduledTransferResponse> list(Long userId) {
+        List<ScheduledTransfer> schedules = scheduledTransferRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        Map<Long, String> names = displayNameCache.displayNames(
+                schedules.stream().map(ScheduledTransfer::getToUserId).distinct().toList());
+        return schedules.stream()
+                .map(s -> toResponse(s, names.get(s.getToUserId())))
+                .toList();
+    }
+
+    @Override
+    public ScheduledTransferResponse cancel(Long userId, Long scheduleId) {
+        ScheduledTransfer schedule = transactionTemplate.execute(status -> {
+            // Con el lock no se pisa el avance de next_run_at que hace el despachador
+            ScheduledTransfer locked = scheduledTransferRepository.findLockedById(scheduleId)
+                    .filter(s -> s.getUserId().equals(userId))
+                    .orElseThrow(() -> new ApiException(404, "Transferencia programada no encontrada"));
+            if (locked.getStatus() == ScheduledTransferStatus.COMPLETED
+                    || locked.getStatus() == ScheduledTransferStatus.CANCELLED) {
+                throw new ApiException(400, "La transferencia programada ya no está activa");
+            }
+            locked.setStatus(ScheduledTransferStatus.CANCELLED);
+            locked.setNextRunAt(null);
+            return scheduledTransferRepository.save(locked);
+        });
+
+        log.info("Transferencia programada {} cancelada por el usuario {}", scheduleId, userId);
+        return toResponse(schedule, displayNameCache.displayNames(List.of(schedule.getToUserId()))
+                .get(schedule.getToUserId()));
+    }
+
+    @Override
+    public List<ScheduledTransferRunResponse> getRuns(Long userId, Long scheduleId, int limit) {
+        scheduledTransferRepository.findByIdAndUserId(scheduleId, userId)
+                .orElseThrow(() -> new ApiException(404, "Transferencia programada no encontrada"));
+        return runRepository.findByScheduleIdOrderByScheduledForDesc(scheduleId, PageRequest.of(0, limit)).stream()
+                .map(run -> ScheduledTransferRunResponse.builder()
+                        .id(run.getId())
+                        .scheduledFor(run.getScheduledFor())
+                        .status(run.getStatus().name())
+                        .transactionId(run.getTransactionId())
+                        .errorMessage(run.getErrorMessage())
+                        .startedAt(run.getStartedAt())
+                        .finishedAt(run.getFinishedAt())
+                        .build())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.scheduled-transfers.poll-interval-ms:15000}")
+    public void scheduleDispatch() {
+        dispatcher.execute(() -> {
+            try {
+                dispatchDue();
+            } catch (RuntimeException e) {
+                log.error("Error despachando transferencias programadas", e);
+            }
+        });
+    }
+
+    /**
+     * Reclama y despacha las ocurrencias vencidas, en bloques de {@code chunk-size}.
+     * @return Número de ejecuciones despachadas
+     */
+    @Override
+    public int dispatchDue() {
+        markInterruptedRuns();
+
+        Instant now = Instant.now();
+        int dispatched = 0;
+        for (int chunk = 0; chunk < maxChunksPerPoll; chunk++) {
+            List<Claim> claims = transactionTemplate.execute(status -> claimDue(now));
+            if (claims == null || claims.isEmpty()) {
+                break;
+            }
+            for (Claim claim : claims) {
+                workers.execute(() -> execute(claim));
+            }
+            dispatched += claims.size();
+            if (claims.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (dispatched > 0) {
+            log.info("Transferencias programadas despachadas: {}", dispatched);
+        }
+        return dispatched;
+    }
+
+    private List<Claim> claimDue(Instant now) {
+        List<ScheduledTransfer> due = scheduledTransferRepository.findDueForUpdate(ScheduledTransferStatus.ACTIVE, now,
+                PageRequest.of(0, chunkSize));
+        List<ScheduledTransferRun> runs = new ArrayList<>(due.size());
+        for (ScheduledTransfer schedule : due) {
+            runs.add(ScheduledTransferRun.builder()
+                    .scheduleId(schedule.getId())
+                    .scheduledFor(schedule.getNextRunAt())
+                    .status(ScheduledRunStatus.QUEUED)
+                    .startedAt(now)
+                    .build());
+            advance(schedule, now);
+        }
+        runRepository.saveAll(runs);
+
+        List<Claim> claims = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            ScheduledTransfer schedule = due.get(i);
+            claims.add(new Claim(runs.get(i).getId(), schedule.getId(), schedule.getUserId(), schedule.getToUserId(),
+                    schedule.getAmount(), schedule.getCurrency(), schedule.getDescription()));
+        }
+        return claims;
+    }
+
+    private void advance(ScheduledTransfer schedule, Instant now) {
+        schedule.setRunCount(schedule.getRunCount() + 1);
+        if (schedule.getFrequency() == ScheduleFrequency.ONCE
+                || (schedule.getMaxRuns() != null && schedule.getRunCount() >= schedule.getMaxRuns())) {
+            schedule.setStatus(ScheduledTransferStatus.COMPLETED);
+            schedule.setNextRunAt(null);
+            return;
+        }
+
+        int occurrence = schedule.getOccurrence();
+        Instant next;
+        do {
+            occurrence++;
+            next = occurrenceAt(schedule.getAnchorAt(), schedule.getFrequency(), occurrence);
+        } while (!next.isAfter(now));
+        schedule.setOccurrence(occurrence);
+        schedule.setNextRunAt(next);
+    }
+
+    private Instant occurrenceAt(Instant anchor, ScheduleFrequency frequency, int occurrence) {
+        ZonedDateTime start = anchor.atZone(zone);
+        return switch (frequency) {
+            case DAILY -> start.plusDays(occurrence).toInstant();
+            case WEEKLY -> start.plusWeeks(occurrence).toInstant();
+            case MONTHLY -> start.plusMonths(occurrence).toInstant();
+            case ONCE -> throw new IllegalArgumentException("Una transferencia única no tiene siguiente ocurrencia");
+        };
+    }
+
+    private void execute(Claim claim) {
+        Integer started = transactionTemplate.execute(tx -> runRepository.start(claim.runId(),
+                ScheduledRunStatus.QUEUED, ScheduledRunStatus.RUNNING, Instant.now()));
+        if (started == null || started == 0) {
+            log.warn("Ejecución {} de la transferencia programada {} ya no estaba en cola; no se ejecuta",
+                    claim.runId(), claim.scheduleId());
+            return;
+        }
+
+        ScheduledRunStatus status;
+        Long transactionId = null;
+        String error = null;
+        try {
+            boolean recipientEnabled = userRepository.findById(claim.toUserId()).map(User::isEnabled).orElse(false);
+            if (!recipientEnabled) {
+                throw new ApiException(400, "El usuario destino está deshabilitado.");
+            }
+            Transaction transaction = walletService.scheduledTransfer(claim.userId(), claim.toUserId(), claim.amount(),
+                    claim.description(), claim.currency());
+            status = ScheduledRunStatus.SUCCEEDED;
+            transactionId = transaction.getId();
+        } catch (ApiException e) {
+            status = ScheduledRunStatus.FAILED;
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            log.error("Error en la ejecución {} de la transferencia programada {}", claim.runId(), claim.scheduleId(), e);
+            status = ScheduledRunStatus.FAILED;
+            error = "Error interno al ejecutar la transferencia";
+        }
+
+        ScheduledRunStatus outcome = status;
+        Long outcomeTransactionId = transactionId;
+        String outcomeError = error;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> finish(claim, outcome, outcomeTransactionId, outcomeError));
+        } catch (RuntimeException e) {
+            log.error("No se pudo registrar el resultado de la ejecución {} ({})", claim.runId(), outcome, e);
+        }
+    }
+
+    private void finish(Claim claim, ScheduledRunStatus status, Long transactionId, String error) {
+        runRepository.findById(claim.runId()).ifPresent(run -> {
+            run.setStatus(status);
+            run.setTransactionId(transactionId);
+            run.setErrorMessage(error != null && error.length() > ERROR_MESSAGE_LENGTH
+                    ? error.substring(0, ERROR_MESSAGE_LENGTH) : error);
+            run.setFinishedAt(Instant.now());
+        });
+
+        ScheduledTransfer schedule = scheduledTransferRepository.findLockedById(claim.scheduleId()).orElse(null);
+        if (schedule == null) {
+            return;
+        }
+        if (status == ScheduledRunStatus.SUCCEEDED) {
+            schedule.setConsecutiveFailures(0);
+            return;
+        }
+        schedule.setConsecutiveFailures(schedule.getConsecutiveFailures() + 1);
+        if (schedule.getStatus() == ScheduledTransferStatus.ACTIVE
+                && schedule.getConsecutiveFailures() >= maxConsecutiveFailures) {
+            schedule.setStatus(ScheduledTransferStatus.SUSPENDED);
+            schedule.setNextRunAt(null);
+            log.warn("Transferencia programada {} suspendida tras {} fallos seguidos: {}", schedule.getId(),
+                    schedule.getConsecutiveFailures(), error);
+        }
+    }
+
+    private void markInterruptedRuns() {
+        Instant now = Instant.now();
+        Integer marked = transactionTemplate.execute(status -> runRepository.markStale(ScheduledRunStatus.RUNNING,
+                ScheduledRunStatus.INTERRUPTED, now.minus(runStaleAfter), now,
+                "Ejecución interrumpida. Revise sus movimientos antes de reprogramar.")
+                + runRepository.markStale(ScheduledRunStatus.QUEUED, ScheduledRunStatus.INTERRUPTED,
+                now.minus(runStaleAfter), now, "Ejecución no iniciada: quedó en cola demasiado tiempo."));
+        if (marked != null && marked > 0) {
+            log.warn("Ejecuciones programadas marcadas como interrumpidas: {}", marked);
+        }
+    }
+
+    private ScheduledTransferResponse toResponse(ScheduledTransfer schedule, String toName) {
+        return ScheduledTransferResponse.builder()
+                .id(schedule.getId())
+                .toUserId(schedule.getToUserId())
+                .toName(toName)
+                .amount(schedule.getAmount())
+                .currency(schedule.getCurrency())
+                .description(schedule.getDescription())
+                .frequency(schedule.getFrequency().name())
+                .nextRunAt(schedule.getNextRunAt())
+                .maxRuns(schedule.getMaxRuns())
+                .runCount(schedule.getRunCount())
+                .consecutiveFailures(schedule.getConsecutiveFailures())
+                .status(schedule.getStatus().name())
+                .createdAt(schedule.getCreatedAt())
+                .build();
+    }
+
+    private record Claim(Long runId, Long scheduleId, Long userId, Long toUserId, BigDecimal amount,
+                         String currency, String description) {
+    }
+}
@@ -0,0 +1,247 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.mapper.WalletMapper;
+import com.enone.application.service.StatementService;
+import com.enone.domain.model.StatementTypeTotal;
+import com.enone.domain.model.TransactionType;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.model.WalletStatement;
+import com.enone.domain.repository.TransactionRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.domain.repository.WalletStatementRepository;
+import com.enone.exception.ApiException;
+import com.enone.web.dto.wallet.StatementResponse;
+import com.enone.web.dto.wallet.StatementTotalResponse;
+import com.enone.web.dto.wallet.WalletStatementResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Estados de cuenta mensuales por wallet. Un job diario cierra los meses terminados
+ * de forma incremental (cada mes parte del saldo final del anterior); la consulta
+ * responde con el resumen guardado y solo los movimientos de ese mes.
+ *
+ * Los totales cuentan los movimientos aplicados al saldo: COMPLETED y retiros PENDING,
+ * que ya descuentan al registrarse. Así el saldo inicial derivado del saldo actual
+ * cuadra con lo listado. Si una liquidación cambia lo aplicado en un mes ya cerrado,
+ * sus estados desde ese mes se borran y el job los vuelve a cerrar.
+ *
+ * El job cierra cada wallet en su propia transacción y con la fila de la wallet
+ * bloqueada, igual que las liquidaciones: un borrado concurrente no puede quedar
+ * detrás de un estado calculado con los movimientos anteriores.
+ */
+@Slf4j
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private final WalletStatementRepository statementRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletMapper walletMapper;
+    private final TransactionTemplate closeTemplate;
+    private final ZoneId zone;
+    private final int chunkSize;
+
+    public StatementServiceImpl(WalletStatementRepository statementRepository,
+                                WalletRepository walletRepository,
+                                TransactionRepository transactionRepository,
+                                WalletMapper walletMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.statements.zone:America/Lima}") String zone,
+                                @Value("${app.statements.chunk-size:500}") int chunkSize) {
+        this.statementRepository = statementRepository;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletMapper = walletMapper;
+        this.closeTemplate = new TransactionTemplate(transactionManager);
+        this.closeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.zone = ZoneId.of(zone);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    @Override
+    public StatementResponse getStatement(Long userId, YearMonth period) {
+        if (period.isAfter(YearMonth.now(zone))) {
+            throw new ApiException(400, "El periodo solicitado aún no ha comenzado");
+        }
+
+        List<Wallet> wallets = walletRepository.findByUserIdOrderByCreatedAt(userId);
+        if (wallets.isEmpty()) {
+            throw new ApiException(404, "No se encontraron wallets");
+        }
+
+        List<WalletStatementResponse> result = new ArrayList<>(wallets.size());
+        for (Wallet wallet : wallets) {
+            WalletStatement statement = statementRepository.findByWalletIdAndPeriod(wallet.getId(), period.toString())
+                    .orElseGet(() -> computeOpenPeriod(wallet, period));
+
+            result.add(WalletStatementResponse.builder()
+                    .walletId(wallet.getId())
+                    .walletNumber(wallet.getWalletNumber())
+                    .currency(wallet.getCurrency())
+                    .openingBalance(statement.getOpeningBalance())
+                    .closingBalance(statement.getClosingBalance())
+                    .closed(statement.getId() != null)
+                    .totals(statement.getTotals().stream()
+                            .map(t -> StatementTotalResponse.builder()
+                                    .type(t.getType().name())
+                                    .count(t.getCount())
+                                    .total(t.getTotal())
+                                    .build())
+                            .toList())
+                    .transactions(walletMapper.toTransactionResponseList(transactionRepository.findByWalletIdBetween(
+                            wallet.getId(), start(period), start(period.plusMonths(1)))))
+                    .build());
+        }
+
+        return StatementResponse.builder()
+                .period(period.toString())
+                .wallets(result)
+                .build();
+    }
+
+    /**
+     * Cierra, para cada wallet, todos los meses terminados que aún no tienen estado de cuenta.
+     * @return Número de estados de cuenta creados
+     */
+    @Override
+    @Scheduled(cron = "${app.statements.close-cron:0 15 0 * * *}", zone = "${app.statements.zone:America/Lima}")
+    public int closePendingStatements() {
+        YearMonth lastClosable = YearMonth.now(zone).minusMonths(1);
+        int created = 0;
+        long afterId = 0L;
+
+        while (true) {
+            List<Long> walletIds = walletRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (walletIds.isEmpty()) {
+                break;
+            }
+            for (Long walletId : walletIds) {
+                try {
+                    Integer closed = closeTemplate.execute(status -> closeWallet(walletId, lastClosable));
+                    created += closed != null ? closed : 0;
+                } catch (RuntimeException e) {
+                    // La wallet queda para la próxima ejecución, que retoma desde su último estado
+                    log.warn("No se pudieron cerrar los estados de cuenta de la wallet {}: {}", walletId,
+                            e.getMessage());
+                }
+            }
+            afterId = walletIds.get(walletIds.size() - 1);
+        }
+
+        if (created > 0) {
+            log.info("Estados de cuenta cerrados: {} (hasta {})", created, lastClosable);
+        }
+        return created;
+    }
+
+    private int closeWallet(Long walletId, YearMonth lastClosable) {
+        // Con la fila bloqueada, una liquidación de la wallet espera a este cierre (y su borrado lo
+        // alcanza) o ya terminó y sus cambios se leen aquí
+        List<Wallet> locked = walletRepository.findAllByIdInForUpdate(List.of(walletId));
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        Wallet wallet = locked.get(0);
+
+        Optional<WalletStatement> last = statementRepository.findTopByWalletIdOrderByPeriodDesc(walletId);
+        YearMonth next = last.map(s -> YearMonth.parse(s.getPeriod()).plusMonths(1))
+                .orElseGet(() -> YearMonth.from(wallet.getCreatedAt().atZone(zone)));
+        if (next.isAfter(lastClosable)) {
+            return 0;
+        }
+
+        BigDecimal opening = last.map(WalletStatement::getClosingBalance)
+                .orElseGet(() -> openingFromCurrentBalance(walletId, next));
+
+        int created = 0;
+        for (YearMonth period = next; !period.isAfter(lastClosable); period = period.plusMonths(1)) {
+            WalletStatement statement = summarize(wallet, period, opening);
+            statement.setClosedAt(Instant.now());
+            statementRepository.save(statement);
+            opening = statement.getClosingBalance();
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Borra, en la transacción actual, los estados de cuenta de la wallet desde el mes
+     * de {@code createdAt}; mientras el job no los cierre de nuevo se calculan al vuelo.
+     * @param walletId Wallet del movimiento liquidado
+     * @param createdAt Fecha de creación del movimiento
+     */
+    @Override
+    public void reopenFrom(Long walletId, Instant createdAt) {
+        List<WalletStatement> closed = statementRepository.findByWalletIdAndPeriodGreaterThanEqual(walletId,
+                YearMonth.from(createdAt.atZone(zone)).toString());
+        if (!closed.isEmpty()) {
+            statementRepository.deleteAll(closed);
+            log.info("Estados de cuenta de la wallet {} reabiertos: {}", walletId, closed.size());
+        }
+    }
+
+    private WalletStatement computeOpenPeriod(Wallet wallet, YearMonth period) {
+        // Mes sin cerrar (el actual, o uno que el job aún no procesó)
+        BigDecimal opening = statementRepository
+                .findByWalletIdAndPeriod(wallet.getId(), period.minusMonths(1).toString())
+                .map(WalletStatement::getClosingBalance)
+                .orElseGet(() -> openingFromCurrentBalance(wallet.getId(), period));
+        return summarize(wallet, period, opening);
+    }
+
+    private WalletStatement summarize(Wallet wallet, YearMonth period, BigDecimal opening) {
+        List<StatementTypeTotal> totals = new ArrayList<>();
+        BigDecimal net = BigDecimal.ZERO;
+        long count = 0;
+
+        for (Object[] row : transactionRepository.sumAppliedByTypeForWalletBetween(wallet.getId(), start(period),
+                start(period.plusMonths(1)))) {
+            StatementTypeTotal total = StatementTypeTotal.builder()
+                    .type((TransactionType) row[0])
+                    .count((Long) row[1])
+                    .total((BigDecimal) row[2])
+                    .build();
+            totals.add(total);
+            net = net.add(total.getTotal());
+            count += total.getCount();
+        }
+        totals.sort(Comparator.comparing(StatementTypeTotal::getType));
+
+        return WalletStatement.builder()
+                .walletId(wallet.getId())
+                .period(period.toString())
+                .currency(wallet.getCurrency())
+                .openingBalance(opening)
+                .closingBalance(opening.add(net))
+                .transactionCount(count)
+                .totals(totals)
+                .build();
+    }
+
+    private BigDecimal openingFromCurrentBalance(Long walletId, YearMonth period) {
+        // Sin estado anterior: saldo actual menos todo lo movido desde el inicio del periodo
+        BigDecimal current = walletRepository.findLogicalBalanceById(walletId);
+        BigDecimal since = transactionRepository.sumAppliedForWalletSince(walletId, start(period));
+        return current.subtract(since);
+    }
+
+    private Instant start(YearMonth period) {
+        return period.atDay(1).atStartOfDay(zone).toInstant();
+    }
+}
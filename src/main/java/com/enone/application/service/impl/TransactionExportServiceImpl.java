@@ -0,0 +1,185 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.service.TransactionExportService;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.util.UuidUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exportación del historial completo por streaming: las filas se leen con un cursor
+ * JDBC de tamaño de fetch fijo (useCursorFetch en la URL de MySQL) y se escriben
+ * directamente en la respuesta, así la memoria no depende del tamaño del historial.
+ */
+@Slf4j
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,transactionUid,createdAt,type,amount,currency,balanceAfter,status,reference,description\n";
+
+    private final WalletRepository walletRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ZoneId zone;
+
+    public TransactionExportServiceImpl(WalletRepository walletRepository,
+                                        ObjectMapper objectMapper,
+                                        DataSource dataSource,
+                                        @Value("${app.export.fetch-size:500}") int fetchSize,
+                                        @Value("${app.statements.zone:America/Lima}") String zone) {
+        this.walletRepository = walletRepository;
+        this.objectMapper = objectMapper;
+        this.zone = ZoneId.of(zone);
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public long export(Long userId, Format format, LocalDate fromDate, LocalDate toDate, OutputStream out)
+            throws IOException {
+        Instant from = fromDate != null ? fromDate.atStartOfDay(zone).toInstant() : Instant.EPOCH;
+        Instant to = toDate != null ? toDate.plusDays(1).atStartOfDay(zone).toInstant() : Instant.now();
+        List<Long> walletIds = walletRepository.findByUserId(userId).stream().map(Wallet::getId).toList();
+
+        long rows;
+        if (format == Format.CSV) {
+            rows = exportCsv(walletIds, from, to, out);
+        } else {
+            rows = exportNdjson(walletIds, from, to, out);
+        }
+        log.info("Exportación {} para usuario {}: {} movimientos", format, userId, rows);
+        return rows;
+    }
+
+    private long exportCsv(List<Long> walletIds, Instant from, Instant to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(CSV_HEADER);
+        long rows = stream(walletIds, from, to, rs -> {
+            writer.write(String.valueOf(rs.getLong("id")));
+            writer.write(',');
+            writer.write(csv(UuidUtil.fromBytes(rs.getBytes("transaction_uid"))));
+            writer.write(',');
+            writer.write(rs.getTimestamp("created_at").toInstant().toString());
+            writer.write(',');
+            writer.write(rs.getString("type"));
+            writer.write(',');
+            writer.write(plain(rs.getBigDecimal("amount")));
+            writer.write(',');
+            writer.write(rs.getString("currency"));
+            writer.write(',');
+            writer.write(plain(rs.getBigDecimal("balance_after")));
+            writer.write(',');
+            writer.write(rs.getString("status"));
+            writer.write(',');
+            writer.write(csv(rs.getString("reference")));
+            writer.write(',');
+            writer.write(csv(rs.getString("description")));
+            writer.write('\n');
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long exportNdjson(List<Long> walletIds, Instant from, Instant to, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        long rows = stream(walletIds, from, to, rs -> {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("transactionUid", UuidUtil.fromBytes(rs.getBytes("transaction_uid")));
+            json.writeStringField("createdAt", rs.getTimestamp("created_at").toInstant().toString());
+            json.writeStringField("type", rs.getString("type"));
+            json.writeNumberField("amount", rs.getBigDecimal("amount"));
+            json.writeStringField("currency", rs.getString("currency"));
+            json.writeNumberField("balanceAfter", rs.getBigDecimal("balance_after"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeStringField("reference", rs.getString("reference"));
+            json.writeStringField("description", rs.getString("description"));
+            json.writeEndObject();
+        });
+        // El separador raíz solo se escribe entre objetos: se cierra la última línea
+        if (rows > 0) {
+            json.writeRaw('\n');
+        }
+        json.flush();
+        return rows;
+    }
+
+    private long stream(List<Long> walletIds, Instant from, Instant to, RowWriter rowWriter) {
+        if (walletIds.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(walletIds.size(), "?"));
+        String sql = "SELECT id, transaction_uid, created_at, type, amount, currency, balance_after, status, "
+                + "reference, description FROM transactions "
+                + "WHERE wallet_id IN (" + placeholders + ") AND created_at >= ? AND created_at < ? "
+                + "ORDER BY created_at ASC, id ASC";
+
+        List<Object> args = new ArrayList<>(walletIds);
+        args.add(Timestamp.from(from));
+        args.add(Timestamp.from(to));
+
+        long[] rows = { 0 };
+        streamingJdbcTemplate.query(sql, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                // Cliente desconectado: se corta el cursor
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        }, args.toArray());
+        return rows[0];
+    }
+
+    private static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        // Evita que una hoja de cálculo interprete descripciones como fórmulas
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
@@ -1,5 +1,18 @@
 package com.enone.application.service.impl;
 
+import com.enone.application.cache.DisplayNameCache;
+import com.enone.application.cache.WalletReadCache;
+import com.enone.application.exchange.ConversionQuote;
+import com.enone.application.exchange.ConversionQuoteStore;
+import com.enone.application.ledger.BankSettlements;
+import com.enone.application.ledger.BankSettlements.SettlementResult;
+import com.enone.application.ledger.HotWalletBalances;
+import com.enone.application.limits.DailyLimitTracker;
+import com.enone.application.ledger.LedgerJournal;
+import com.enone.application.ledger.TransferEngine;
+import com.enone.application.ledger.WalletLockManager;
+import com.enone.application.notification.WalletEventHub;
+import com.enone.application.mapper.WalletMapper;
 import com.enone.application.service.MockBancoService;
 import com.enone.application.service.TwoFactorAuthService;
 import com.enone.application.service.WalletService;
@@ -7,23 +20,40 @@ import com.enone.domain.model.*;
 import com.enone.domain.repository.*;
 import com.enone.exception.ApiException;
 
+import com.enone.util.exchange.ExchangeRateHistory;
 import com.enone.util.exchange.ExchangeRateService;
-import com.enone.web.dto.wallet.RealizarAbonoRequest;
-import com.enone.web.dto.wallet.RealizarAbonoResponse;
+import com.enone.util.exchange.ExchangeRateSnapshot;
+import com.enone.web.dto.wallet.BatchTransferItem;
+import com.enone.web.dto.wallet.BatchTransferItemResult;
+import com.enone.web.dto.wallet.BatchTransferRequest;
+import com.enone.web.dto.wallet.BatchTransferResponse;
+import com.enone.web.dto.wallet.ExchangeRateHistoryResponse;
+import com.enone.web.dto.wallet.ExchangeRatePoint;
+import com.enone.web.dto.wallet.TransactionCursor;
 import com.enone.web.dto.wallet.ValidarTarjetaRequest;
 import com.enone.web.dto.wallet.ValidarTarjetaResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -36,10 +66,23 @@ public class WalletServiceImpl implements WalletService {
     private final UserProfileRepository userProfileRepository;
     private final UserTarjetaRepository userTarjetaRepository;
     private final ExchangeRateService exchangeRateService;
+    private final ExchangeRateHistory exchangeRateHistory;
+    private final ConversionQuoteStore conversionQuoteStore;
     private final TwoFactorAuthService twoFactorAuthService;
     private final MockBancoService mockBancoService;
+    private final WalletLockManager walletLockManager;
+    private final HotWalletBalances hotWalletBalances;
+    private final TransferEngine transferEngine;
+    private final DailyLimitTracker dailyLimitTracker;
+    private final LedgerJournal ledgerJournal;
+    private final BankSettlements bankSettlements;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletReadCache walletReadCache;
+    private final WalletEventHub walletEventHub;
+    private final WalletMapper walletMapper;
 
     private static final Random random = new Random();
+    private static final java.util.regex.Pattern HISTORY_RANGE = java.util.regex.Pattern.compile("^(\\d{1,4})([hdwy])$");
 
     private String generateSecurityCode() {
         return String.format("%03d", random.nextInt(1000));
@@ -66,17 +109,37 @@ public class WalletServiceImpl implements WalletService {
 
     @Override
     public List<Transaction> getAllTransactions(Long userId, int limit) {
+        return getTransactionsPage(userId, null, null, limit);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsPage(Long userId, String currency, TransactionCursor after, int limit) {
         List<Wallet> wallets = walletRepository.findByUserId(userId);
         if (wallets.isEmpty()) {
             throw new ApiException(404, "No se encontraron wallets");
         }
-        List<Long> walletIds = wallets.stream().map(Wallet::getId).toList();
-        return transactionRepository.findLatestByWalletIds(walletIds,
-                org.springframework.data.domain.PageRequest.of(0, limit));
+
+        // Una consulta keyset por wallet (cada una recorre su índice en orden) y mezcla en memoria:
+        // con IN (...) MySQL tendría que ordenar todas las filas anteriores al cursor
+        PageRequest page = PageRequest.of(0, limit);
+        List<Transaction> merged = new ArrayList<>();
+        for (Wallet wallet : wallets) {
+            if (currency != null && !currency.equalsIgnoreCase(wallet.getCurrency())) {
+                continue;
+            }
+            merged.addAll(after == null
+                    ? transactionRepository.findFirstPageByWalletId(wallet.getId(), page)
+                    : transactionRepository.findPageByWalletIdBefore(wallet.getId(), after.createdAt(), after.id(),
+                            page));
+        }
+
+        merged.sort(Comparator.comparing(Transaction::getCreatedAt)
+                .thenComparing(Transaction::getId)
+                .reversed());
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
 
     @Override
-    @Transactional
     public Transaction deposit(Long userId, BigDecimal amount, String description) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ApiException(400, "Monto de depósito debe ser positivo");
@@ -100,54 +163,48 @@ public class WalletServiceImpl implements WalletService {
         UserTarjeta tarjeta = tarjetaOpt.get();
         log.info("Tarjeta encontrada: {}", tarjeta.getNumeroTarjetaEnmascarado());
 
-        // Realizar cobro en el banco
-        com.enone.web.dto.wallet.RealizarCobroRequest cobroRequest = com.enone.web.dto.wallet.RealizarCobroRequest
-                .builder()
-                .numeroTarjeta(tarjeta.getNumeroTarjetaCompleto())
-                .monto(amount)
-                .build();
-
-        com.enone.web.dto.wallet.RealizarCobroResponse cobroResponse = mockBancoService.realizarCobro(cobroRequest);
-
-        if (!cobroResponse.getSuccess()) {
-            throw new ApiException(400, "Error al cobrar en la tarjeta: " + cobroResponse.getMensaje());
-        }
-
-        log.info("Cobro exitoso en el banco - Transaction ID: {}", cobroResponse.getTransactionId());
-
-        // Actualizar wallet
-        Wallet wallet = walletRepository.findByUserIdAndCurrency(userId, "PEN")
+        Long walletId = walletRepository.findIdByUserIdAndCurrency(userId, "PEN")
                 .orElseThrow(() -> new ApiException(404, "Wallet PEN no encontrada"));
 
-        BigDecimal newBalance = wallet.getBalance().add(amount);
-        wallet.setBalance(newBalance);
-        wallet.setUpdatedAt(Instant.now());
-        walletRepository.save(wallet);
-
-        // Crear transacción
+        // Fase 1: se registra la intención en PENDING y se hace commit antes de llamar al banco
         Transaction transaction = Transaction.builder()
-                .walletId(wallet.getId())
+                .walletId(walletId)
                 .amount(amount)
-                .currency(wallet.getCurrency())
+                .currency("PEN")
                 .type(TransactionType.DEPOSIT)
                 .description(description != null ? description
                         : "Depósito desde tarjeta " + tarjeta.getNumeroTarjetaEnmascarado())
-                .status(TransactionStatus.COMPLETED)
-                .balanceAfter(newBalance)
+                .status(TransactionStatus.PENDING)
                 .build();
+        BankSettlement settlement = transactionTemplate.execute(status ->
+                bankSettlements.open(transactionRepository.save(transaction), userId, tarjeta));
 
-        transaction = transactionRepository.save(transaction);
-
-        log.info("Depósito completado - ID: {}, UID: {}, Nuevo saldo: {}",
-                transaction.getId(), transaction.getTransactionUid(), newBalance);
+        // Fase 2: cobro en el banco sin conexión tomada; el saldo se abona solo si el cobro se confirma
+        SettlementResult result = bankSettlements.settle(settlement);
+        if (result.status() == TransactionStatus.FAILED) {
+            throw new ApiException(400, "Error al cobrar en la tarjeta: " + result.message());
+        }
 
-        return transaction;
+        log.info("Depósito {} - ID: {}, UID: {}", result.status(), result.transaction().getId(),
+                result.transaction().getTransactionUid());
+        return result.transaction();
     }
 
     @Override
-    @Transactional
     public Transaction transfer(Long fromUserId, Long toUserId, BigDecimal amount, String description, String token2fa,
             String currency) {
+        return transfer(fromUserId, toUserId, amount, description, currency, true, token2fa);
+    }
+
+    @Override
+    public Transaction scheduledTransfer(Long fromUserId, Long toUserId, BigDecimal amount, String description,
+            String currency) {
+        // El 2FA se verificó al crear la programación
+        return transfer(fromUserId, toUserId, amount, description, currency, false, null);
+    }
+
+    private Transaction transfer(Long fromUserId, Long toUserId, BigDecimal amount, String description,
+            String currency, boolean verify2fa, String token2fa) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ApiException(400, "Monto debe ser positivo");
         }
@@ -165,77 +222,57 @@ public class WalletServiceImpl implements WalletService {
                     "Su cuenta se encuentra bloqueada. No puede realizar transacciones. Por favor, comuníquese con soporte.");
         }
 
-        // Verificar 2FA si está habilitado
-        boolean has2FA = twoFactorAuthService.isEnabled(fromUserId);
-        if (has2FA) {
-            if (token2fa == null || token2fa.trim().isEmpty()) {
-                throw new ApiException(400, "Código 2FA requerido");
-            }
-            if (!twoFactorAuthService.verifyCode(fromUserId, token2fa)) {
-                throw new ApiException(400, "Código 2FA inválido");
-            }
+        if (verify2fa) {
+            verifyTwoFactor(fromUserId, token2fa);
         }
 
         String currencyLabel = currency.toUpperCase();
 
-        Wallet fromWallet = walletRepository.findByUserIdAndCurrency(fromUserId, currencyLabel)
+        Long fromWalletId = walletRepository.findIdByUserIdAndCurrency(fromUserId, currencyLabel)
                 .orElseThrow(() -> new ApiException(404, "Wallet " + currencyLabel + " origen no encontrada"));
-        Wallet toWallet = walletRepository.findByUserIdAndCurrency(toUserId, currencyLabel)
+        Long toWalletId = walletRepository.findIdByUserIdAndCurrency(toUserId, currencyLabel)
                 .orElseThrow(() -> new ApiException(404, "Wallet " + currencyLabel + " destino no encontrada"));
 
-        UserProfile fromProfile = userProfileRepository.findByUserId(fromUserId)
-                .orElseThrow(() -> new ApiException(404, "Perfil del usuario origen no encontrado"));
+        // Hacia una wallet caliente solo se bloquea el origen; el abono va a un slot
+        boolean hotRecipient = hotWalletBalances.isHot(toWalletId);
+        List<Long> lockIds = hotRecipient ? List.of(fromWalletId) : List.of(fromWalletId, toWalletId);
 
-        // Verificar y resetear volumen diario
-        checkAndResetDailyVolume(fromProfile);
+        // Con el motor activo la operación se encola en la partición de la wallet origen
+        Transaction transactionOut = transferEngine.submit(fromWalletId, lockIds,
+                wallets -> applyTransfer(wallets.get(fromWalletId),
+                        hotRecipient ? loadHotWallet(toWalletId) : wallets.get(toWalletId),
+                        fromUserId, toUserId, amount, description, currencyLabel));
 
-        // Verificar límites diarios
-        BigDecimal userLimit = fromProfile.getDailyTransactionLimit();
-        if (userLimit == null) {
-            userLimit = AuthServiceImpl.DEFAULT_USER_LIMIT;
-        }
-
-        BigDecimal dailyVolumePen = fromProfile.getDailyVolumePen() != null
-                ? fromProfile.getDailyVolumePen()
-                : BigDecimal.ZERO;
-        BigDecimal dailyVolumeUsd = fromProfile.getDailyVolumeUsd() != null
-                ? fromProfile.getDailyVolumeUsd()
-                : BigDecimal.ZERO;
-
-        BigDecimal USD_TO_PEN_RATE = new BigDecimal("3.75");
-        BigDecimal totalDailyVolumeInPen = dailyVolumePen.add(
-                dailyVolumeUsd.multiply(USD_TO_PEN_RATE));
-
-        BigDecimal amountInPen = "USD".equals(currencyLabel)
-                ? amount.multiply(USD_TO_PEN_RATE)
-                : amount;
-
-        BigDecimal newTotalVolume = totalDailyVolumeInPen.add(amountInPen);
+        return transactionOut;
+    }
 
-        if (newTotalVolume.compareTo(userLimit) > 0) {
-            BigDecimal remaining = userLimit.subtract(totalDailyVolumeInPen);
-            throw new ApiException(400,
-                    String.format("Límite diario excedido. Límite: S/ %s, Gastado hoy: S/ %s, Disponible: S/ %s",
-                            userLimit.toPlainString(),
-                            totalDailyVolumeInPen.toPlainString(),
-                            remaining.toPlainString()));
-        }
+    private Transaction applyTransfer(Wallet fromWallet, Wallet toWallet, Long fromUserId, Long toUserId,
+            BigDecimal amount, String description, String currencyLabel) {
+        BigDecimal dailyLimit = dailyLimitOf(fromUserId);
 
         if (fromWallet.getBalance().compareTo(amount) < 0) {
             throw new ApiException(400, "Saldo insuficiente");
         }
 
+        // Última validación: a partir de aquí solo un fallo de BD puede abortar (y libera la reserva)
+        dailyLimitTracker.reserve(fromUserId, dailyLimit, amount, currencyLabel);
+
         // Realizar transferencia
         BigDecimal newFromBalance = fromWallet.getBalance().subtract(amount);
-        BigDecimal newToBalance = toWallet.getBalance().add(amount);
 
         fromWallet.setBalance(newFromBalance);
         fromWallet.setUpdatedAt(Instant.now());
-        toWallet.setBalance(newToBalance);
-        toWallet.setUpdatedAt(Instant.now());
-
         walletRepository.save(fromWallet);
-        walletRepository.save(toWallet);
+
+        BigDecimal newToBalance;
+        if (toWallet.isHot()) {
+            newToBalance = hotWalletBalances.credit(toWallet, amount);
+        } else {
+            newToBalance = toWallet.getBalance().add(amount);
+            toWallet.setBalance(newToBalance);
+            toWallet.setUpdatedAt(Instant.now());
+            walletRepository.save(toWallet);
+        }
 
         String secCode = generateSecurityCode();
 
@@ -266,34 +303,252 @@ public class WalletServiceImpl implements WalletService {
                 .build();
         transactionRepository.save(transactionIn);
 
-        // Actualizar volumen diario
-        if ("PEN".equals(currencyLabel)) {
-            fromProfile.setDailyVolumePen(dailyVolumePen.add(amount));
-        } else if ("USD".equals(currencyLabel)) {
-            fromProfile.setDailyVolumeUsd(dailyVolumeUsd.add(amount));
+        ledgerJournal.post(transferEntry(transactionOut, fromWallet, toWallet, amount));
+
+        walletReadCache.writeThrough(fromWallet, List.of(transactionOut));
+        if (toWallet.isHot()) {
+            // El saldo caliente cambia en un slot sin bloquear la wallet: se recarga en la próxima lectura
+            walletReadCache.invalidateAfterCommit(toWallet.getUserId());
+        } else {
+            walletReadCache.writeThrough(toWallet, List.of(transactionIn));
         }
-        userProfileRepository.save(fromProfile);
+        walletEventHub.balanceChanged(fromWallet, newFromBalance, transactionOut);
+        walletEventHub.transferReceived(toWallet, newToBalance, transactionIn);
 
         log.info("Transferencia completada - ID: {}, UID: {}, Code: {}",
                 transactionOut.getId(), transactionOut.getTransactionUid(), secCode);
 
-        // TODO: Implementar notificación WebSocket
-        // NotificationSocketServer.sendNotification(toUserId, notificationMessage);
-
         return transactionOut;
     }
 
-    private void checkAndResetDailyVolume(UserProfile profile) {
-        Instant now = Instant.now();
-        Instant lastReset = profile.getLastVolumeResetAt();
+    private Wallet loadHotWallet(Long walletId) {
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new ApiException(404, "Wallet destino no encontrada"));
+        if (!wallet.isHot()) {
+            // Se desactivó el modo caliente tras la comprobación: la wallet no está bloqueada
+            throw new ApiException(409, "La operación no pudo completarse por alta concurrencia. Intente nuevamente.");
+        }
+        return wallet;
+    }
+
+    private static String recipientKey(String identifier) {
+        return identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public BatchTransferResponse transferBatch(Long fromUserId, BatchTransferRequest request) {
+        List<BatchTransferItem> items = request.getItems();
+        String currencyLabel = request.getCurrency().toUpperCase();
+
+        log.info("Iniciando lote de {} transferencias de {} en {}", items.size(), fromUserId, currencyLabel);
+
+        User fromUser = userRepository.findById(fromUserId)
+                .orElseThrow(() -> new ApiException(404, "Usuario origen no encontrado"));
+
+        if (!fromUser.isEnabled()) {
+            throw new ApiException(403,
+                    "Su cuenta se encuentra bloqueada. No puede realizar transacciones. Por favor, comuníquese con soporte.");
+        }
+
+        // 2FA se valida una sola vez para todo el lote
+        verifyTwoFactor(fromUserId, request.getToken2fa());
+
+        Long fromWalletId = walletRepository.findIdByUserIdAndCurrency(fromUserId, currencyLabel)
+                .orElseThrow(() -> new ApiException(404, "Wallet " + currencyLabel + " origen no encontrada"));
 
-        if (lastReset == null || now.isAfter(lastReset.plus(24, ChronoUnit.HOURS))) {
-            profile.setDailyVolumePen(BigDecimal.ZERO);
-            profile.setDailyVolumeUsd(BigDecimal.ZERO);
-            profile.setLastVolumeResetAt(now);
+        // Resolver todos los destinatarios (email o teléfono) en una sola consulta. La consulta
+        // compara sin distinguir mayúsculas (collation de MySQL), así que las claves se normalizan igual
+        Set<String> identifiers = items.stream()
+                .map(item -> recipientKey(item.getToUsername()))
+                .collect(Collectors.toSet());
+        Map<String, User> recipients = new HashMap<>();
+        for (User u : userRepository.findAllByEmailOrPhoneIn(identifiers)) {
+            if (u.getProfile().getEmail() != null) {
+                recipients.put(recipientKey(u.getProfile().getEmail()), u);
+            }
+            if (u.getProfile().getPhone() != null) {
+                recipients.put(recipientKey(u.getProfile().getPhone()), u);
+            }
+        }
 
-            log.debug("Volumen diario reseteado para userId: {}", profile.getUserId());
+        Map<Long, Long> walletIdByUser = new HashMap<>();
+        Set<Long> recipientIds = recipients.values().stream().map(User::getId).collect(Collectors.toSet());
+        if (!recipientIds.isEmpty()) {
+            for (Object[] row : walletRepository.findIdsByUserIdInAndCurrency(recipientIds, currencyLabel)) {
+                walletIdByUser.put((Long) row[0], (Long) row[1]);
+            }
         }
+
+        BatchTransferItemResult[] results = new BatchTransferItemResult[items.size()];
+        List<Integer> accepted = new ArrayList<>();
+        // Destinatario resuelto de cada ítem aceptado, en el mismo orden que accepted
+        List<User> acceptedRecipients = new ArrayList<>();
+        Set<Long> lockIds = new LinkedHashSet<>();
+        lockIds.add(fromWalletId);
+        BigDecimal totalAmount = BigDecimal.ZERO;
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransferItem item = items.get(i);
+            User toUser = recipients.get(recipientKey(item.getToUsername()));
+
+            String error = null;
+            if (toUser == null) {
+                error = "Usuario destino no encontrado. Verifica el email o teléfono: " + item.getToUsername();
+            } else if (toUser.getId().equals(fromUserId)) {
+                error = "No puedes transferir dinero a ti mismo.";
+            } else if (!toUser.isEnabled()) {
+                error = "El usuario destino está deshabilitado.";
+            } else if (!walletIdByUser.containsKey(toUser.getId())) {
+                error = "Wallet " + currencyLabel + " destino no encontrada";
+            }
+
+            if (error != null) {
+                results[i] = BatchTransferItemResult.builder()
+                        .index(i)
+                        .toUsername(item.getToUsername())
+                        .success(false)
+                        .error(error)
+                        .build();
+            } else {
+                accepted.add(i);
+                acceptedRecipients.add(toUser);
+                lockIds.add(walletIdByUser.get(toUser.getId()));
+                totalAmount = totalAmount.add(item.getAmount());
+            }
+        }
+
+        BigDecimal balanceAfter = null;
+        if (!accepted.isEmpty()) {
+            BigDecimal batchTotal = totalAmount;
+            balanceAfter = walletLockManager.executeLocked(lockIds, wallets -> {
+                Wallet fromWallet = wallets.get(fromWalletId);
+
+                // El límite diario y el saldo se verifican una sola vez contra el total del lote
+                BigDecimal dailyLimit = dailyLimitOf(fromUserId);
+                if (fromWallet.getBalance().compareTo(batchTotal) < 0) {
+                    throw new ApiException(400, "Saldo insuficiente para el lote. Total requerido: "
+                            + batchTotal.toPlainString() + " " + currencyLabel);
+                }
+                dailyLimitTracker.reserve(fromUserId, dailyLimit, batchTotal, currencyLabel);
+
+                List<Transaction> legs = new ArrayList<>(accepted.size() * 2);
+                List<Transaction> outLegs = new ArrayList<>(accepted.size());
+                for (int k = 0; k < accepted.size(); k++) {
+                    BatchTransferItem item = items.get(accepted.get(k));
+                    User toUser = acceptedRecipients.get(k);
+                    Wallet toWallet = wallets.get(walletIdByUser.get(toUser.getId()));
+
+                    fromWallet.setBalance(fromWallet.getBalance().subtract(item.getAmount()));
+                    toWallet.setBalance(toWallet.getBalance().add(item.getAmount()));
+
+                    String secCode = generateSecurityCode();
+                    Transaction out = Transaction.builder()
+                            .walletId(fromWallet.getId())
+                            .amount(item.getAmount().negate())
+                            .currency(currencyLabel)
+                            .type(TransactionType.TRANSFER_OUT)
+                            .description(item.getDescription())
+                            .status(TransactionStatus.COMPLETED)
+                            .balanceAfter(fromWallet.getBalance())
+                            .relatedUserId(toUser.getId())
+                            .securityCode(secCode)
+                            .build();
+                    Transaction in = Transaction.builder()
+                            .walletId(toWallet.getId())
+                            .amount(item.getAmount())
+                            .currency(currencyLabel)
+                            .type(TransactionType.TRANSFER_IN)
+                            .description(item.getDescription())
+                            .status(TransactionStatus.COMPLETED)
+                            .balanceAfter(toWallet.getBalance())
+                            .relatedUserId(fromUserId)
+                            .securityCode(secCode)
+                            .build();
+                    legs.add(out);
+                    legs.add(in);
+                    outLegs.add(out);
+                }
+
+                Instant now = Instant.now();
+                wallets.values().forEach(w -> w.setUpdatedAt(now));
+                walletRepository.saveAll(wallets.values());
+                // Con ids por bloques e hibernate.jdbc.batch_size, el flush envía los UPDATE y los INSERT en batch
+                transactionRepository.saveAll(legs);
+                transactionRepository.flush();
+
+                List<JournalEntry> entries = new ArrayList<>(outLegs.size());
+                for (int k = 0; k < outLegs.size(); k++) {
+                    Transaction out = outLegs.get(k);
+                    Transaction in = legs.get(2 * k + 1);
+                    entries.add(transferEntry(out, fromWallet, wallets.get(in.getWalletId()), in.getAmount()));
+                }
+                ledgerJournal.postAll(entries);
+                wallets.values().forEach(w -> walletReadCache.writeThrough(w, legs));
+                walletEventHub.balanceChanged(fromWallet, fromWallet.getBalance(), outLegs.get(outLegs.size() - 1));
+                for (int k = 1; k < legs.size(); k += 2) {
+                    Transaction in = legs.get(k);
+                    walletEventHub.transferReceived(wallets.get(in.getWalletId()), in.getBalanceAfter(), in);
+                }
+
+                for (int k = 0; k < accepted.size(); k++) {
+                    int index = accepted.get(k);
+                    User toUser = acceptedRecipients.get(k);
+                    results[index] = BatchTransferItemResult.builder()
+                            .index(index)
+                            .toUsername(items.get(index).getToUsername())
+                            .success(true)
+                            .transaction(walletMapper.toTransactionResponse(outLegs.get(k), null,
+                                    DisplayNameCache.format(toUser)))
+                            .build();
+                }
+                return fromWallet.getBalance();
+            });
+        }
+
+        log.info("Lote completado - origen: {}, exitosas: {}, fallidas: {}, total: {} {}",
+                fromUserId, accepted.size(), items.size() - accepted.size(), totalAmount, currencyLabel);
+
+        return BatchTransferResponse.builder()
+                .requested(items.size())
+                .succeeded(accepted.size())
+                .failed(items.size() - accepted.size())
+                .currency(currencyLabel)
+                .totalAmount(totalAmount)
+                .balanceAfter(balanceAfter)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private JournalEntry transferEntry(Transaction transactionOut, Wallet fromWallet, Wallet toWallet,
+            BigDecimal amount) {
+        return JournalEntry.builder()
+                .type(JournalEntryType.TRANSFER)
+                .reference(transactionOut.getTransactionUid())
+                .description(transactionOut.getDescription())
+                .build()
+                .walletPosting(fromWallet.getId(), fromWallet.getCurrency(), amount.negate())
+                .walletPosting(toWallet.getId(), toWallet.getCurrency(), amount);
+    }
+
+    private void verifyTwoFactor(Long userId, String token2fa) {
+        // Verificar 2FA si está habilitado
+        boolean has2FA = twoFactorAuthService.isEnabled(userId);
+        if (has2FA) {
+            if (token2fa == null || token2fa.trim().isEmpty()) {
+                throw new ApiException(400, "Código 2FA requerido");
+            }
+            if (!twoFactorAuthService.verifyCode(userId, token2fa)) {
+                throw new ApiException(400, "Código 2FA inválido");
+            }
+        }
+    }
+
+    private BigDecimal dailyLimitOf(Long fromUserId) {
+        UserProfile fromProfile = userProfileRepository.findByUserId(fromUserId)
+                .orElseThrow(() -> new ApiException(404, "Perfil del usuario origen no encontrado"));
+
+        BigDecimal userLimit = fromProfile.getDailyTransactionLimit();
+        return userLimit != null ? userLimit : AuthServiceImpl.DEFAULT_USER_LIMIT;
     }
 
     @Override
@@ -301,6 +556,70 @@ public class WalletServiceImpl implements WalletService {
         return exchangeRateService.getRate(fromCurrency, toCurrency);
     }
 
+    @Override
+    public ExchangeRateSnapshot getExchangeRateSnapshot() {
+        return exchangeRateService.getSnapshot();
+    }
+
+    @Override
+    public ExchangeRateHistoryResponse getExchangeRateHistory(String pair, String range, String interval) {
+        String normalizedPair = pair == null ? null : pair.trim().toUpperCase(java.util.Locale.ROOT);
+        if (!ExchangeRateHistory.isValidPair(normalizedPair)) {
+            throw new ApiException(400, "Par inválido. Formato esperado: USD-PEN");
+        }
+
+        java.util.regex.Matcher matcher = HISTORY_RANGE.matcher(range == null ? "" : range.trim().toLowerCase());
+        if (!matcher.matches()) {
+            throw new ApiException(400, "Rango inválido. Ejemplos: 24h, 7d, 4w, 1y");
+        }
+        long count = Long.parseLong(matcher.group(1));
+        java.time.Duration duration = switch (matcher.group(2)) {
+            case "h" -> java.time.Duration.ofHours(count);
+            case "d" -> java.time.Duration.ofDays(count);
+            case "w" -> java.time.Duration.ofDays(count * 7);
+            default -> java.time.Duration.ofDays(count * 365);
+        };
+        if (duration.isZero() || duration.compareTo(exchangeRateHistory.maxRange()) > 0) {
+            throw new ApiException(400, "El rango máximo es de " + exchangeRateHistory.maxRange().toDays() + " días");
+        }
+
+        ExchangeRateHistory.Resolution resolution;
+        if (interval == null || interval.isBlank()) {
+            resolution = exchangeRateHistory.resolutionFor(duration);
+        } else {
+            try {
+                resolution = ExchangeRateHistory.Resolution.valueOf(interval.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Intervalo inválido. Debe ser minute, hour o day");
+            }
+        }
+
+        Instant to = Instant.now();
+        Instant from = to.minus(duration);
+        List<ExchangeRatePoint> points = exchangeRateHistory.series(normalizedPair, resolution, from, to).stream()
+                .map(point -> ExchangeRatePoint.builder()
+                        .timestamp(point.start())
+                        .open(rateOf(point.open()))
+                        .high(rateOf(point.high()))
+                        .low(rateOf(point.low()))
+                        .close(rateOf(point.close()))
+                        .samples(point.samples())
+                        .build())
+                .toList();
+
+        return ExchangeRateHistoryResponse.builder()
+                .pair(normalizedPair)
+                .interval(resolution.name().toLowerCase(java.util.Locale.ROOT))
+                .from(from)
+                .to(to)
+                .points(points)
+                .build();
+    }
+
+    private static BigDecimal rateOf(double rate) {
+        return BigDecimal.valueOf(rate).setScale(4, java.math.RoundingMode.HALF_UP);
+    }
+
     @Override
     @Transactional
     public Wallet getOrCreateWallet(Long userId, String currency) {
@@ -321,14 +640,31 @@ public class WalletServiceImpl implements WalletService {
                 .build();
 
         newWallet = walletRepository.save(newWallet);
+        walletReadCache.invalidateAfterCommit(userId);
         log.info("Wallet creada para usuario {} en {}", userId, currency);
         return newWallet;
     }
 
     @Override
-    @Transactional
     public Transaction convert(Long userId, String fromCurrency, String toCurrency, BigDecimal amount,
             String description) {
+        return convert(userId, fromCurrency, toCurrency, amount, description, null);
+    }
+
+    @Override
+    public ConversionQuote quoteConversion(Long userId, String fromCurrency, String toCurrency) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ApiException(404, "Usuario no encontrado"));
+        if (!user.isEnabled()) {
+            throw new ApiException(403,
+                    "Su cuenta se encuentra bloqueada. No puede realizar conversiones. Por favor, comuníquese con soporte.");
+        }
+        return conversionQuoteStore.issue(userId, fromCurrency, toCurrency);
+    }
+
+    @Override
+    public Transaction convert(Long userId, String fromCurrency, String toCurrency, BigDecimal amount,
+            String description, String quoteId) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ApiException(400, "Monto debe ser positivo");
         }
@@ -346,15 +682,36 @@ public class WalletServiceImpl implements WalletService {
                     "Su cuenta se encuentra bloqueada. No puede realizar conversiones. Por favor, comuníquese con soporte.");
         }
 
-        Wallet fromWallet = walletRepository.findByUserIdAndCurrency(userId, fromCurrency)
+        Long fromWalletId = walletRepository.findIdByUserIdAndCurrency(userId, fromCurrency)
                 .orElseThrow(() -> new ApiException(404, "Wallet " + fromCurrency + " no encontrada"));
-        Wallet toWallet = getOrCreateWallet(userId, toCurrency);
+        Long toWalletId = getOrCreateWallet(userId, toCurrency).getId();
+
+        if (quoteId == null || quoteId.isBlank()) {
+            // Sin cotización el tipo de cambio se obtiene antes de tomar los locks: no se hace I/O externo con wallets bloqueadas
+            BigDecimal rate = exchangeRateService.getSettlementRate(fromCurrency, toCurrency);
+            return walletLockManager.executeLocked(List.of(fromWalletId, toWalletId),
+                    wallets -> applyConvert(wallets.get(fromWalletId), wallets.get(toWalletId),
+                            fromCurrency, toCurrency, amount, rate, description));
+        }
+
+        ConversionQuote quote = conversionQuoteStore.redeem(userId, quoteId.trim(), fromCurrency, toCurrency);
+        try {
+            return walletLockManager.executeLocked(List.of(fromWalletId, toWalletId),
+                    wallets -> applyConvert(wallets.get(fromWalletId), wallets.get(toWalletId),
+                            fromCurrency, toCurrency, amount, quote.rate(), description));
+        } catch (RuntimeException e) {
+            // La conversión no se confirmó: la cotización sigue disponible mientras no venza
+            conversionQuoteStore.release(quote);
+            throw e;
+        }
+    }
 
+    private Transaction applyConvert(Wallet fromWallet, Wallet toWallet, String fromCurrency, String toCurrency,
+            BigDecimal amount, BigDecimal rate, String description) {
         if (fromWallet.getBalance().compareTo(amount) < 0) {
             throw new ApiException(400, "Saldo insuficiente en " + fromCurrency);
         }
 
-        BigDecimal rate = exchangeRateService.getRate(fromCurrency, toCurrency);
         BigDecimal convertedAmount = amount.multiply(rate).setScale(2, java.math.RoundingMode.HALF_UP);
 
         BigDecimal newFromBalance = fromWallet.getBalance().subtract(amount);
@@ -390,6 +747,23 @@ public class WalletServiceImpl implements WalletService {
                 .build();
         transactionRepository.save(inTransaction);
 
+        // Cada moneda cuadra contra la cuenta puente de cambio
+        ledgerJournal.post(JournalEntry.builder()
+                .type(JournalEntryType.CONVERSION)
+                .reference(outTransaction.getTransactionUid())
+                .description(description)
+                .build()
+                .walletPosting(fromWallet.getId(), fromCurrency, amount.negate())
+                .systemPosting(LedgerAccountType.FX_CLEARING, fromCurrency, amount)
+                .systemPosting(LedgerAccountType.FX_CLEARING, toCurrency, convertedAmount.negate())
+                .walletPosting(toWallet.getId(), toCurrency, convertedAmount));
+
+        List<Transaction> legs = List.of(outTransaction, inTransaction);
+        walletReadCache.writeThrough(fromWallet, legs);
+        walletReadCache.writeThrough(toWallet, legs);
+        walletEventHub.balanceChanged(fromWallet, fromWallet.getBalance(), outTransaction);
+        walletEventHub.balanceChanged(toWallet, toWallet.getBalance(), inTransaction);
+
         log.info("Conversión completada - ID: {}, UID: {}", outTransaction.getId(), outTransaction.getTransactionUid());
         return outTransaction;
     }
@@ -463,7 +837,6 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    @Transactional
     public Transaction withdraw(Long userId, BigDecimal amount, String description) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ApiException(400, "Monto de retiro debe ser positivo");
@@ -482,9 +855,26 @@ public class WalletServiceImpl implements WalletService {
         UserTarjeta tarjetaActiva = userTarjetaRepository.findByUserIdAndActivaTrue(userId)
                 .orElseThrow(() -> new ApiException(400, "No tienes una tarjeta activa para retirar."));
 
-        Wallet wallet = walletRepository.findByUserIdAndCurrency(userId, "PEN")
+        Long walletId = walletRepository.findIdByUserIdAndCurrency(userId, "PEN")
                 .orElseThrow(() -> new ApiException(404, "Wallet PEN no encontrada"));
 
+        // Fase 1: se descuenta el saldo y se registra el retiro en PENDING
+        BankSettlement settlement = walletLockManager.executeLocked(List.of(walletId),
+                wallets -> recordWithdraw(wallets.get(walletId), tarjetaActiva, amount, description));
+
+        // Fase 2: abono en el banco fuera de la transacción; si lo rechaza se devuelve el saldo
+        SettlementResult result = bankSettlements.settle(settlement);
+        if (result.status() == TransactionStatus.FAILED) {
+            throw new ApiException(500, "El banco destino rechazó el retiro: " + result.message());
+        }
+
+        log.info("Retiro {} - ID: {}, UID: {}", result.status(), result.transaction().getId(),
+                result.transaction().getTransactionUid());
+        return result.transaction();
+    }
+
+    private BankSettlement recordWithdraw(Wallet wallet, UserTarjeta tarjetaActiva, BigDecimal amount,
+            String description) {
         if (wallet.getBalance().compareTo(amount) < 0) {
             throw new ApiException(400, "Saldo insuficiente en tu wallet EnOne.");
         }
@@ -494,18 +884,6 @@ public class WalletServiceImpl implements WalletService {
         wallet.setUpdatedAt(Instant.now());
         walletRepository.save(wallet);
 
-        RealizarAbonoRequest abonoRequest = RealizarAbonoRequest.builder()
-                .numeroTarjeta(tarjetaActiva.getNumeroTarjetaCompleto())
-                .monto(amount)
-                .build();
-
-        RealizarAbonoResponse abonoResponse = mockBancoService.acreditarDinero(abonoRequest);
-
-        if (!abonoResponse.getSuccess()) {
-            throw new ApiException(500, "El banco destino rechazó el retiro: " + abonoResponse.getMensaje());
-        }
-
-        // Crear transacción
         Transaction transaction = Transaction.builder()
                 .walletId(wallet.getId())
                 .amount(amount.negate())
@@ -513,14 +891,24 @@ public class WalletServiceImpl implements WalletService {
                 .type(TransactionType.WITHDRAWAL)
                 .description(description != null ? description
                         : "Retiro a tarjeta " + tarjetaActiva.getNumeroTarjetaEnmascarado())
-                .status(TransactionStatus.COMPLETED)
+                .status(TransactionStatus.PENDING)
                 .balanceAfter(newBalanceEnOne)
                 .build();
 
         transaction = transactionRepository.save(transaction);
 
-        log.info("Retiro completado - ID: {}, UID: {}", transaction.getId(), transaction.getTransactionUid());
-        return transaction;
+        // El asiento acompaña al descuento; si el banco rechaza el abono se registra la reversión
+        ledgerJournal.post(JournalEntry.builder()
+                .type(JournalEntryType.WITHDRAWAL)
+                .reference(transaction.getTransactionUid())
+                .description(transaction.getDescription())
+                .build()
+                .walletPosting(wallet.getId(), "PEN", amount.negate())
+                .systemPosting(LedgerAccountType.BANK_SETTLEMENT, "PEN", amount));
+
+        walletReadCache.writeThrough(wallet, List.of(transaction));
+        walletEventHub.balanceChanged(wallet, wallet.getBalance(), transaction);
+        return bankSettlements.open(transaction, wallet.getUserId(), tarjetaActiva);
     }
 
     @Override
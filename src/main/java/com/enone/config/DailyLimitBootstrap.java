@@ -0,0 +1,27 @@
+package com.enone.config;
+
+import com.enone.application.limits.DailyLimitTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruye los contadores de límite diario desde las transferencias de las
+ * últimas 24 horas y carga el tipo de cambio USD/PEN antes de operar.
+ *
+ * Corre al terminar de crear los singletons, antes de que arranque el servidor web
+ * y los jobs programados: la reconstrucción reemplaza las ventanas, así que ninguna
+ * reserva puede haberse hecho todavía.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailyLimitBootstrap implements SmartInitializingSingleton {
+
+    private final DailyLimitTracker dailyLimitTracker;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        dailyLimitTracker.refreshRate();
+        dailyLimitTracker.rebuild();
+    }
+}
@@ -0,0 +1,64 @@
+package com.enone.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Ajusta id_generators por encima del mayor id existente antes de la primera
+ * inserción. Las tablas que venían usando AUTO_INCREMENT ya tienen filas y el
+ * generador por bloques empezaría desde 1.
+ *
+ * Corre antes del EntityManagerFactory: Hibernate reserva bloques del generador en
+ * memoria, así que el ajuste tiene que estar antes de que cualquier job o request
+ * pueda insertar. Por lo mismo crea la tabla si todavía no existe.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorSeed {
+
+    // pkColumnValue del @TableGenerator -> tabla y tamaño de bloque
+    private static final Map<String, Integer> GENERATORS = Map.of(
+            "transactions", 50,
+            "wallets", 20,
+            "user_tarjeta", 20);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Component
+    static class BeforeJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        BeforeJpa() {
+            super(IdGeneratorSeed.class);
+        }
+    }
+
+    @PostConstruct
+    void seed() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generators (entity_name VARCHAR(255) NOT NULL, "
+                + "next_val BIGINT, PRIMARY KEY (entity_name))");
+        GENERATORS.forEach((table, allocationSize) -> {
+            if (!tableExists(table)) {
+                return;
+            }
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long floor = maxId + allocationSize + 1;
+            int updated = jdbcTemplate.update("INSERT INTO id_generators (entity_name, next_val) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))", table, floor);
+            if (updated > 0) {
+                log.debug("Generador de ids de {} ajustado a partir de {}", table, floor);
+            }
+        });
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+}
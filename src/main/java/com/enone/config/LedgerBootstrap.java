@@ -0,0 +1,25 @@
+package com.enone.config;
+
+import com.enone.application.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registra asientos de apertura para wallets creadas antes del diario contable,
+ * de modo que la suma de postings coincida con Wallet.balance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerBootstrap implements CommandLineRunner {
+
+    private final LedgerService ledgerService;
+
+    @Override
+    public void run(String... args) {
+        int created = ledgerService.backfillOpeningBalances();
+        log.info("Diario contable inicializado ({} asientos de apertura)", created);
+    }
+}
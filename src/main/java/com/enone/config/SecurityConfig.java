@@ -3,6 +3,7 @@ package com.enone.config;
 import com.enone.security.JwtAuthenticationEntryPoint;
 import com.enone.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -60,6 +61,9 @@ public class SecurityConfig {
                             }
                         }))
                 .authorizeHttpRequests(auth -> auth
+                        // El despacho ASYNC que cierra una respuesta por streaming ya fue autorizado
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Rutas públicas de API
                         .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
                         .requestMatchers("/api/onboarding/**").permitAll()
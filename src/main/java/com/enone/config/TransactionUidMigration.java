@@ -0,0 +1,103 @@
+package com.enone.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Migra transactions.transaction_uid de VARCHAR(36) a BINARY(16) en bases creadas
+ * antes del cambio ({@code ddl-auto: update} no altera el tipo de una columna).
+ * Los uid existentes se conservan; solo cambia su representación.
+ *
+ * Corre antes de crear el EntityManagerFactory, así que ni el servidor web ni los
+ * jobs programados escriben en la tabla mientras tanto. Cada paso comprueba el
+ * estado del esquema por separado y se puede reanudar si un arranque anterior se
+ * cortó a la mitad.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionUidMigration {
+
+    private static final long CHUNK = 50_000;
+
+    private static final String COLUMN_SQL = "SELECT DATA_TYPE FROM information_schema.COLUMNS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' AND COLUMN_NAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Hace que el EntityManagerFactory espere a la migración.
+     */
+    @Component
+    static class BeforeJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        BeforeJpa() {
+            super(TransactionUidMigration.class);
+        }
+    }
+
+    @PostConstruct
+    void migrate() {
+        String uidType = columnType("transaction_uid");
+        String binType = columnType("transaction_uid_bin");
+        if (uidType == null && binType == null) {
+            // Base nueva: la tabla la crea Hibernate ya con BINARY(16)
+            return;
+        }
+
+        if ("varchar".equalsIgnoreCase(uidType)) {
+            log.warn("Migrando transactions.transaction_uid a BINARY(16)");
+            if (binType == null) {
+                jdbcTemplate.execute("ALTER TABLE transactions ADD COLUMN transaction_uid_bin BINARY(16) NULL");
+            }
+            backfill();
+            jdbcTemplate.execute("ALTER TABLE transactions DROP COLUMN transaction_uid, "
+                    + "RENAME COLUMN transaction_uid_bin TO transaction_uid");
+        } else if (uidType == null) {
+            // Un arranque anterior borró la columna vieja pero no llegó a renombrar la nueva
+            jdbcTemplate.execute("ALTER TABLE transactions RENAME COLUMN transaction_uid_bin TO transaction_uid");
+        }
+
+        List<String> nullable = jdbcTemplate.queryForList("SELECT IS_NULLABLE FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' "
+                + "AND COLUMN_NAME = 'transaction_uid'", String.class);
+        if (!nullable.isEmpty() && "YES".equalsIgnoreCase(nullable.get(0))) {
+            jdbcTemplate.execute("ALTER TABLE transactions MODIFY transaction_uid BINARY(16) NOT NULL");
+            log.warn("transactions.transaction_uid marcado NOT NULL");
+        }
+
+        Integer constraints = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLE_CONSTRAINTS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' "
+                + "AND CONSTRAINT_NAME = 'uk_transactions_uid'", Integer.class);
+        if (constraints == null || constraints == 0) {
+            jdbcTemplate.execute("ALTER TABLE transactions ADD CONSTRAINT uk_transactions_uid UNIQUE (transaction_uid)");
+            log.warn("Restricción uk_transactions_uid creada");
+        }
+    }
+
+    // Por rangos de id para no generar una única transacción sobre toda la tabla;
+    // solo toca filas sin convertir, así que retomar tras un corte no repite trabajo
+    private void backfill() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transactions", Long.class);
+        for (long from = 0; from < maxId; from += CHUNK) {
+            jdbcTemplate.update("UPDATE transactions SET transaction_uid_bin = UNHEX(REPLACE(transaction_uid, '-', '')) "
+                    + "WHERE id > ? AND id <= ? AND transaction_uid_bin IS NULL", from, from + CHUNK);
+        }
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE transaction_uid_bin IS NULL", Long.class);
+        if (pending != null && pending > 0) {
+            throw new IllegalStateException("Quedaron " + pending + " movimientos sin transaction_uid convertido");
+        }
+        log.warn("transaction_uid convertido hasta id {}", maxId);
+    }
+
+    private String columnType(String column) {
+        List<String> types = jdbcTemplate.queryForList(COLUMN_SQL, String.class, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+}
@@ -0,0 +1,27 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Hasta dónde están consolidadas las tablas de rollup: las filas creadas antes de
+ * {@code coveredUntil} ya están agregadas y las posteriores se leen en crudo.
+ */
+@Entity
+@Table(name = "analytics_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsWatermark {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "covered_until", nullable = false)
+    private Instant coveredUntil;
+}
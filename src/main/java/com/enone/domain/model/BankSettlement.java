@@ -0,0 +1,73 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Liquidación con el banco de un depósito o retiro. Se crea en PENDING junto con
+ * el movimiento y pasa a COMPLETED o FAILED cuando se conoce la respuesta del
+ * banco; las que quedan en PENDING las retoma el proceso de recuperación.
+ */
+@Entity
+@Table(name = "bank_settlements",
+        indexes = {
+                @Index(name = "idx_settlement_status_updated", columnList = "status, updated_at")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BankSettlement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, unique = true)
+    private Long transactionId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "tarjeta_id", nullable = false)
+    private Long tarjetaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private TransactionStatus status = TransactionStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "bank_transaction_id", length = 100)
+    private String bankTransactionId;
+
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
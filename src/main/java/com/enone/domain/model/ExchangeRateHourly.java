@@ -0,0 +1,55 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Tipo de cambio de un par agregado por hora (apertura, máximo, mínimo y cierre de
+ * las muestras del snapshot). Es la copia durable de {@code ExchangeRateHistory}: al
+ * arrancar se recarga en memoria y el último cierre sirve de tipo de cambio de respaldo.
+ * Se escribe por JDBC con upsert sobre (pair, bucket_start).
+ */
+@Entity
+@Table(name = "exchange_rate_hourly",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_exchange_rate_hourly_pair_bucket", columnNames = {"pair", "bucket_start"})
+        },
+        indexes = {
+                @Index(name = "idx_exchange_rate_hourly_bucket", columnList = "bucket_start")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExchangeRateHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Formato FROM-TO, p. ej. USD-PEN
+    @Column(nullable = false, length = 7)
+    private String pair;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "open_rate", nullable = false, precision = 19, scale = 8)
+    private BigDecimal openRate;
+
+    @Column(name = "high_rate", nullable = false, precision = 19, scale = 8)
+    private BigDecimal highRate;
+
+    @Column(name = "low_rate", nullable = false, precision = 19, scale = 8)
+    private BigDecimal lowRate;
+
+    @Column(name = "close_rate", nullable = false, precision = 19, scale = 8)
+    private BigDecimal closeRate;
+
+    @Column(nullable = false)
+    private Integer samples;
+}
@@ -0,0 +1,63 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "journal_entries",
+        indexes = {
+                @Index(name = "idx_journal_entry_reference", columnList = "reference")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JournalEntryType type;
+
+    // transactionUid del movimiento que originó el asiento
+    @Column(length = 100)
+    private String reference;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Transient
+    @Builder.Default
+    private List<JournalPosting> postings = new ArrayList<>();
+
+    public JournalEntry walletPosting(Long walletId, String currency, BigDecimal amount) {
+        postings.add(JournalPosting.builder()
+                .accountType(LedgerAccountType.WALLET)
+                .walletId(walletId)
+                .currency(currency)
+                .amount(amount)
+                .build());
+        return this;
+    }
+
+    public JournalEntry systemPosting(LedgerAccountType accountType, String currency, BigDecimal amount) {
+        postings.add(JournalPosting.builder()
+                .accountType(accountType)
+                .currency(currency)
+                .amount(amount)
+                .build());
+        return this;
+    }
+}
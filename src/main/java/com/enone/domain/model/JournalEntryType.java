@@ -0,0 +1,10 @@
+package com.enone.domain.model;
+
+public enum JournalEntryType {
+    OPENING_BALANCE,
+    DEPOSIT,
+    WITHDRAWAL,
+    WITHDRAWAL_REVERSAL,
+    TRANSFER,
+    CONVERSION
+}
@@ -0,0 +1,46 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "journal_postings",
+        indexes = {
+                @Index(name = "idx_posting_entry", columnList = "entry_id"),
+                @Index(name = "idx_posting_wallet", columnList = "wallet_id, id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account_type", nullable = false, length = 20)
+    private LedgerAccountType accountType;
+
+    // Solo para cuentas WALLET; las cuentas de sistema no tienen wallet asociada
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    // Positivo = ingreso a la cuenta, negativo = salida. Cada asiento suma cero por moneda
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,8 @@
+package com.enone.domain.model;
+
+public enum LedgerAccountType {
+    WALLET,
+    BANK_SETTLEMENT,
+    FX_CLEARING,
+    OPENING_EQUITY
+}
@@ -0,0 +1,51 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Operación registrada por el banco simulado bajo la referencia del cliente,
+ * para que un reintento con la misma referencia devuelva el mismo resultado.
+ */
+@Entity
+@Table(name = "mock_banco_operaciones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MockBancoOperacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String referencia;
+
+    @Column(nullable = false, length = 10)
+    private String tipo;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal monto;
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    @Column(length = 255)
+    private String mensaje;
+
+    @Column(length = 40)
+    private String transactionId;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal nuevoSaldo;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,48 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "reconciliation_mismatches",
+        indexes = {
+                @Index(name = "idx_recon_mismatch_run", columnList = "run_id, id"),
+                @Index(name = "idx_recon_mismatch_wallet", columnList = "wallet_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationMismatchKind kind;
+
+    // Solo para CHAIN: el movimiento cuyo balanceAfter no encadena
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal expected;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal actual;
+
+    @Column(name = "detected_at", nullable = false)
+    private Instant detectedAt;
+}
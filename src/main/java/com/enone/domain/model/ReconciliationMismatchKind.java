@@ -0,0 +1,8 @@
+package com.enone.domain.model;
+
+public enum ReconciliationMismatchKind {
+    // Saldo de la wallet distinto de apertura + suma de movimientos aplicados
+    BALANCE,
+    // balanceAfter de un movimiento distinto del anterior más su monto
+    CHAIN
+}
@@ -0,0 +1,56 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Ejecución de la conciliación de saldos contra movimientos. Las diferencias
+ * encontradas quedan en {@link ReconciliationMismatch}.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationStatus status;
+
+    @Column(name = "triggered_by", nullable = false, length = 50)
+    private String triggeredBy;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer partitions = 0;
+
+    @Column(name = "wallets_checked", nullable = false)
+    @Builder.Default
+    private Long walletsChecked = 0L;
+
+    @Column(name = "transactions_checked", nullable = false)
+    @Builder.Default
+    private Long transactionsChecked = 0L;
+
+    @Column(name = "mismatch_count", nullable = false)
+    @Builder.Default
+    private Long mismatchCount = 0L;
+
+    @Column(name = "error_message", length = 255)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
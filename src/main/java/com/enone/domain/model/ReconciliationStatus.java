@@ -0,0 +1,7 @@
+package com.enone.domain.model;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
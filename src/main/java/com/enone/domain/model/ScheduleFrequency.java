@@ -0,0 +1,8 @@
+package com.enone.domain.model;
+
+public enum ScheduleFrequency {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,9 @@
+package com.enone.domain.model;
+
+public enum ScheduledRunStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    INTERRUPTED
+}
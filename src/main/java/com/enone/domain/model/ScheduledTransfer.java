@@ -0,0 +1,87 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Transferencia programada, única o recurrente. Las ocurrencias se calculan desde
+ * {@code anchorAt} (la primera ejecución), así una mensual del día 31 vuelve al 31
+ * en los meses que lo tienen. Cada ejecución deja un {@link ScheduledTransferRun}.
+ */
+@Entity
+@Table(name = "scheduled_transfers",
+        indexes = {
+                @Index(name = "idx_scheduled_transfer_due", columnList = "status, next_run_at"),
+                @Index(name = "idx_scheduled_transfer_user", columnList = "user_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "to_user_id", nullable = false)
+    private Long toUserId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(length = 255)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ScheduleFrequency frequency;
+
+    @Column(name = "anchor_at", nullable = false)
+    private Instant anchorAt;
+
+    // Número de ocurrencias ya reclamadas desde anchorAt
+    @Column(name = "occurrence", nullable = false)
+    @Builder.Default
+    private Integer occurrence = 0;
+
+    @Column(name = "next_run_at")
+    private Instant nextRunAt;
+
+    // Límite de ejecuciones para las recurrentes; null = sin límite
+    @Column(name = "max_runs")
+    private Integer maxRuns;
+
+    @Column(name = "run_count", nullable = false)
+    @Builder.Default
+    private Integer runCount = 0;
+
+    @Column(name = "consecutive_failures", nullable = false)
+    @Builder.Default
+    private Integer consecutiveFailures = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private ScheduledTransferStatus status = ScheduledTransferStatus.ACTIVE;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
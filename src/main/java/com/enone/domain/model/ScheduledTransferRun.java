@@ -0,0 +1,57 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Resultado de una ocurrencia de una transferencia programada. Se inserta en
+ * QUEUED al reclamar la ocurrencia y pasa a RUNNING cuando un worker la toma; la
+ * restricción única impide ejecutarla dos veces.
+ */
+@Entity
+@Table(name = "scheduled_transfer_runs",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_scheduled_run_occurrence", columnNames = {"schedule_id", "scheduled_for"})
+        },
+        indexes = {
+                @Index(name = "idx_scheduled_run_status_started", columnList = "status, started_at")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledTransferRun {
+
+    // Se insertan por lotes al reclamar cada bloque de programaciones vencidas
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "scheduled_transfer_runs_ids")
+    @TableGenerator(name = "scheduled_transfer_runs_ids", table = "id_generators", pkColumnName = "entity_name",
+            valueColumnName = "next_val", pkColumnValue = "scheduled_transfer_runs", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+
+    @Column(name = "scheduled_for", nullable = false)
+    private Instant scheduledFor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ScheduledRunStatus status;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "error_message", length = 255)
+    private String errorMessage;
+
+    // En QUEUED es la hora del reclamo; al pasar a RUNNING, la de inicio real
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.enone.domain.model;
+
+public enum ScheduledTransferStatus {
+    ACTIVE,
+    COMPLETED,
+    CANCELLED,
+    SUSPENDED
+}
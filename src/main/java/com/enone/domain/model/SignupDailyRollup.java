@@ -0,0 +1,32 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Altas de perfiles por día, mantenida junto con {@link TransactionHourlyRollup}.
+ */
+@Entity
+@Table(name = "signup_daily_rollups",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_signup_rollup_day", columnNames = "day")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignupDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long signups;
+}
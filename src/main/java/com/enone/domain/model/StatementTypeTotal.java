@@ -0,0 +1,26 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementTypeTotal {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private TransactionType type;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long count;
+
+    // Suma con signo de los montos del tipo en el periodo
+    @Column(name = "total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+}
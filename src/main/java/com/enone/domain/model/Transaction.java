@@ -1,15 +1,24 @@
 package com.enone.domain.model;
 
+import com.enone.util.UuidUtil;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_transactions_uid", columnNames = "transaction_uid")
+        },
+        indexes = {
+                // Paginación por cursor: (wallet_id, created_at, id) sirve el ORDER BY y el punto de corte
+                @Index(name = "idx_tx_wallet_created_id", columnList = "wallet_id, created_at, id"),
+                // Recálculo de rollups por hora y cola sin consolidar de los paneles
+                @Index(name = "idx_tx_created_at", columnList = "created_at")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,17 +26,22 @@ import java.util.UUID;
 @Builder
 public class Transaction {
 
+    // Ids por bloques desde id_generators: con IDENTITY Hibernate no puede agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transactions_ids")
+    @TableGenerator(name = "transactions_ids", table = "id_generators", pkColumnName = "entity_name",
+            valueColumnName = "next_val", pkColumnValue = "transactions", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false, updatable = false, length = 36)
+    // UUIDv7 en BINARY(16); hacia afuera sigue siendo el texto de 36 caracteres
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "transaction_uid", nullable = false, updatable = false, columnDefinition = "BINARY(16)")
     private String transactionUid;
 
     @Column(length = 3)
     private String securityCode;
 
-    @Column(nullable = false)
+    @Column(name = "wallet_id", nullable = false)
     private Long walletId;
 
     @Enumerated(EnumType.STRING)
@@ -57,13 +71,13 @@ public class Transaction {
     private TransactionStatus status = TransactionStatus.PENDING;
 
     @CreationTimestamp
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
     @PrePersist
     protected void onCreate() {
         if (transactionUid == null) {
-            transactionUid = UUID.randomUUID().toString();
+            transactionUid = UuidUtil.timeOrdered().toString();
         }
     }
 }
\ No newline at end of file
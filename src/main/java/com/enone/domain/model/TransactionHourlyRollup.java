@@ -0,0 +1,58 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Movimientos agregados por hora, tipo, moneda y estado. La mantiene
+ * {@code AnalyticsRollups} por JDBC: recalcula las horas desde la marca de agua y
+ * las que cambiaron de estado, y los paneles leen de aquí en vez de {@code transactions}.
+ */
+@Entity
+@Table(name = "transaction_hourly_rollups",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_tx_rollup_bucket",
+                        columnNames = {"hour_start", "type", "currency", "status"})
+        },
+        indexes = {
+                @Index(name = "idx_tx_rollup_status_hour", columnList = "status, hour_start")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHourlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private Instant hourStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionType type;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionStatus status;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long txCount;
+
+    // Suma con signo (los débitos restan)
+    @Column(name = "amount_sum", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountSum;
+
+    // Solo montos positivos: el volumen que muestra el dashboard
+    @Column(name = "inflow_sum", nullable = false, precision = 19, scale = 2)
+    private BigDecimal inflowSum;
+}
@@ -1,5 +1,6 @@
 package com.enone.domain.model;
 
+import com.enone.application.cache.UserNameChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,6 +15,7 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
+@EntityListeners(UserNameChangeListener.class)
 @Table(name = "users")
 public class User {
 
@@ -0,0 +1,34 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Último volumen de 24 horas volcado por el contador en memoria de límites diarios.
+ * Solo informativo: el control de límites se hace en memoria.
+ */
+@Entity
+@Table(name = "user_daily_usage")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDailyUsage {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "volume_pen", nullable = false, precision = 19, scale = 2)
+    private BigDecimal volumePen;
+
+    @Column(name = "volume_usd", nullable = false, precision = 19, scale = 2)
+    private BigDecimal volumeUsd;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
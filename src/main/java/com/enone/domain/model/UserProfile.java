@@ -1,5 +1,6 @@
 package com.enone.domain.model;
 
+import com.enone.application.cache.UserNameChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "user_profile")
+@EntityListeners(UserNameChangeListener.class)
+@Table(name = "user_profile",
+        indexes = {
+                @Index(name = "idx_user_profile_created_at", columnList = "created_at")
+        })
 public class UserProfile {
 
     @Id
@@ -73,14 +78,6 @@ public class UserProfile {
     @Column(name = "daily_transaction_limit", precision = 19, scale = 2)
     private BigDecimal dailyTransactionLimit;
 
-    @Column(name = "daily_volume_pen", precision = 19, scale = 2)
-    @Builder.Default
-    private BigDecimal dailyVolumePen = BigDecimal.ZERO;
-
-    @Column(name = "daily_volume_usd", precision = 19, scale = 2)
-    @Builder.Default
-    private BigDecimal dailyVolumeUsd = BigDecimal.ZERO;
-
     @Column(name = "pending_new_limit", precision = 19, scale = 2)
     private BigDecimal pendingNewLimit;
 
@@ -93,9 +90,6 @@ public class UserProfile {
     @Column(name = "last_limit_change_at")
     private Instant lastLimitChangeAt;
 
-    @Column(name = "last_volume_reset_at")
-    private Instant lastVolumeResetAt;
-
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -17,7 +17,9 @@ import java.time.Instant;
 public class UserTarjeta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_tarjeta_ids")
+    @TableGenerator(name = "user_tarjeta_ids", table = "id_generators", pkColumnName = "entity_name",
+            valueColumnName = "next_val", pkColumnValue = "user_tarjeta", allocationSize = 20)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
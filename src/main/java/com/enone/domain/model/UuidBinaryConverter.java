@@ -0,0 +1,23 @@
+package com.enone.domain.model;
+
+import com.enone.util.UuidUtil;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda un UUID en su forma de texto como BINARY(16); el resto del código sigue
+ * trabajando con el String de 36 caracteres.
+ */
+@Converter
+public class UuidBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String uuid) {
+        return uuid == null ? null : UuidUtil.toBytes(uuid);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return UuidUtil.fromBytes(bytes);
+    }
+}
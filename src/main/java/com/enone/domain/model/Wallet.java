@@ -3,6 +3,7 @@ package com.enone.domain.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -18,7 +19,9 @@ import java.time.Instant;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "wallets_ids")
+    @TableGenerator(name = "wallets_ids", table = "id_generators", pkColumnName = "entity_name",
+            valueColumnName = "next_val", pkColumnValue = "wallets", allocationSize = 20)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -39,6 +42,16 @@ public class Wallet {
     @Builder.Default
     private WalletStatus status = WalletStatus.ACTIVE;
 
+    // Modo "wallet caliente": los abonos se reparten en N slots (wallet_balance_slots)
+    @Column(name = "hot_slots")
+    private Integer hotSlots;
+
+    // Saldo en slots aún no consolidado; solo de lectura
+    @Formula("(CASE WHEN hot_slots IS NULL THEN 0 ELSE "
+            + "(SELECT COALESCE(SUM(s.balance), 0) FROM wallet_balance_slots s WHERE s.wallet_id = id) END)")
+    @Setter(AccessLevel.NONE)
+    private BigDecimal slotBalance;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -46,4 +59,25 @@ public class Wallet {
     @UpdateTimestamp
     @Column(nullable = false)
     private Instant updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Saldo lógico de la wallet: fila principal más los slots pendientes de consolidar.
+     * @return Saldo total disponible
+     */
+    public BigDecimal getBalance() {
+        return slotBalance == null ? balance : balance.add(slotBalance);
+    }
+
+    public boolean isHot() {
+        return hotSlots != null && hotSlots > 0;
+    }
+
+    /**
+     * Incorpora a la fila principal el saldo consolidado de los slots (ya puestos en cero).
+     * @param folded Suma de los slots consolidados
+     */
+    public void absorbSlots(BigDecimal folded) {
+        this.balance = this.balance.add(folded);
+        this.slotBalance = BigDecimal.ZERO;
+    }
+}
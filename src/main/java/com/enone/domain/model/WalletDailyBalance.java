@@ -0,0 +1,58 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Saldo de cierre de una wallet al final de un día (zona de los estados de cuenta).
+ * Hay una fila por wallet y por día desde su creación, haya o no movimientos, de modo
+ * que el saldo a una fecha y los totales diarios salen de una sola fila o un solo
+ * GROUP BY sin recorrer movimientos.
+ */
+@Entity
+@Table(name = "wallet_daily_balances",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_daily_balance_wallet_day", columnNames = {"wallet_id", "day"})
+        },
+        indexes = {
+                @Index(name = "idx_daily_balance_day", columnList = "day, currency")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletDailyBalance {
+
+    // Se insertan por lotes en el cierre diario
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "wallet_daily_balances_ids")
+    @TableGenerator(name = "wallet_daily_balances_ids", table = "id_generators", pkColumnName = "entity_name",
+            valueColumnName = "next_val", pkColumnValue = "wallet_daily_balances", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "closing_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal closingBalance;
+
+    @Column(name = "net_change", nullable = false, precision = 19, scale = 2)
+    private BigDecimal netChange;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,57 @@
+package com.enone.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado de cuenta mensual cerrado de una wallet. Se calcula una sola vez cuando
+ * termina el mes; el saldo inicial es el saldo final del estado anterior.
+ */
+@Entity
+@Table(name = "wallet_statements",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_statement_wallet_period", columnNames = {"wallet_id", "period"})
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletStatement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // Mes calendario en formato yyyy-MM
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "opening_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingBalance;
+
+    @Column(name = "closing_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal closingBalance;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "wallet_statement_totals", joinColumns = @JoinColumn(name = "statement_id"))
+    @Builder.Default
+    private List<StatementTypeTotal> totals = new ArrayList<>();
+
+    @Column(name = "closed_at", nullable = false)
+    private Instant closedAt;
+}
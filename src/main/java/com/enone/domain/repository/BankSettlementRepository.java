@@ -0,0 +1,23 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.BankSettlement;
+import com.enone.domain.model.TransactionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BankSettlementRepository extends JpaRepository<BankSettlement, Long> {
+
+    @Query("SELECT s.id FROM BankSettlement s WHERE s.status = :status AND s.updatedAt < :before ORDER BY s.updatedAt ASC")
+    List<Long> findIdsByStatusUpdatedBefore(
+            @Param("status") TransactionStatus status,
+            @Param("before") Instant before,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,33 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    // Toma una clave IN_PROGRESS cuyo lease venció; la condición arbitra entre nodos
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseUntil = :leaseUntil, r.requestHash = :requestHash " +
+            "WHERE r.id = :id AND r.status = com.enone.domain.model.IdempotencyStatus.IN_PROGRESS " +
+            "AND (r.leaseUntil IS NULL OR r.leaseUntil < :now)")
+    int claimExpiredLease(@Param("id") Long id,
+                          @Param("now") Instant now,
+                          @Param("leaseUntil") Instant leaseUntil,
+                          @Param("requestHash") String requestHash);
+}
@@ -0,0 +1,13 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+    List<JournalEntry> findByReference(String reference);
+}
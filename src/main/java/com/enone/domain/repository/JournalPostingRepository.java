@@ -0,0 +1,38 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.JournalPosting;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface JournalPostingRepository extends JpaRepository<JournalPosting, Long> {
+
+    List<JournalPosting> findByEntryId(Long entryId);
+
+    boolean existsByWalletId(Long walletId);
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM JournalPosting p WHERE p.walletId = :walletId")
+    BigDecimal sumByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT p.entryId FROM JournalPosting p GROUP BY p.entryId, p.currency HAVING SUM(p.amount) <> 0")
+    List<Long> findUnbalancedEntryIds(Pageable pageable);
+
+    // El saldo proyectado incluye los slots aún no consolidados de wallets calientes
+    @Query("SELECT w.id, " +
+            "w.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM WalletBalanceSlot s WHERE s.walletId = w.id), " +
+            "(SELECT COALESCE(SUM(p.amount), 0) FROM JournalPosting p WHERE p.walletId = w.id) " +
+            "FROM Wallet w WHERE " +
+            "w.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM WalletBalanceSlot s WHERE s.walletId = w.id) <> " +
+            "(SELECT COALESCE(SUM(p.amount), 0) FROM JournalPosting p WHERE p.walletId = w.id)")
+    List<Object[]> findWalletsOutOfBalance(Pageable pageable);
+
+    @Query("SELECT w.id FROM Wallet w WHERE NOT EXISTS " +
+            "(SELECT 1 FROM JournalPosting p WHERE p.walletId = w.id) AND w.balance <> 0")
+    List<Long> findWalletIdsWithoutPostings();
+}
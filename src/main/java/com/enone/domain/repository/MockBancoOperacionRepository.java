@@ -0,0 +1,13 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.MockBancoOperacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MockBancoOperacionRepository extends JpaRepository<MockBancoOperacion, Long> {
+
+    Optional<MockBancoOperacion> findByReferencia(String referencia);
+}
@@ -0,0 +1,45 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.ScheduledTransfer;
+import com.enone.domain.model.ScheduledTransferStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    /**
+     * Bloque de programaciones vencidas, por el índice (status, next_run_at).
+     * Las filas que otra instancia ya tiene bloqueadas se saltan (SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.status = :status AND s.nextRunAt <= :now ORDER BY s.nextRunAt ASC")
+    List<ScheduledTransfer> findDueForUpdate(
+            @Param("status") ScheduledTransferStatus status,
+            @Param("now") Instant now,
+            Pageable pageable
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.id = :id")
+    Optional<ScheduledTransfer> findLockedById(@Param("id") Long id);
+
+    List<ScheduledTransfer> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Optional<ScheduledTransfer> findByIdAndUserId(Long id, Long userId);
+
+    long countByUserIdAndStatus(Long userId, ScheduledTransferStatus status);
+}
@@ -0,0 +1,40 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.ScheduledRunStatus;
+import com.enone.domain.model.ScheduledTransferRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ScheduledTransferRunRepository extends JpaRepository<ScheduledTransferRun, Long> {
+
+    List<ScheduledTransferRun> findByScheduleIdOrderByScheduledForDesc(Long scheduleId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ScheduledTransferRun r SET r.status = :to, r.finishedAt = :now, r.errorMessage = :message "
+            + "WHERE r.status = :from AND r.startedAt < :before")
+    int markStale(
+            @Param("from") ScheduledRunStatus from,
+            @Param("to") ScheduledRunStatus to,
+            @Param("before") Instant before,
+            @Param("now") Instant now,
+            @Param("message") String message
+    );
+
+    // El worker toma la ejecución solo si sigue en cola (no se marcó como interrumpida)
+    @Modifying
+    @Query("UPDATE ScheduledTransferRun r SET r.status = :to, r.startedAt = :now WHERE r.id = :id AND r.status = :from")
+    int start(
+            @Param("id") Long id,
+            @Param("from") ScheduledRunStatus from,
+            @Param("to") ScheduledRunStatus to,
+            @Param("now") Instant now
+    );
+}
@@ -37,6 +37,21 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.walletId IN :walletIds ORDER BY t.createdAt DESC")
     List<Transaction> findLatestByWalletIds(@Param("walletIds") List<Long> walletIds, Pageable pageable);
 
+    // Keyset: primera página de una wallet, recorriendo idx_tx_wallet_created_id en orden inverso
+    @Query("SELECT t FROM Transaction t WHERE t.walletId = :walletId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findFirstPageByWalletId(@Param("walletId") Long walletId, Pageable pageable);
+
+    // Keyset: movimientos estrictamente anteriores al cursor (createdAt, id)
+    @Query("SELECT t FROM Transaction t WHERE t.walletId = :walletId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageByWalletIdBefore(
+            @Param("walletId") Long walletId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
     @Query("SELECT t FROM Transaction t ORDER BY t.createdAt DESC")
     List<Transaction> findLatestTransactions(Pageable pageable);
 
@@ -56,6 +71,58 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("status") TransactionStatus status
     );
 
+    // Estados de cuenta: totales por tipo de los movimientos aplicados (usa idx_tx_wallet_created_id)
+    @Query("SELECT t.type, COUNT(t), SUM(t.amount) FROM Transaction t " +
+            "WHERE t.walletId = :walletId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "AND (t.status = com.enone.domain.model.TransactionStatus.COMPLETED " +
+            "OR (t.status = com.enone.domain.model.TransactionStatus.PENDING " +
+            "AND t.type = com.enone.domain.model.TransactionType.WITHDRAWAL)) GROUP BY t.type")
+    List<Object[]> sumAppliedByTypeForWalletBetween(
+            @Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
+    // Aplicados al saldo: COMPLETED y retiros PENDING, que descuentan al registrarse
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+            "WHERE t.walletId = :walletId AND t.createdAt >= :since " +
+            "AND (t.status = com.enone.domain.model.TransactionStatus.COMPLETED " +
+            "OR (t.status = com.enone.domain.model.TransactionStatus.PENDING " +
+            "AND t.type = com.enone.domain.model.TransactionType.WITHDRAWAL))")
+    BigDecimal sumAppliedForWalletSince(
+            @Param("walletId") Long walletId,
+            @Param("since") Instant since
+    );
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+            "WHERE t.walletId = :walletId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "AND (t.status = com.enone.domain.model.TransactionStatus.COMPLETED " +
+            "OR (t.status = com.enone.domain.model.TransactionStatus.PENDING " +
+            "AND t.type = com.enone.domain.model.TransactionType.WITHDRAWAL))")
+    BigDecimal sumAppliedForWalletBetween(
+            @Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
+    @Query("SELECT t FROM Transaction t WHERE t.walletId = :walletId " +
+            "AND t.createdAt >= :from AND t.createdAt < :to ORDER BY t.createdAt ASC, t.id ASC")
+    List<Transaction> findByWalletIdBetween(
+            @Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
+    // Movimientos que consumen límite diario, para reconstruir los contadores en memoria
+    @Query("SELECT w.userId, t.currency, t.amount, t.createdAt FROM Transaction t " +
+            "JOIN Wallet w ON w.id = t.walletId " +
+            "WHERE t.type = :type AND t.status = :status AND t.createdAt >= :since")
+    List<Object[]> findVolumeRowsSince(
+            @Param("type") TransactionType type,
+            @Param("status") TransactionStatus status,
+            @Param("since") Instant since
+    );
+
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.walletId IN " +
             "(SELECT w.id FROM Wallet w WHERE w.userId = :userId) " +
             "AND t.createdAt >= :startDate")
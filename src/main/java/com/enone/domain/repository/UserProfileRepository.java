@@ -42,16 +42,4 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
     @Query("UPDATE UserProfile p SET p.dailyTransactionLimit = :newLimit, p.pendingNewLimit = null, " +
             "p.changeLimitCode = null, p.changeLimitExpiresAt = null, p.lastLimitChangeAt = :now WHERE p.userId = :userId")
     void confirmLimitChange(@Param("userId") Long userId, @Param("newLimit") BigDecimal newLimit, @Param("now") Instant now);
-
-    @Modifying
-    @Query("UPDATE UserProfile p SET p.dailyVolumePen = :volume WHERE p.userId = :userId")
-    void updateDailyVolumePen(@Param("userId") Long userId, @Param("volume") BigDecimal volume);
-
-    @Modifying
-    @Query("UPDATE UserProfile p SET p.dailyVolumeUsd = :volume WHERE p.userId = :userId")
-    void updateDailyVolumeUsd(@Param("userId") Long userId, @Param("volume") BigDecimal volume);
-
-    @Modifying
-    @Query("UPDATE UserProfile p SET p.dailyVolumePen = 0, p.dailyVolumeUsd = 0, p.lastVolumeResetAt = :now WHERE p.userId = :userId")
-    void resetDailyVolumes(@Param("userId") Long userId, @Param("now") Instant now);
 }
\ No newline at end of file
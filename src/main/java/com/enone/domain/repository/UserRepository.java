@@ -8,6 +8,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -22,6 +24,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u JOIN u.profile p WHERE p.email = :identifier OR p.phone = :identifier")
     Optional<User> findByEmailOrPhone(@Param("identifier") String identifier);
 
+    @Query("SELECT DISTINCT u FROM User u JOIN FETCH u.profile p LEFT JOIN FETCH u.roles " +
+            "WHERE p.email IN :identifiers OR p.phone IN :identifiers")
+    List<User> findAllByEmailOrPhoneIn(@Param("identifiers") Collection<String> identifiers);
+
     @Query("SELECT u FROM User u JOIN u.profile p WHERE p.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
@@ -36,6 +42,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("UPDATE User u SET u.deletionCode = :code, u.deletionCodeExpiresAt = :expiresAt WHERE u.id = :userId")
     void setDeletionCode(@Param("userId") Long userId, @Param("code") String code, @Param("expiresAt") Instant expiresAt);
 
+    @Query("SELECT u.id, u.username, p.firstName, p.lastName FROM User u LEFT JOIN u.profile p WHERE u.id IN :ids")
+    List<Object[]> findDisplayNameRowsByIdIn(@Param("ids") Collection<Long> ids);
+
     boolean existsByUsername(String username);
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.enabled = true")
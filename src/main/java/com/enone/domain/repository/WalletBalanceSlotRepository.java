@@ -0,0 +1,38 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.WalletBalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface WalletBalanceSlotRepository extends JpaRepository<WalletBalanceSlot, Long> {
+
+    // Abono atómico sobre un único slot: solo bloquea esa fila, no la wallet
+    @Modifying
+    @Query("UPDATE WalletBalanceSlot s SET s.balance = s.balance + :amount, s.updatedAt = :now " +
+            "WHERE s.walletId = :walletId AND s.slot = :slot")
+    int addToSlot(@Param("walletId") Long walletId,
+                  @Param("slot") Integer slot,
+                  @Param("amount") BigDecimal amount,
+                  @Param("now") Instant now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletBalanceSlot s WHERE s.walletId = :walletId ORDER BY s.slot ASC")
+    List<WalletBalanceSlot> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceSlot s WHERE s.walletId = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT DISTINCT s.walletId FROM WalletBalanceSlot s WHERE s.balance <> 0")
+    List<Long> findWalletIdsWithPendingSlots();
+}
@@ -0,0 +1,24 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.WalletDailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletDailyBalanceRepository extends JpaRepository<WalletDailyBalance, Long> {
+
+    Optional<WalletDailyBalance> findTopByWalletIdOrderByDayDesc(Long walletId);
+
+    // Búsqueda por (wallet_id, day) sobre la restricción única
+    Optional<WalletDailyBalance> findTopByWalletIdAndDayLessThanEqualOrderByDayDesc(Long walletId, LocalDate day);
+
+    @Query("SELECT d.day, d.currency, SUM(d.closingBalance), COUNT(d) FROM WalletDailyBalance d " +
+            "WHERE d.day >= :from AND d.day <= :to GROUP BY d.day, d.currency ORDER BY d.day ASC, d.currency ASC")
+    List<Object[]> sumClosingByDayAndCurrency(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
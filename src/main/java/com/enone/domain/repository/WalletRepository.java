@@ -2,12 +2,18 @@ package com.enone.domain.repository;
 
 import com.enone.domain.model.Wallet;
 import com.enone.domain.model.WalletStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,6 +25,19 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     Optional<Wallet> findByUserIdAndCurrency(Long userId, String currency);
 
+    @Query("SELECT w.id FROM Wallet w WHERE w.userId = :userId AND w.currency = :currency")
+    Optional<Long> findIdByUserIdAndCurrency(@Param("userId") Long userId, @Param("currency") String currency);
+
+    @Query("SELECT w.userId, w.id FROM Wallet w WHERE w.userId IN :userIds AND w.currency = :currency")
+    List<Object[]> findIdsByUserIdInAndCurrency(@Param("userIds") Collection<Long> userIds,
+            @Param("currency") String currency);
+
+    // Bloquea las filas en orden de id para evitar deadlocks entre operaciones cruzadas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id ASC")
+    List<Wallet> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT w FROM Wallet w WHERE w.userId = :userId AND w.currency = :currency AND w.status = :status")
     Optional<Wallet> findByUserIdAndCurrencyAndStatus(
             @Param("userId") Long userId,
@@ -35,10 +54,25 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     @Query("SELECT w FROM Wallet w WHERE w.userId = :userId ORDER BY w.createdAt ASC")
     List<Wallet> findByUserIdOrderByCreatedAt(@Param("userId") Long userId);
 
-    @Query("SELECT w.currency as currency, SUM(w.balance) as totalBalance FROM Wallet w " +
-            "WHERE w.status = 'ACTIVE' GROUP BY w.currency")
+    // Incluye el saldo aún no consolidado de los slots de wallets calientes
+    @Query(value = "SELECT t.currency AS currency, SUM(t.amount) AS totalBalance FROM (" +
+            "SELECT w.currency, w.balance AS amount FROM wallets w WHERE w.status = 'ACTIVE' " +
+            "UNION ALL " +
+            "SELECT w.currency, s.balance AS amount FROM wallet_balance_slots s " +
+            "JOIN wallets w ON w.id = s.wallet_id WHERE w.status = 'ACTIVE'" +
+            ") t GROUP BY t.currency", nativeQuery = true)
     List<Object[]> getSumOfBalancesByCurrency();
 
+    @Query("SELECT w.hotSlots FROM Wallet w WHERE w.id = :id")
+    Integer findHotSlotsById(@Param("id") Long id);
+
+    @Query("SELECT w.balance + COALESCE((SELECT SUM(s.balance) FROM WalletBalanceSlot s WHERE s.walletId = w.id), 0) " +
+            "FROM Wallet w WHERE w.id = :id")
+    BigDecimal findLogicalBalanceById(@Param("id") Long id);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.id > :afterId ORDER BY w.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds")
     List<Wallet> findByUserIdIn(@Param("userIds") List<Long> userIds);
 
@@ -0,0 +1,19 @@
+package com.enone.domain.repository;
+
+import com.enone.domain.model.WalletStatement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletStatementRepository extends JpaRepository<WalletStatement, Long> {
+
+    Optional<WalletStatement> findByWalletIdAndPeriod(Long walletId, String period);
+
+    // El formato yyyy-MM ordena lexicográficamente igual que cronológicamente
+    Optional<WalletStatement> findTopByWalletIdOrderByPeriodDesc(Long walletId);
+
+    List<WalletStatement> findByWalletIdAndPeriodGreaterThanEqual(Long walletId, String period);
+}
@@ -24,6 +24,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String EVENT_STREAM_PATH = "/api/wallet/events";
+
     private final JwtService jwtService;
 
     @Override
@@ -39,13 +41,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt;
         final String username;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        } else if (EVENT_STREAM_PATH.equals(request.getServletPath()) && request.getParameter("access_token") != null) {
+            // EventSource no permite enviar headers: el stream de eventos acepta el token como parámetro
+            jwt = request.getParameter("access_token");
+        } else {
             log.info("No hay token JWT en el header Authorization para: {}", requestURI);
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
         log.info("Token JWT encontrado para: {}", requestURI);
 
         try {
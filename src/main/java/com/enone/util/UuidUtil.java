@@ -0,0 +1,66 @@
+package com.enone.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identificadores UUID ordenados por tiempo (versión 7, RFC 9562) y su forma binaria.
+ *
+ * Los primeros 48 bits son el instante en milisegundos y los 12 siguientes un
+ * contador que arranca en un valor aleatorio en cada milisegundo, así que los ids
+ * generados en este proceso son estrictamente crecientes. Guardados como
+ * BINARY(16) en orden big-endian, cada INSERT cae al final del índice único en
+ * vez de en una hoja aleatoria.
+ */
+public final class UuidUtil {
+
+    private static final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    private UuidUtil() {
+    }
+
+    public static UUID timeOrdered() {
+        long now = System.currentTimeMillis();
+        long next;
+        while (true) {
+            long previous = lastTimeAndSequence.get();
+            if (now > previous >>> 12) {
+                // Milisegundo nuevo: el contador empieza bajo para dejar margen a la ráfaga
+                next = (now << 12) | ThreadLocalRandom.current().nextLong(0x400);
+            } else {
+                // Mismo milisegundo (o reloj atrasado): si el contador se desborda avanza el tiempo
+                next = previous + 1;
+            }
+            if (lastTimeAndSequence.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+
+        long millis = next >>> 12;
+        long sequence = next & 0xFFF;
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static byte[] toBytes(String uuid) {
+        return toBytes(UUID.fromString(uuid));
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
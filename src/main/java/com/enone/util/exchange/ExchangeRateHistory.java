@@ -0,0 +1,324 @@
+package com.enone.util.exchange;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Histórico de tipos de cambio por par, agregado en velas por minuto, hora y día.
+ *
+ * Cada resolución es un anillo de arreglos primitivos (inicio del bucket, apertura,
+ * máximo, mínimo, cierre y muestras) indexado por bucket, así que registrar una
+ * muestra no crea objetos y la memoria por par es fija. Las horas se copian a
+ * {@code exchange_rate_hourly} y al arrancar se recargan, de donde salen también los
+ * días; los minutos solo viven en memoria. El último cierre de cada par es el tipo
+ * de cambio de respaldo cuando el snapshot no tiene el par.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ExchangeRateHistory {
+
+    public enum Resolution {
+        MINUTE(60), HOUR(3_600), DAY(86_400);
+
+        private final long seconds;
+
+        Resolution(long seconds) {
+            this.seconds = seconds;
+        }
+
+        public long seconds() {
+            return seconds;
+        }
+    }
+
+    public record Point(Instant start, double open, double high, double low, double close, int samples) {
+    }
+
+    private static final Pattern PAIR = Pattern.compile("^[A-Z]{3}-[A-Z]{3}$");
+
+    private static final String LOAD_SQL = "SELECT pair, bucket_start, open_rate, high_rate, low_rate, close_rate, "
+            + "samples FROM exchange_rate_hourly WHERE bucket_start >= ? ORDER BY pair, bucket_start";
+    private static final String UPSERT_SQL = "INSERT INTO exchange_rate_hourly (pair, bucket_start, open_rate, "
+            + "high_rate, low_rate, close_rate, samples) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE open_rate = VALUES(open_rate), high_rate = VALUES(high_rate), "
+            + "low_rate = VALUES(low_rate), close_rate = VALUES(close_rate), samples = VALUES(samples)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int minuteCapacity;
+    private final int hourCapacity;
+    private final int dayCapacity;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public ExchangeRateHistory(JdbcTemplate jdbcTemplate,
+                               @Value("${app.exchange.history.minute-retention-hours:24}") int minuteRetentionHours,
+                               @Value("${app.exchange.history.hour-retention-days:90}") int hourRetentionDays,
+                               @Value("${app.exchange.history.day-retention-days:730}") int dayRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minuteCapacity = Math.max(minuteRetentionHours, 1) * 60;
+        this.hourCapacity = Math.max(hourRetentionDays, 1) * 24;
+        this.dayCapacity = Math.max(dayRetentionDays, 1);
+    }
+
+    @PostConstruct
+    void load() {
+        Instant since = Instant.now().minus(Duration.ofDays(dayCapacity));
+        int[] rows = {0};
+        try {
+            jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+                series(rs.getString(1)).restoreHour(rs.getTimestamp(2).toInstant().getEpochSecond(),
+                        rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6), rs.getInt(7));
+                rows[0]++;
+            }, Timestamp.from(since));
+            log.info("Histórico de tipos de cambio cargado: {} horas de {} pares", rows[0], series.size());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el histórico de tipos de cambio: {}", e.getMessage());
+        }
+    }
+
+    public void record(String fromCurrency, String toCurrency, BigDecimal rate, Instant at) {
+        if (rate == null || rate.signum() <= 0) {
+            return;
+        }
+        series(pair(fromCurrency, toCurrency)).record(at.getEpochSecond(), rate.doubleValue());
+    }
+
+    /**
+     * Último tipo de cambio registrado para el par, directo o invertido.
+     */
+    public Optional<BigDecimal> lastKnown(String fromCurrency, String toCurrency) {
+        return lastKnown(fromCurrency, toCurrency, Instant.EPOCH);
+    }
+
+    /**
+     * Último tipo de cambio registrado para el par desde {@code notBefore}; uno más
+     * antiguo no cuenta.
+     */
+    public Optional<BigDecimal> lastKnown(String fromCurrency, String toCurrency, Instant notBefore) {
+        long since = notBefore.getEpochSecond();
+        Series direct = series.get(pair(fromCurrency, toCurrency));
+        double rate = direct != null ? direct.lastRate(since) : Double.NaN;
+        if (Double.isNaN(rate)) {
+            Series inverse = series.get(pair(toCurrency, fromCurrency));
+            double inverseRate = inverse != null ? inverse.lastRate(since) : Double.NaN;
+            rate = Double.isNaN(inverseRate) ? Double.NaN : 1.0 / inverseRate;
+        }
+        return Double.isNaN(rate) ? Optional.empty() : Optional.of(BigDecimal.valueOf(rate));
+    }
+
+    /**
+     * Resolución más fina que cubre el rango completo.
+     */
+    public Resolution resolutionFor(Duration range) {
+        long seconds = range.toSeconds();
+        if (seconds <= minuteCapacity * Resolution.MINUTE.seconds()) {
+            return Resolution.MINUTE;
+        }
+        if (seconds <= hourCapacity * Resolution.HOUR.seconds()) {
+            return Resolution.HOUR;
+        }
+        return Resolution.DAY;
+    }
+
+    public Duration maxRange() {
+        return Duration.ofDays(dayCapacity);
+    }
+
+    /**
+     * Velas del par entre {@code from} y {@code to}; los buckets sin muestras se omiten.
+     * @param pair Par en formato FROM-TO
+     */
+    public List<Point> series(String pair, Resolution resolution, Instant from, Instant to) {
+        Series s = series.get(pair);
+        return s == null ? List.of() : s.range(resolution, from.getEpochSecond(), to.getEpochSecond());
+    }
+
+    public static boolean isValidPair(String pair) {
+        return pair != null && PAIR.matcher(pair).matches();
+    }
+
+    @Scheduled(fixedDelayString = "${app.exchange.history.flush-interval-ms:60000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Series s : series.values()) {
+            s.drainDirtyHours(rows);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            log.debug("Histórico de tipos de cambio: {} horas guardadas", rows.size());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar el histórico de tipos de cambio: {}", e.getMessage());
+            for (Object[] row : rows) {
+                series((String) row[0]).markDirty(((Timestamp) row[1]).toInstant().getEpochSecond());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.exchange.history.purge-cron:0 30 3 * * *}", zone = "${app.statements.zone:America/Lima}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(dayCapacity));
+        int deleted = jdbcTemplate.update("DELETE FROM exchange_rate_hourly WHERE bucket_start < ?",
+                Timestamp.from(cutoff));
+        if (deleted > 0) {
+            log.info("Histórico de tipos de cambio: {} horas anteriores a {} eliminadas", deleted, cutoff);
+        }
+    }
+
+    private Series series(String pair) {
+        return series.computeIfAbsent(pair, Series::new);
+    }
+
+    private static String pair(String fromCurrency, String toCurrency) {
+        return fromCurrency + "-" + toCurrency;
+    }
+
+    private final class Series {
+
+        private final String pair;
+        private final Ring minutes = new Ring(Resolution.MINUTE.seconds(), minuteCapacity);
+        private final Ring hours = new Ring(Resolution.HOUR.seconds(), hourCapacity);
+        private final Ring days = new Ring(Resolution.DAY.seconds(), dayCapacity);
+        private final Set<Long> dirtyHours = new HashSet<>();
+        private long lastAt = Long.MIN_VALUE;
+        private double lastRate = Double.NaN;
+
+        private Series(String pair) {
+            this.pair = pair;
+        }
+
+        synchronized void record(long epochSecond, double rate) {
+            minutes.add(epochSecond, rate, rate, rate, rate, 1);
+            hours.add(epochSecond, rate, rate, rate, rate, 1);
+            days.add(epochSecond, rate, rate, rate, rate, 1);
+            dirtyHours.add(hours.bucket(epochSecond));
+            if (epochSecond >= lastAt) {
+                lastAt = epochSecond;
+                lastRate = rate;
+            }
+        }
+
+        synchronized void restoreHour(long hourStart, double open, double high, double low, double close,
+                                      int samples) {
+            hours.add(hourStart, open, high, low, close, samples);
+            days.add(hourStart, open, high, low, close, samples);
+            if (hourStart >= lastAt) {
+                lastAt = hourStart;
+                lastRate = close;
+            }
+        }
+
+        synchronized double lastRate(long notBefore) {
+            return lastAt >= notBefore ? lastRate : Double.NaN;
+        }
+
+        synchronized List<Point> range(Resolution resolution, long fromSecond, long toSecond) {
+            Ring ring = switch (resolution) {
+                case MINUTE -> minutes;
+                case HOUR -> hours;
+                case DAY -> days;
+            };
+            return ring.range(fromSecond, toSecond);
+        }
+
+        synchronized void markDirty(long hourStart) {
+            dirtyHours.add(hourStart);
+        }
+
+        synchronized void drainDirtyHours(List<Object[]> rows) {
+            for (Long hourStart : dirtyHours) {
+                int i = hours.slot(hourStart);
+                if (hours.starts[i] == hourStart) {
+                    rows.add(new Object[]{pair, Timestamp.from(Instant.ofEpochSecond(hourStart)),
+                            BigDecimal.valueOf(hours.open[i]), BigDecimal.valueOf(hours.high[i]),
+                            BigDecimal.valueOf(hours.low[i]), BigDecimal.valueOf(hours.close[i]), hours.samples[i]});
+                }
+            }
+            dirtyHours.clear();
+        }
+    }
+
+    private static final class Ring {
+
+        private final long step;
+        private final long[] starts;
+        private final double[] open;
+        private final double[] high;
+        private final double[] low;
+        private final double[] close;
+        private final int[] samples;
+
+        Ring(long step, int capacity) {
+            this.step = step;
+            this.starts = new long[capacity];
+            this.open = new double[capacity];
+            this.high = new double[capacity];
+            this.low = new double[capacity];
+            this.close = new double[capacity];
+            this.samples = new int[capacity];
+            Arrays.fill(starts, Long.MIN_VALUE);
+        }
+
+        long bucket(long epochSecond) {
+            return Math.floorDiv(epochSecond, step) * step;
+        }
+
+        int slot(long bucket) {
+            return (int) Math.floorMod(Math.floorDiv(bucket, step), (long) starts.length);
+        }
+
+        void add(long epochSecond, double o, double h, double l, double c, int n) {
+            long bucket = bucket(epochSecond);
+            int i = slot(bucket);
+            if (starts[i] == bucket) {
+                high[i] = Math.max(high[i], h);
+                low[i] = Math.min(low[i], l);
+                close[i] = c;
+                samples[i] += n;
+            } else if (starts[i] < bucket) {
+                // El slot tenía un bucket de una vuelta anterior del anillo
+                starts[i] = bucket;
+                open[i] = o;
+                high[i] = h;
+                low[i] = l;
+                close[i] = c;
+                samples[i] = n;
+            }
+        }
+
+        List<Point> range(long fromSecond, long toSecond) {
+            long first = Math.max(bucket(fromSecond), bucket(toSecond) - (starts.length - 1) * step);
+            List<Point> points = new ArrayList<>();
+            for (long bucket = first; bucket <= toSecond; bucket += step) {
+                int i = slot(bucket);
+                if (starts[i] == bucket) {
+                    points.add(new Point(Instant.ofEpochSecond(bucket), open[i], high[i], low[i], close[i],
+                            samples[i]));
+                }
+            }
+            return points;
+        }
+    }
+}
@@ -6,9 +6,21 @@ public interface ExchangeRateService {
     
 
     BigDecimal getRate(String fromCurrency, String toCurrency);
+
+    /**
+     * Tipo de cambio para operaciones que mueven dinero: a diferencia de
+     * {@link #getRate}, rechaza con 503 una cotización más antigua que el máximo
+     * configurado en vez de servirla.
+     */
+    BigDecimal getSettlementRate(String fromCurrency, String toCurrency);
     
 
     BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency);
 
     boolean isServiceAvailable();
-}
\ No newline at end of file
+
+    /**
+     * Snapshot vigente de las tablas de tipos de cambio; nunca hace I/O.
+     */
+    ExchangeRateSnapshot getSnapshot();
+}
@@ -0,0 +1,92 @@
+package com.enone.util.exchange;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tablas de tipos de cambio por moneda base tal como llegaron de la API. Es inmutable:
+ * cada refresco construye un snapshot nuevo y lo publica de una sola vez.
+ *
+ * Un par sin cotización directa se deriva de cualquier tabla que tenga ambas monedas
+ * (cruce) o de la tabla de la moneda destino (inversa).
+ */
+public final class ExchangeRateSnapshot {
+
+    public static final ExchangeRateSnapshot EMPTY = new ExchangeRateSnapshot(Map.of());
+
+    private final Map<String, Table> tables;
+
+    public ExchangeRateSnapshot(Map<String, Table> tables) {
+        this.tables = Map.copyOf(tables);
+    }
+
+    public Map<String, Table> tables() {
+        return tables;
+    }
+
+    public boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    /**
+     * Fecha de la tabla más antigua del snapshot, o vacío si no hay tablas.
+     */
+    public Optional<Instant> asOf() {
+        return tables.values().stream().map(Table::fetchedAt).min(Instant::compareTo);
+    }
+
+    public Optional<Duration> age(Instant now) {
+        return asOf().map(asOf -> Duration.between(asOf, now));
+    }
+
+    /**
+     * Snapshot con solo las tablas obtenidas desde {@code notBefore}.
+     */
+    public ExchangeRateSnapshot fetchedSince(Instant notBefore) {
+        Map<String, Table> fresh = new HashMap<>();
+        tables.forEach((base, table) -> {
+            if (!table.fetchedAt().isBefore(notBefore)) {
+                fresh.put(base, table);
+            }
+        });
+        return fresh.size() == tables.size() ? this : new ExchangeRateSnapshot(fresh);
+    }
+
+    public Optional<BigDecimal> rate(String from, String to) {
+        if (from.equals(to)) {
+            return Optional.of(BigDecimal.ONE);
+        }
+        Table direct = tables.get(from);
+        if (direct != null && direct.rates().containsKey(to)) {
+            return Optional.of(direct.rates().get(to));
+        }
+        for (Table table : tables.values()) {
+            BigDecimal baseToFrom = table.rate(from);
+            BigDecimal baseToTo = table.rate(to);
+            if (baseToFrom != null && baseToTo != null && baseToFrom.signum() > 0) {
+                return Optional.of(baseToTo.divide(baseToFrom, MathContext.DECIMAL64));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Cotizaciones de 1 unidad de {@code base} en cada moneda, con la fuente y el
+     * momento en que se obtuvieron.
+     */
+    public record Table(String base, Map<String, BigDecimal> rates, String source, Instant fetchedAt) {
+
+        public Table {
+            rates = Map.copyOf(rates);
+        }
+
+        BigDecimal rate(String currency) {
+            return base.equals(currency) ? BigDecimal.ONE : rates.get(currency);
+        }
+    }
+}
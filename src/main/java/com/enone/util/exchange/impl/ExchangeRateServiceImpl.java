@@ -1,80 +1,246 @@
 package com.enone.util.exchange.impl;
 
 import com.enone.exception.ApiException;
+import com.enone.util.exchange.ExchangeRateHistory;
 import com.enone.util.exchange.ExchangeRateService;
+import com.enone.util.exchange.ExchangeRateSnapshot;
+import com.enone.util.exchange.ExchangeRateSnapshot.Table;
+import com.enone.util.http.OutboundHttpClients;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Tipos de cambio servidos desde un snapshot en memoria.
+ *
+ * Un job descarga la tabla completa de cada moneda base configurada (API primaria y,
+ * si falla, la de respaldo) y publica un snapshot nuevo; los pares sin cotización
+ * directa se derivan por cruce. Las consultas nunca esperan a la red: si el snapshot
+ * está vencido se sirve igual y se lanza un refresco en segundo plano. Cada refresco
+ * se registra en {@link ExchangeRateHistory}, cuyo último valor se usa mientras el
+ * snapshot no tenga el par (por ejemplo, justo después de arrancar).
+ *
+ * Esa tolerancia sin límite es solo para mostrar tipos de cambio: conversiones y
+ * cotizaciones usan {@link #getSettlementRate}, que descarta tablas y registros más
+ * antiguos que {@code app.exchange.max-staleness-ms}.
+ */
 @Slf4j
 @Service
 public class ExchangeRateServiceImpl implements ExchangeRateService {
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ExchangeRateHistory history;
     private final String primaryApiUrl;
     private final String fallbackApiUrl;
+    private final List<String> baseCurrencies;
+    private final Duration staleAfter;
+    private final Duration maxStaleness;
+    private final ThreadPoolExecutor refresher;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.EMPTY;
     
-    public ExchangeRateServiceImpl(RestTemplate restTemplate,
+    public ExchangeRateServiceImpl(OutboundHttpClients outboundHttpClients,
                                   ObjectMapper objectMapper,
+                                  ExchangeRateHistory history,
                                   @Value("${app.exchange.primary-api:https://api.exchangerate-api.com/v4/latest/}") String primaryApiUrl,
-                                  @Value("${app.exchange.fallback-api:https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies/}") String fallbackApiUrl) {
-        this.restTemplate = restTemplate;
+                                  @Value("${app.exchange.fallback-api:https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies/}") String fallbackApiUrl,
+                                  @Value("${app.exchange.base-currencies:PEN,USD,EUR}") String baseCurrencies,
+                                  @Value("${app.exchange.stale-after-ms:300000}") long staleAfterMs,
+                                  @Value("${app.exchange.max-staleness-ms:3600000}") long maxStalenessMs) {
+        this.restTemplate = outboundHttpClients.restTemplate("exchange-rates");
         this.objectMapper = objectMapper;
+        this.history = history;
         this.primaryApiUrl = primaryApiUrl;
         this.fallbackApiUrl = fallbackApiUrl;
+        this.baseCurrencies = Arrays.stream(baseCurrencies.split(","))
+                .map(String::trim)
+                .filter(currency -> !currency.isEmpty())
+                .map(currency -> currency.toUpperCase(Locale.ROOT))
+                .distinct()
+                .toList();
+        this.staleAfter = Duration.ofMillis(Math.max(staleAfterMs, 1000));
+        this.maxStaleness = Duration.ofMillis(Math.max(maxStalenessMs, staleAfter.toMillis()));
+        this.refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                task -> {
+                    Thread thread = new Thread(task, "exchange-rate-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
     }
     
     @Override
-    @Cacheable(value = "exchangeRates", key = "#fromCurrency + '_' + #toCurrency")
     public BigDecimal getRate(String fromCurrency, String toCurrency) {
-        log.info("Obteniendo tipo de cambio: {} -> {}", fromCurrency, toCurrency);
-        
         if (fromCurrency.equals(toCurrency)) {
             return BigDecimal.ONE;
         }
-        
-        try {
-            return getRateFromPrimaryAPI(fromCurrency, toCurrency);
-        } catch (Exception e) {
-            log.warn("API primaria falló, intentando fallback: {}", e.getMessage());
-            try {
-                return getRateFromFallbackAPI(fromCurrency, toCurrency);
-            } catch (Exception e2) {
-                log.warn("API fallback falló, usando tasas estáticas: {}", e2.getMessage());
-                return getStaticFallbackRate(fromCurrency, toCurrency);
-            }
+
+        ExchangeRateSnapshot current = snapshot;
+        if (isStale(current, Instant.now())) {
+            refreshAsync();
         }
+
+        return current.rate(fromCurrency, toCurrency)
+                .map(rate -> rate.setScale(4, RoundingMode.HALF_UP))
+                .or(() -> lastKnownRate(fromCurrency, toCurrency, Instant.EPOCH))
+                .orElseThrow(() -> new ApiException(503,
+                        "Tipo de cambio no disponible para " + fromCurrency + " -> " + toCurrency));
+    }
+
+    @Override
+    public BigDecimal getSettlementRate(String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency)) {
+            return BigDecimal.ONE;
+        }
+
+        Instant now = Instant.now();
+        ExchangeRateSnapshot current = snapshot;
+        if (isStale(current, now)) {
+            refreshAsync();
+        }
+
+        Instant notBefore = now.minus(maxStaleness);
+        return current.fetchedSince(notBefore).rate(fromCurrency, toCurrency)
+                .map(rate -> rate.setScale(4, RoundingMode.HALF_UP))
+                .or(() -> lastKnownRate(fromCurrency, toCurrency, notBefore))
+                .orElseThrow(() -> {
+                    log.warn("Tipo de cambio {} -> {} sin cotización posterior a {}", fromCurrency, toCurrency,
+                            notBefore);
+                    return new ApiException(503, "Tipo de cambio desactualizado para " + fromCurrency + " -> "
+                            + toCurrency + ", intente nuevamente más tarde");
+                });
     }
     
     @Override
     public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
-        BigDecimal rate = getRate(fromCurrency, toCurrency);
+        BigDecimal rate = getSettlementRate(fromCurrency, toCurrency);
         return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
     }
     
     @Override
     public boolean isServiceAvailable() {
+        ExchangeRateSnapshot current = snapshot;
+        return !current.isEmpty() && !isStale(current, Instant.now());
+    }
+
+    @Override
+    public ExchangeRateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // La descarga corre en su propio hilo para no retener el scheduler compartido con los demás jobs
+    @Scheduled(fixedDelayString = "${app.exchange.refresh-interval-ms:60000}")
+    public void scheduleRefresh() {
+        refreshAsync();
+    }
+
+    /**
+     * Descarga las tablas de todas las monedas base y publica el snapshot. Una base
+     * que falla en ambas APIs conserva la tabla anterior.
+     */
+    void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<String, Table> tables = new HashMap<>(snapshot.tables());
+            int refreshed = 0;
+            for (String base : baseCurrencies) {
+                Table table = fetchTable(base);
+                if (table != null) {
+                    tables.put(base, table);
+                    refreshed++;
+                }
+            }
+            if (refreshed > 0) {
+                ExchangeRateSnapshot refreshedSnapshot = new ExchangeRateSnapshot(tables);
+                snapshot = refreshedSnapshot;
+                recordHistory(refreshedSnapshot);
+            }
+            log.debug("Snapshot de tipos de cambio: {}/{} tablas actualizadas", refreshed, baseCurrencies.size());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void recordHistory(ExchangeRateSnapshot current) {
+        Instant now = Instant.now();
+        for (String from : baseCurrencies) {
+            for (String to : baseCurrencies) {
+                if (!from.equals(to)) {
+                    current.rate(from, to).ifPresent(rate -> history.record(from, to, rate, now));
+                }
+            }
+        }
+    }
+
+    private Optional<BigDecimal> lastKnownRate(String from, String to, Instant notBefore) {
+        Optional<BigDecimal> rate = history.lastKnown(from, to, notBefore).map(r -> r.setScale(4, RoundingMode.HALF_UP));
+        rate.ifPresent(r -> log.info("Usando último tipo de cambio conocido para {} -> {}: {}", from, to, r));
+        return rate;
+    }
+
+    private boolean isStale(ExchangeRateSnapshot current, Instant now) {
+        return current.age(now).map(age -> age.compareTo(staleAfter) > 0).orElse(true);
+    }
+
+    private void refreshAsync() {
+        if (refreshing.get()) {
+            return;
+        }
+        try {
+            refresher.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            // Ya hay un refresco encolado
+        }
+    }
+
+    private Table fetchTable(String base) {
         try {
-            getRate("USD", "PEN");
-            return true;
+            return getTableFromPrimaryAPI(base);
         } catch (Exception e) {
-            log.warn("Servicio de tipos de cambio no disponible: {}", e.getMessage());
-            return false;
+            log.warn("API primaria falló para {}, intentando fallback: {}", base, e.getMessage());
+            try {
+                return getTableFromFallbackAPI(base);
+            } catch (Exception e2) {
+                log.warn("API fallback falló para {}, se conserva la tabla anterior: {}", base, e2.getMessage());
+                return null;
+            }
         }
     }
     
-    private BigDecimal getRateFromPrimaryAPI(String from, String to) {
+    private Table getTableFromPrimaryAPI(String base) {
         try {
-            String url = primaryApiUrl + from;
+            String url = primaryApiUrl + base;
             ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
             
             if (!response.getStatusCode().is2xxSuccessful()) {
@@ -82,25 +248,18 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             }
             
             JsonNode json = objectMapper.readTree(response.getBody());
-            JsonNode rates = json.get("rates");
-            
-            if (!rates.has(to)) {
-                throw new ApiException(400, "Moneda no soportada: " + to);
-            }
-            
-            BigDecimal rate = rates.get(to).decimalValue();
-            log.info("Tipo de cambio obtenido desde API primaria: 1 {} = {} {}", from, rate, to);
-            
-            return rate.setScale(4, RoundingMode.HALF_UP);
+            Table table = new Table(base, readRates(json.get("rates")), "primary", Instant.now());
+            log.info("Tabla de tipos de cambio {} obtenida desde API primaria: {} monedas", base, table.rates().size());
+            return table;
             
         } catch (Exception e) {
             throw new RuntimeException("Error en API primaria: " + e.getMessage(), e);
         }
     }
     
-    private BigDecimal getRateFromFallbackAPI(String from, String to) {
+    private Table getTableFromFallbackAPI(String base) {
         try {
-            String url = fallbackApiUrl + from.toLowerCase() + ".json";
+            String url = fallbackApiUrl + base.toLowerCase(Locale.ROOT) + ".json";
             ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
             
             if (!response.getStatusCode().is2xxSuccessful()) {
@@ -108,45 +267,30 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             }
             
             JsonNode json = objectMapper.readTree(response.getBody());
-            JsonNode rates = json.get(from.toLowerCase());
-            
-            if (!rates.has(to.toLowerCase())) {
-                throw new ApiException(400, "Moneda no soportada: " + to);
-            }
-            
-            BigDecimal rate = rates.get(to.toLowerCase()).decimalValue();
-            log.info("Tipo de cambio desde fallback API: 1 {} = {} {}", from, rate, to);
-            
-            return rate.setScale(4, RoundingMode.HALF_UP);
+            Table table = new Table(base, readRates(json.get(base.toLowerCase(Locale.ROOT))), "fallback", Instant.now());
+            log.info("Tabla de tipos de cambio {} obtenida desde fallback API: {} monedas", base, table.rates().size());
+            return table;
             
         } catch (Exception e) {
             throw new RuntimeException("Error en fallback API: " + e.getMessage(), e);
         }
     }
-    
-    private BigDecimal getStaticFallbackRate(String from, String to) {
-        log.info("Usando tasas estáticas para: {} -> {}", from, to);
-        
 
-        if ("PEN".equals(from) && "USD".equals(to)) {
-            return new BigDecimal("0.2700");
-        }
-        if ("USD".equals(from) && "PEN".equals(to)) {
-            return new BigDecimal("3.7000");
+    private static Map<String, BigDecimal> readRates(JsonNode rates) {
+        if (rates == null || !rates.isObject()) {
+            throw new ApiException(502, "Respuesta sin tabla de tipos de cambio");
         }
-        if ("EUR".equals(from) && "USD".equals(to)) {
-            return new BigDecimal("1.0800");
-        }
-        if ("USD".equals(from) && "EUR".equals(to)) {
-            return new BigDecimal("0.9260");
-        }
-        if ("EUR".equals(from) && "PEN".equals(to)) {
-            return new BigDecimal("4.0000");
+        Map<String, BigDecimal> result = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = rates.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNumber() && field.getValue().decimalValue().signum() > 0) {
+                result.put(field.getKey().toUpperCase(Locale.ROOT), field.getValue().decimalValue());
+            }
         }
-        if ("PEN".equals(from) && "EUR".equals(to)) {
-            return new BigDecimal("0.2500");
+        if (result.isEmpty()) {
+            throw new ApiException(502, "Tabla de tipos de cambio vacía");
         }
-        
-        throw new ApiException(400, "Conversión no soportada: " + from + " -> " + to);
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.enone.util.http;
+
+import java.io.IOException;
+
+/**
+ * Llamada saliente descartada antes de tocar la red: circuito abierto o sin cupo
+ * en el bulkhead de la integración. RestTemplate la entrega envuelta en una
+ * {@link org.springframework.web.client.ResourceAccessException}.
+ */
+public class OutboundCallRejectedException extends IOException {
+
+    public OutboundCallRejectedException(String message) {
+        super(message);
+    }
+}
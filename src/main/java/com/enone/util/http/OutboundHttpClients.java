@@ -0,0 +1,58 @@
+package com.enone.util.http;
+
+import com.enone.web.dto.admin.OutboundHttpStats;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de integraciones salientes. Cada servicio que llama a un proveedor externo
+ * pide aquí su RestTemplate por nombre; la configuración sale de
+ * {@code app.http.integrations.<nombre>.*} y lo que falte, de {@code app.http.defaults.*}.
+ */
+@Component
+public class OutboundHttpClients {
+
+    private static final String DEFAULTS = "app.http.defaults.";
+    private static final String INTEGRATIONS = "app.http.integrations.";
+
+    private final Environment environment;
+    private final Map<String, OutboundIntegration> integrations = new ConcurrentHashMap<>();
+
+    public OutboundHttpClients(Environment environment) {
+        this.environment = environment;
+    }
+
+    public RestTemplate restTemplate(String integration) {
+        return integrations.computeIfAbsent(integration, name -> new OutboundIntegration(name, settings(name)))
+                .getRestTemplate();
+    }
+
+    public List<OutboundHttpStats> stats() {
+        return integrations.values().stream()
+                .sorted(Comparator.comparing(OutboundIntegration::getName))
+                .map(OutboundIntegration::stats)
+                .toList();
+    }
+
+    private OutboundIntegration.Settings settings(String name) {
+        return new OutboundIntegration.Settings(
+                Duration.ofMillis(property(name, "connect-timeout-ms", 2000L)),
+                Duration.ofMillis(property(name, "read-timeout-ms", 5000L)),
+                property(name, "max-concurrent", 10L).intValue(),
+                Duration.ofMillis(property(name, "acquire-timeout-ms", 0L)),
+                property(name, "failure-threshold", 5L).intValue(),
+                Duration.ofMillis(property(name, "open-ms", 30000L)));
+    }
+
+    private Long property(String integration, String key, long defaultValue) {
+        Long fallback = environment.getProperty(DEFAULTS + key, Long.class, defaultValue);
+        return environment.getProperty(INTEGRATIONS + integration + "." + key, Long.class, fallback);
+    }
+}
@@ -0,0 +1,267 @@
+package com.enone.util.http;
+
+import com.enone.web.dto.admin.OutboundHttpStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cliente saliente de una integración externa (un proveedor, uno o pocos hosts).
+ *
+ * Cada integración tiene su propio {@link HttpClient} del JDK, que mantiene el pool
+ * de conexiones por host, con timeouts de conexión y de respuesta propios. Las
+ * llamadas pasan por un bulkhead (máximo de llamadas simultáneas) y un circuit
+ * breaker: tras {@code failureThreshold} fallos seguidos el circuito se abre y las
+ * llamadas fallan al instante durante {@code openDuration}; luego se deja pasar una
+ * sola llamada de prueba que lo cierra o lo vuelve a abrir. Cuentan como fallo los
+ * errores de red y las respuestas 5xx.
+ */
+@Slf4j
+public class OutboundIntegration implements ClientHttpRequestInterceptor {
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(Duration connectTimeout, Duration readTimeout, int maxConcurrent,
+                           Duration acquireTimeout, int failureThreshold, Duration openDuration) {
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final RestTemplate restTemplate;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    public OutboundIntegration(String name, Settings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.permits = new Semaphore(Math.max(settings.maxConcurrent(), 1));
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(settings.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.readTimeout());
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.setInterceptors(List.of(this));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        boolean trial = acquireCircuit();
+        if (!acquirePermit()) {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+            bulkheadRejections.increment();
+            throw new OutboundCallRejectedException("Integración " + name + " sin capacidad disponible");
+        }
+
+        calls.increment();
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            recordLatency(start);
+            failures.increment();
+            if (isTimeout(e)) {
+                timeouts.increment();
+            }
+            onFailure(trial);
+            log.warn("Llamada a {} falló ({} {}): {}", name, request.getMethod(), request.getURI().getHost(),
+                    e.getMessage());
+            throw e;
+        }
+
+        recordLatency(start);
+        if (response.getStatusCode().is5xxServerError()) {
+            failures.increment();
+            onFailure(trial);
+        } else {
+            successes.increment();
+            onSuccess(trial);
+        }
+        // El cupo se libera cuando RestTemplate termina de leer y cierra la respuesta
+        return new PermitReleasingResponse(response);
+    }
+
+    public OutboundHttpStats stats() {
+        long total = calls.sum();
+        long failed = failures.sum();
+        int inFlight = Math.max(settings.maxConcurrent(), 1) - permits.availablePermits();
+        return OutboundHttpStats.builder()
+                .name(name)
+                .state(getState().name())
+                .calls(total)
+                .successes(successes.sum())
+                .failures(failed)
+                .timeouts(timeouts.sum())
+                .errorRate(total == 0 ? 0.0 : (double) failed / total)
+                .bulkheadRejections(bulkheadRejections.sum())
+                .shortCircuits(shortCircuits.sum())
+                .inFlight(inFlight)
+                .maxConcurrent(settings.maxConcurrent())
+                .avgLatencyMs(total == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / total)
+                .maxLatencyMs(maxLatencyNanos.get() / 1_000_000.0)
+                .connectTimeoutMs(settings.connectTimeout().toMillis())
+                .readTimeoutMs(settings.readTimeout().toMillis())
+                .build();
+    }
+
+    /**
+     * @return true si la llamada es la de prueba de un circuito semiabierto
+     */
+    private boolean acquireCircuit() throws OutboundCallRejectedException {
+        synchronized (this) {
+            if (state == CircuitState.OPEN
+                    && System.nanoTime() - openedAtNanos >= settings.openDuration().toNanos()) {
+                state = CircuitState.HALF_OPEN;
+                log.info("Circuito de {} semiabierto: se permite una llamada de prueba", name);
+            }
+            if (state == CircuitState.CLOSED) {
+                return false;
+            }
+            if (state == CircuitState.HALF_OPEN && trialInFlight.compareAndSet(false, true)) {
+                return true;
+            }
+        }
+        shortCircuits.increment();
+        throw new OutboundCallRejectedException("Circuito abierto para " + name);
+    }
+
+    private boolean acquirePermit() {
+        try {
+            long waitMs = settings.acquireTimeout().toMillis();
+            return waitMs <= 0 ? permits.tryAcquire() : permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized void onSuccess(boolean trial) {
+        consecutiveFailures = 0;
+        if (trial) {
+            trialInFlight.set(false);
+        }
+        if (state != CircuitState.CLOSED && trial) {
+            state = CircuitState.CLOSED;
+            log.info("Circuito de {} cerrado", name);
+        }
+    }
+
+    private synchronized void onFailure(boolean trial) {
+        consecutiveFailures++;
+        if (trial) {
+            trialInFlight.set(false);
+        }
+        if (trial || (state == CircuitState.CLOSED && consecutiveFailures >= settings.failureThreshold())) {
+            state = CircuitState.OPEN;
+            openedAtNanos = System.nanoTime();
+            log.warn("Circuito de {} abierto tras {} fallos seguidos", name, consecutiveFailures);
+        }
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        latencyNanos.add(elapsed);
+        maxLatencyNanos.accumulate(elapsed);
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
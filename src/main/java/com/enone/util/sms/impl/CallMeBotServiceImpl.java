@@ -1,5 +1,6 @@
 package com.enone.util.sms.impl;
 
+import com.enone.util.http.OutboundHttpClients;
 import com.enone.util.sms.SmsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,10 +22,10 @@ public class CallMeBotServiceImpl implements SmsService {
     private final Map<String, String> apiKeys = new HashMap<>();
     private final String apiUrl;
 
-    public CallMeBotServiceImpl(RestTemplate restTemplate,
+    public CallMeBotServiceImpl(OutboundHttpClients outboundHttpClients,
                                @Value("${app.sms.callmebot.api-url:https://api.callmebot.com/whatsapp.php}") String apiUrl,
                                @Value("${app.sms.callmebot.keys:}") String rawKeys) {
-        this.restTemplate = restTemplate;
+        this.restTemplate = outboundHttpClients.restTemplate("callmebot");
         this.apiUrl = apiUrl;
         
         loadApiKeys(rawKeys);
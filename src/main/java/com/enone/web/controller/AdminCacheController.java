@@ -0,0 +1,52 @@
+package com.enone.web.controller;
+
+import com.enone.application.cache.DisplayNameCache;
+import com.enone.application.cache.WalletReadCache;
+import com.enone.util.exchange.ExchangeRateService;
+import com.enone.util.exchange.ExchangeRateSnapshot;
+import com.enone.web.dto.admin.CacheStats;
+import com.enone.web.dto.admin.ExchangeRateTableStatus;
+import com.enone.web.dto.common.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final WalletReadCache walletReadCache;
+    private final DisplayNameCache displayNameCache;
+    private final ExchangeRateService exchangeRateService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<List<CacheStats>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success(List.of(walletReadCache.stats(), displayNameCache.stats())));
+    }
+
+    @GetMapping("/exchange-rates")
+    public ResponseEntity<ApiResponse<List<ExchangeRateTableStatus>>> getExchangeRates() {
+        ExchangeRateSnapshot snapshot = exchangeRateService.getSnapshot();
+        Instant now = Instant.now();
+        List<ExchangeRateTableStatus> tables = snapshot.tables().values().stream()
+                .sorted(Comparator.comparing(ExchangeRateSnapshot.Table::base))
+                .map(table -> ExchangeRateTableStatus.builder()
+                        .base(table.base())
+                        .source(table.source())
+                        .currencies(table.rates().size())
+                        .fetchedAt(table.fetchedAt())
+                        .ageSeconds(Duration.between(table.fetchedAt(), now).toSeconds())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(ApiResponse.success(tables));
+    }
+}
@@ -0,0 +1,26 @@
+package com.enone.web.controller;
+
+import com.enone.util.http.OutboundHttpClients;
+import com.enone.web.dto.admin.OutboundHttpStats;
+import com.enone.web.dto.common.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/http")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminHttpController {
+
+    private final OutboundHttpClients outboundHttpClients;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<List<OutboundHttpStats>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success(outboundHttpClients.stats()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.enone.web.controller;
+
+import com.enone.application.service.BalanceSnapshotService;
+import com.enone.application.service.LedgerService;
+import com.enone.web.dto.admin.DailyBalanceTotal;
+import com.enone.web.dto.admin.HotWalletStatus;
+import com.enone.web.dto.admin.LedgerIntegrityReport;
+import com.enone.web.dto.admin.ReconciliationMismatchResponse;
+import com.enone.web.dto.admin.ReconciliationRunResponse;
+import com.enone.web.dto.admin.WalletLedgerBalance;
+import com.enone.web.dto.common.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/ledger")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminLedgerController {
+
+    private final LedgerService ledgerService;
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    @GetMapping("/integrity")
+    public ResponseEntity<ApiResponse<LedgerIntegrityReport>> checkIntegrity(
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            limit = 100;
+        }
+        LedgerIntegrityReport report = ledgerService.checkIntegrity(limit);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    @PostMapping("/wallets/{walletId}/rebuild")
+    public ResponseEntity<ApiResponse<WalletLedgerBalance>> rebuildWalletBalance(
+            Authentication authentication,
+            @PathVariable Long walletId) {
+        log.info("Admin '{}' reconstruye saldo de wallet {}", authentication.getName(), walletId);
+        WalletLedgerBalance result = ledgerService.rebuildWalletBalance(walletId);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @PutMapping("/wallets/{walletId}/hot")
+    public ResponseEntity<ApiResponse<HotWalletStatus>> enableHotWallet(
+            Authentication authentication,
+            @PathVariable Long walletId,
+            @RequestParam(defaultValue = "16") int slots) {
+        log.info("Admin '{}' activa modo caliente en wallet {} ({} slots)", authentication.getName(), walletId, slots);
+        HotWalletStatus result = ledgerService.enableHotWallet(walletId, slots);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @DeleteMapping("/wallets/{walletId}/hot")
+    public ResponseEntity<ApiResponse<HotWalletStatus>> disableHotWallet(
+            Authentication authentication,
+            @PathVariable Long walletId) {
+        log.info("Admin '{}' desactiva modo caliente en wallet {}", authentication.getName(), walletId);
+        HotWalletStatus result = ledgerService.disableHotWallet(walletId);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> startReconciliation(Authentication authentication) {
+        log.info("Admin '{}' inicia conciliación de saldos", authentication.getName());
+        ReconciliationRunResponse run = ledgerService.startReconciliation("admin:" + authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(run));
+    }
+
+    @GetMapping("/reconciliation/latest")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> getLatestReconciliation() {
+        return ResponseEntity.ok(ApiResponse.success(ledgerService.getLatestReconciliation()));
+    }
+
+    @GetMapping("/reconciliation/{runId}/mismatches")
+    public ResponseEntity<ApiResponse<List<ReconciliationMismatchResponse>>> getReconciliationMismatches(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            limit = 100;
+        }
+        return ResponseEntity.ok(ApiResponse.success(ledgerService.getReconciliationMismatches(runId, limit)));
+    }
+
+    @GetMapping("/balances/daily")
+    public ResponseEntity<ApiResponse<List<DailyBalanceTotal>>> getDailyBalanceTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(balanceSnapshotService.getDailyTotals(from, to)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.enone.web.controller;
+
+import com.enone.application.service.ScheduledTransferService;
+import com.enone.web.dto.common.ApiResponse;
+import com.enone.web.dto.wallet.ScheduledTransferRequest;
+import com.enone.web.dto.wallet.ScheduledTransferResponse;
+import com.enone.web.dto.wallet.ScheduledTransferRunResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/wallet/scheduled-transfers")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ScheduledTransferResponse>> create(
+            Authentication authentication,
+            @RequestBody @Valid ScheduledTransferRequest request) {
+        Long userId = Long.parseLong(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(scheduledTransferService.create(userId, request)));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ScheduledTransferResponse>>> list(Authentication authentication) {
+        Long userId = Long.parseLong(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(scheduledTransferService.list(userId)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<ScheduledTransferResponse>> cancel(
+            Authentication authentication,
+            @PathVariable Long id) {
+        Long userId = Long.parseLong(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(scheduledTransferService.cancel(userId, id)));
+    }
+
+    @GetMapping("/{id}/runs")
+    public ResponseEntity<ApiResponse<List<ScheduledTransferRunResponse>>> getRuns(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "20") int limit) {
+        Long userId = Long.parseLong(authentication.getName());
+        if (limit < 1 || limit > 100) {
+            limit = 20;
+        }
+        return ResponseEntity.ok(ApiResponse.success(scheduledTransferService.getRuns(userId, id, limit)));
+    }
+}
@@ -5,19 +5,34 @@ import com.enone.web.dto.wallet.*;
 import com.enone.domain.model.Transaction;
 import com.enone.domain.model.User;
 import com.enone.domain.model.UserTarjeta;
-import com.enone.domain.model.Wallet;
 import com.enone.exception.ApiException;
+import com.enone.application.cache.DisplayNameCache;
+import com.enone.application.cache.WalletReadCache;
+import com.enone.application.exchange.ConversionQuote;
+import com.enone.util.exchange.ExchangeRateSnapshot;
 import com.enone.application.mapper.WalletMapper;
 import com.enone.domain.repository.UserRepository;
+import com.enone.application.service.BalanceSnapshotService;
+import com.enone.application.service.IdempotencyService;
+import com.enone.application.service.StatementService;
+import com.enone.application.service.TransactionExportService;
 import com.enone.application.service.WalletService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -33,6 +48,12 @@ public class WalletController {
     private final WalletService walletService;
     private final UserRepository userRepository;
     private final WalletMapper walletMapper;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService transactionExportService;
+    private final StatementService statementService;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final WalletReadCache walletReadCache;
+    private final DisplayNameCache displayNameCache;
 
     @GetMapping("/balance")
     public ResponseEntity<ApiResponse<BalanceResponse>> getBalance(Authentication authentication) {
@@ -45,10 +66,14 @@ public class WalletController {
             Long userId = Long.parseLong(authentication.getName());
             log.info("🏦 GET /balance - UserId extraído: {}", userId);
 
-            Wallet wallet = walletService.getWalletByUserId(userId);
-            log.info("🏦 GET /balance - Wallet encontrado: {}", wallet != null ? wallet.getCurrency() : "NULL");
+            // Lectura desde la caché por usuario; las operaciones la actualizan después del commit
+            List<BalanceResponse> balances = walletReadCache.balances(userId);
+            if (balances.isEmpty()) {
+                throw new ApiException(404, "Wallet no encontrado");
+            }
+            BalanceResponse response = balances.get(0);
+            log.info("🏦 GET /balance - Wallet encontrado: {}", response.getCurrency());
 
-            BalanceResponse response = walletMapper.toBalanceResponse(wallet);
             log.info("✅ GET /balance - Respuesta exitosa para userId: {}", userId);
 
             return ResponseEntity.ok(ApiResponse.success(response));
@@ -61,18 +86,29 @@ public class WalletController {
     @PostMapping("/deposit")
     public ResponseEntity<ApiResponse<TransactionResponse>> deposit(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid DepositRequest request) {
         Long userId = Long.parseLong(authentication.getName());
-        Transaction tx = walletService.deposit(userId, request.getAmount(), request.getDescription());
-        TransactionResponse response = walletMapper.toTransactionResponse(tx);
+        TransactionResponse response = idempotencyService.execute(userId, idempotencyKey, "DEPOSIT", request,
+                TransactionResponse.class, () -> {
+                    Transaction tx = walletService.deposit(userId, request.getAmount(), request.getDescription());
+                    return walletMapper.toTransactionResponse(tx);
+                });
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
     @PostMapping("/transfer")
     public ResponseEntity<ApiResponse<TransactionResponse>> transfer(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid TransferRequest request) {
         Long userId = Long.parseLong(authentication.getName());
+        TransactionResponse response = idempotencyService.execute(userId, idempotencyKey, "TRANSFER", request,
+                TransactionResponse.class, () -> executeTransfer(userId, request));
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    private TransactionResponse executeTransfer(Long userId, TransferRequest request) {
 
         // Buscar usuario por email O teléfono
         User toUser = userRepository.findByEmailOrPhone(request.getToUsername())
@@ -99,28 +135,46 @@ public class WalletController {
                 request.getDescription(), request.getToken2fa(), currency);
 
         // Obtener nombres para la respuesta
-        String toName = toUser.getUsername();
-        if (toUser.getProfile() != null) {
-            String first = toUser.getProfile().getFirstName();
-            String last = toUser.getProfile().getLastName();
-            if (first != null || last != null) {
-                toName = (first != null ? first : "") + " " + (last != null ? last : "");
-                toName = toName.trim();
-            }
-        }
+        String toName = DisplayNameCache.format(toUser);
 
         // Para transfer, fromUser es el usuario actual (opcional devolverlo) y toUser
         // es el destino
-        TransactionResponse response = walletMapper.toTransactionResponse(tx, null, toName);
+        return walletMapper.toTransactionResponse(tx, null, toName);
+    }
+
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<ApiResponse<BatchTransferResponse>> transferBatch(
+            Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid BatchTransferRequest request) {
+        Long userId = Long.parseLong(authentication.getName());
+        BatchTransferResponse response = idempotencyService.execute(userId, idempotencyKey, "TRANSFER_BATCH", request,
+                BatchTransferResponse.class, () -> walletService.transferBatch(userId, request));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<ApiResponse<List<TransactionResponse>>> getTransactions(
+    public ResponseEntity<ApiResponse<TransactionPageResponse>> getTransactions(
             Authentication authentication,
-            @RequestParam(defaultValue = "20") int limit) {
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String currency) {
         Long userId = Long.parseLong(authentication.getName());
-        List<Transaction> transactions = walletService.getAllTransactions(userId, limit);
+        if (limit < 1 || limit > 100) {
+            limit = 20;
+        }
+        // Se pide un elemento extra solo para saber si hay otra página.
+        // La primera página sale de la cola de movimientos en caché cuando alcanza
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        int fetch = limit + 1;
+        List<Transaction> transactions = (after == null
+                ? walletReadCache.recentTransactions(userId, currency, fetch)
+                : Optional.<List<Transaction>>empty())
+                .orElseGet(() -> walletService.getTransactionsPage(userId, currency, after, fetch));
+        boolean hasMore = transactions.size() > limit;
+        if (hasMore) {
+            transactions = transactions.subList(0, limit);
+        }
 
         // Obtener todos los IDs de usuarios relacionados
         java.util.Set<Long> relatedUserIds = transactions.stream()
@@ -128,28 +182,10 @@ public class WalletController {
                 .map(Transaction::getRelatedUserId)
                 .collect(java.util.stream.Collectors.toSet());
 
-        // Mapa para buscar nombres rápidamente
-        Map<Long, String> userNames = new java.util.HashMap<>();
-        if (!relatedUserIds.isEmpty()) {
-            List<User> users = userRepository.findAllById(relatedUserIds);
-            for (User u : users) {
-                String fullName = u.getUsername(); // Default
-                if (u.getProfile() != null) {
-                    try {
-                        String first = u.getProfile().getFirstName();
-                        String last = u.getProfile().getLastName();
-                        if (first != null || last != null) {
-                            fullName = (first != null ? first : "") + " " + (last != null ? last : "");
-                            fullName = fullName.trim();
-                        }
-                    } catch (Exception e) {
-                        // Ignorar lazy loading errors si ocurren, aunque con findAllById debería
-                        // traerlo si está configurado
-                    }
-                }
-                userNames.put(u.getId(), fullName);
-            }
-        }
+        // Nombres desde caché; los que faltan se resuelven en una sola consulta de proyección
+        Map<Long, String> userNames = relatedUserIds.isEmpty()
+                ? Map.of()
+                : displayNameCache.displayNames(relatedUserIds);
 
         List<TransactionResponse> responses = transactions.stream()
                 .map(tx -> {
@@ -171,18 +207,79 @@ public class WalletController {
                 })
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(ApiResponse.success(responses));
+        TransactionPageResponse page = TransactionPageResponse.builder()
+                .transactions(responses)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? TransactionCursor.of(transactions.get(transactions.size() - 1)).encode() : null)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            Authentication authentication,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Long userId = Long.parseLong(authentication.getName());
+
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Formato no soportado. Use csv o ndjson.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ApiException(400, "La fecha inicial no puede ser posterior a la final");
+        }
+
+        boolean csv = exportFormat == TransactionExportService.Format.CSV;
+        String filename = "movimientos-" + userId + (csv ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> transactionExportService.export(userId, exportFormat, from, to, out);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/balance/at")
+    public ResponseEntity<ApiResponse<List<BalanceAtResponse>>> getBalanceAt(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String currency) {
+        Long userId = Long.parseLong(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(balanceSnapshotService.getBalancesAt(userId, date, currency)));
+    }
+
+    @GetMapping("/statements/{period}")
+    public ResponseEntity<ApiResponse<StatementResponse>> getStatement(
+            Authentication authentication,
+            @PathVariable String period) {
+        Long userId = Long.parseLong(authentication.getName());
+        YearMonth month;
+        try {
+            month = YearMonth.parse(period);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Periodo inválido. Use el formato yyyy-MM.");
+        }
+        return ResponseEntity.ok(ApiResponse.success(statementService.getStatement(userId, month)));
     }
 
     @PostMapping("/convert")
     public ResponseEntity<ApiResponse<TransactionResponse>> convert(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid ConvertRequest request) {
         Long userId = Long.parseLong(authentication.getName());
-        Transaction tx = walletService.convert(
-                userId, request.getFromCurrency(), request.getToCurrency(),
-                request.getAmount(), request.getDescription());
-        TransactionResponse response = walletMapper.toTransactionResponse(tx);
+        TransactionResponse response = idempotencyService.execute(userId, idempotencyKey, "CONVERT", request,
+                TransactionResponse.class, () -> {
+                    Transaction tx = walletService.convert(
+                            userId, request.getFromCurrency(), request.getToCurrency(),
+                            request.getAmount(), request.getDescription(), request.getQuoteId());
+                    return walletMapper.toTransactionResponse(tx);
+                });
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
@@ -194,11 +291,44 @@ public class WalletController {
             throw new ApiException(400, "Parámetros 'from' y 'to' son requeridos");
         }
         BigDecimal rate = walletService.getExchangeRate(from, to);
+        java.time.Instant now = java.time.Instant.now();
+        ExchangeRateSnapshot snapshot = walletService.getExchangeRateSnapshot();
         ExchangeRateResponse response = ExchangeRateResponse.builder()
                 .fromCurrency(from)
                 .toCurrency(to)
                 .rate(rate)
-                .timestamp(java.time.Instant.now())
+                .timestamp(now)
+                .asOf(snapshot.asOf().orElse(null))
+                .snapshotAgeSeconds(snapshot.age(now).map(java.time.Duration::toSeconds).orElse(null))
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/exchange-rate/history")
+    public ResponseEntity<ApiResponse<ExchangeRateHistoryResponse>> getExchangeRateHistory(
+            @RequestParam String pair,
+            @RequestParam(defaultValue = "30d") String range,
+            @RequestParam(required = false) String interval) {
+        return ResponseEntity.ok(ApiResponse.success(walletService.getExchangeRateHistory(pair, range, interval)));
+    }
+
+    @PostMapping("/exchange-rate/quote")
+    public ResponseEntity<ApiResponse<ConversionQuoteResponse>> quoteConversion(
+            Authentication authentication,
+            @RequestBody @Valid ConversionQuoteRequest request) {
+        Long userId = Long.parseLong(authentication.getName());
+        ConversionQuote quote = walletService.quoteConversion(userId, request.getFromCurrency(), request.getToCurrency());
+        ConversionQuoteResponse response = ConversionQuoteResponse.builder()
+                .quoteId(quote.id())
+                .fromCurrency(quote.fromCurrency())
+                .toCurrency(quote.toCurrency())
+                .rate(quote.rate())
+                .amount(request.getAmount())
+                .convertedAmount(request.getAmount() != null
+                        ? request.getAmount().multiply(quote.rate()).setScale(2, java.math.RoundingMode.HALF_UP)
+                        : null)
+                .issuedAt(quote.issuedAt())
+                .expiresAt(quote.expiresAt())
                 .build();
         return ResponseEntity.ok(ApiResponse.success(response));
     }
@@ -212,17 +342,11 @@ public class WalletController {
             Long userId = Long.parseLong(authentication.getName());
             log.info("🏦 GET /all - UserId extraído: {}", userId);
 
-            List<Wallet> wallets = walletService.getAllWalletsByUserId(userId);
-            log.info("🏦 GET /all - Wallets encontrados: {} wallets", wallets != null ? wallets.size() : 0);
-
-            if (wallets != null) {
-                wallets.forEach(w -> log.info("🏦 Wallet: {} - Balance: {} {}", w.getWalletNumber(), w.getBalance(),
-                        w.getCurrency()));
+            List<BalanceResponse> responses = walletReadCache.balances(userId);
+            if (responses.isEmpty()) {
+                throw new ApiException(404, "No se encontraron wallets para el usuario");
             }
-
-            List<BalanceResponse> responses = wallets.stream()
-                    .map(walletMapper::toBalanceResponse)
-                    .collect(Collectors.toList());
+            log.info("🏦 GET /all - Wallets encontrados: {} wallets", responses.size());
 
             log.info("✅ GET /all - Respuesta exitosa para userId: {} con {} wallets", userId, responses.size());
             return ResponseEntity.ok(ApiResponse.success(responses));
@@ -295,10 +419,14 @@ public class WalletController {
     @PostMapping("/withdraw")
     public ResponseEntity<ApiResponse<TransactionResponse>> withdraw(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid WithdrawRequest request) {
         Long userId = Long.parseLong(authentication.getName());
-        Transaction tx = walletService.withdraw(userId, request.getAmount(), request.getDescription());
-        TransactionResponse response = walletMapper.toTransactionResponse(tx);
+        TransactionResponse response = idempotencyService.execute(userId, idempotencyKey, "WITHDRAW", request,
+                TransactionResponse.class, () -> {
+                    Transaction tx = walletService.withdraw(userId, request.getAmount(), request.getDescription());
+                    return walletMapper.toTransactionResponse(tx);
+                });
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
@@ -0,0 +1,30 @@
+package com.enone.web.controller;
+
+import com.enone.application.notification.WalletEventHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/wallet")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class WalletEventController {
+
+    private final WalletEventHub walletEventHub;
+
+    /**
+     * Stream de eventos (balance-changed, transfer-received). Al reconectar, el
+     * navegador envía Last-Event-ID; {@code cursor} sirve a clientes que no lo hacen.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            Authentication authentication,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String cursor) {
+        Long userId = Long.parseLong(authentication.getName());
+        return walletEventHub.subscribe(userId, lastEventId != null ? lastEventId : cursor);
+    }
+}
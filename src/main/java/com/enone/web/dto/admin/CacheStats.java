@@ -0,0 +1,21 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStats {
+    private String name;
+    private Boolean enabled;
+    private Integer size;
+    private Integer maxSize;
+    private Long hits;
+    private Long misses;
+    private Double hitRate;
+    private Long loads;
+    private Long evictions;
+    private Long expirations;
+    private Long writeThroughs;
+    private Long invalidations;
+}
@@ -0,0 +1,16 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class DailyBalanceTotal {
+    private LocalDate day;
+    private String currency;
+    private BigDecimal totalBalance;
+    private Long wallets;
+}
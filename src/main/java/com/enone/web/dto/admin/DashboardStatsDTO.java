@@ -34,6 +34,8 @@ public class DashboardStatsDTO {
     
     // Metadata
     private Instant generatedAt;
+    private Boolean partial;                    // alguna sección no respondió a tiempo
+    private List<String> unavailableSections;   // secciones con valor por defecto
     
     private Long activeUsers;        // enabled=true + tx últimos 7 días
     private Long inactiveUsers;      // enabled=true + sin tx 30+ días
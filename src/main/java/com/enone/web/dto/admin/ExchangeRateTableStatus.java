@@ -0,0 +1,16 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ExchangeRateTableStatus {
+    private String base;
+    private String source;
+    private Integer currencies;
+    private Instant fetchedAt;
+    private Long ageSeconds;
+}
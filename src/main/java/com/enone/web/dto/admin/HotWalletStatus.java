@@ -0,0 +1,14 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class HotWalletStatus {
+    private Long walletId;
+    private Integer slots;
+    private BigDecimal balance;
+}
@@ -0,0 +1,16 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class LedgerIntegrityReport {
+    private List<Long> unbalancedEntryIds;
+    private List<WalletLedgerBalance> walletsOutOfBalance;
+    private boolean consistent;
+    private Instant checkedAt;
+}
@@ -0,0 +1,24 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class OutboundHttpStats {
+    private String name;
+    private String state;
+    private Long calls;
+    private Long successes;
+    private Long failures;
+    private Long timeouts;
+    private Double errorRate;
+    private Long bulkheadRejections;
+    private Long shortCircuits;
+    private Integer inFlight;
+    private Integer maxConcurrent;
+    private Double avgLatencyMs;
+    private Double maxLatencyMs;
+    private Long connectTimeoutMs;
+    private Long readTimeoutMs;
+}
@@ -0,0 +1,19 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+public class ReconciliationMismatchResponse {
+    private Long walletId;
+    private String kind;
+    private Long transactionId;
+    private BigDecimal expected;
+    private BigDecimal actual;
+    private BigDecimal difference;
+    private Instant detectedAt;
+}
@@ -0,0 +1,21 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ReconciliationRunResponse {
+    private Long id;
+    private String status;
+    private String triggeredBy;
+    private Integer partitions;
+    private Long walletsChecked;
+    private Long transactionsChecked;
+    private Long mismatchCount;
+    private String errorMessage;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.enone.web.dto.admin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class WalletLedgerBalance {
+    private Long walletId;
+    private BigDecimal projectedBalance;
+    private BigDecimal journalBalance;
+    private BigDecimal difference;
+    private boolean corrected;
+}
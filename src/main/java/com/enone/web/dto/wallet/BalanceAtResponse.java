@@ -0,0 +1,23 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAtResponse {
+    private Long walletId;
+    private String walletNumber;
+    private String currency;
+    private LocalDate date;
+    private BigDecimal balance;
+    // Día del snapshot usado como base; null si se calculó desde el saldo actual
+    private LocalDate snapshotDay;
+}
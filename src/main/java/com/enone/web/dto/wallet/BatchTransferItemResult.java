@@ -0,0 +1,19 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferItemResult {
+
+    private Integer index;
+    private String toUsername;
+    private Boolean success;
+    private String error;
+    private TransactionResponse transaction;
+}
@@ -0,0 +1,22 @@
+package com.enone.web.dto.wallet;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+
+    @NotEmpty(message = "Debe incluir al menos una transferencia")
+    @Size(max = 500, message = "Un lote no puede exceder 500 transferencias")
+    private List<@Valid BatchTransferItem> items;
+
+    @Pattern(regexp = "^[0-9]{6}$", message = "El token 2FA debe tener exactamente 6 dígitos")
+    private String token2fa;
+
+    @NotBlank(message = "La moneda es obligatoria")
+    @Pattern(regexp = "^(PEN|USD)$", message = "Moneda inválida. Debe ser PEN o USD")
+    private String currency;
+}
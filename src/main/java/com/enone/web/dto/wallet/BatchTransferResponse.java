@@ -0,0 +1,24 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransferResponse {
+
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    private String currency;
+    private BigDecimal totalAmount;
+    private BigDecimal balanceAfter;
+    private List<BatchTransferItemResult> results;
+}
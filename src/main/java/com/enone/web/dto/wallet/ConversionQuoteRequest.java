@@ -0,0 +1,21 @@
+package com.enone.web.dto.wallet;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ConversionQuoteRequest {
+
+    @NotBlank(message = "La moneda origen es obligatoria")
+    @Pattern(regexp = "^(PEN|USD|EUR)$", message = "Moneda origen inválida. Debe ser PEN, USD o EUR")
+    private String fromCurrency;
+
+    @NotBlank(message = "La moneda destino es obligatoria")
+    @Pattern(regexp = "^(PEN|USD|EUR)$", message = "Moneda destino inválida. Debe ser PEN, USD o EUR")
+    private String toCurrency;
+
+    @DecimalMin(value = "1.00", message = "El monto mínimo de conversión es 1.00")
+    private BigDecimal amount;
+}
@@ -0,0 +1,25 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversionQuoteResponse {
+
+    private String quoteId;
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal rate;
+    private BigDecimal amount;
+    private BigDecimal convertedAmount;
+    private Instant issuedAt;
+    private Instant expiresAt;
+}
@@ -22,4 +22,7 @@ public class ConvertRequest {
     
     @Size(max = 255, message = "La descripción no puede exceder 255 caracteres")
     private String description;
+
+    @Size(max = 512, message = "El id de cotización no puede exceder 512 caracteres")
+    private String quoteId;
 }
\ No newline at end of file
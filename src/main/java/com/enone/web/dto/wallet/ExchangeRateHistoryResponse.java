@@ -0,0 +1,22 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExchangeRateHistoryResponse {
+
+    private String pair;
+    private String interval;
+    private Instant from;
+    private Instant to;
+    private List<ExchangeRatePoint> points;
+}
@@ -20,4 +20,6 @@ public class ExchangeRateResponse {
     private BigDecimal amount;
     private BigDecimal convertedAmount;
     private Instant timestamp;
+    private Instant asOf;
+    private Long snapshotAgeSeconds;
 }
\ No newline at end of file
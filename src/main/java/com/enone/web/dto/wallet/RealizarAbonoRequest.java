@@ -11,4 +11,5 @@ import java.math.BigDecimal;
 public class RealizarAbonoRequest {
     private String numeroTarjeta;
     private BigDecimal monto;
+    private String referencia;
 }
\ No newline at end of file
@@ -11,4 +11,6 @@ import java.math.BigDecimal;
 public class RealizarCobroRequest {
     private String numeroTarjeta;
     private BigDecimal monto;
+    // Referencia idempotente del cliente: reintentos con la misma referencia no repiten la operación
+    private String referencia;
 }
\ No newline at end of file
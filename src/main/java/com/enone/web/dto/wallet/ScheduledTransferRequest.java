@@ -0,0 +1,40 @@
+package com.enone.web.dto.wallet;
+
+import com.enone.domain.model.ScheduleFrequency;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+public class ScheduledTransferRequest {
+
+    @NotBlank(message = "El usuario destino es obligatorio")
+    @Size(min = 3, max = 120, message = "El nombre de usuario debe tener entre 3 y 120 caracteres")
+    private String toUsername;
+
+    @NotNull(message = "El monto es obligatorio")
+    @DecimalMin(value = "1.00", message = "El monto mínimo de transferencia es S/ 1.00")
+    private BigDecimal amount;
+
+    @Size(max = 255, message = "La descripción no puede exceder 255 caracteres")
+    private String description;
+
+    @NotBlank(message = "La moneda es obligatoria")
+    @Pattern(regexp = "^(PEN|USD)$", message = "Moneda inválida. Debe ser PEN o USD")
+    private String currency;
+
+    @NotNull(message = "La frecuencia es obligatoria")
+    private ScheduleFrequency frequency;
+
+    @NotNull(message = "La fecha de la primera ejecución es obligatoria")
+    @Future(message = "La primera ejecución debe ser una fecha futura")
+    private Instant firstRunAt;
+
+    @Min(value = 1, message = "El número de ejecuciones debe ser al menos 1")
+    private Integer maxRuns;
+
+    @Pattern(regexp = "^[0-9]{6}$", message = "El token 2FA debe tener exactamente 6 dígitos")
+    private String token2fa;
+}
@@ -0,0 +1,29 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferResponse {
+    private Long id;
+    private Long toUserId;
+    private String toName;
+    private BigDecimal amount;
+    private String currency;
+    private String description;
+    private String frequency;
+    private Instant nextRunAt;
+    private Integer maxRuns;
+    private Integer runCount;
+    private Integer consecutiveFailures;
+    private String status;
+    private Instant createdAt;
+}
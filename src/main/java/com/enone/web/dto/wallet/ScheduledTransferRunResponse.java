@@ -0,0 +1,22 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferRunResponse {
+    private Long id;
+    private Instant scheduledFor;
+    private String status;
+    private Long transactionId;
+    private String errorMessage;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
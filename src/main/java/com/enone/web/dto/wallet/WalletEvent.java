@@ -0,0 +1,25 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletEvent {
+    private Long walletId;
+    private String currency;
+    private BigDecimal balance;
+    private Long transactionId;
+    private BigDecimal amount;
+    private Long fromUserId;
+    private String fromName;
+    private String description;
+    private Instant occurredAt;
+}
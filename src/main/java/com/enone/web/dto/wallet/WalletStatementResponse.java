@@ -0,0 +1,25 @@
+package com.enone.web.dto.wallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletStatementResponse {
+    private Long walletId;
+    private String walletNumber;
+    private String currency;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    // false si el mes sigue abierto y el resumen se calculó al vuelo
+    private boolean closed;
+    private List<StatementTotalResponse> totals;
+    private List<TransactionResponse> transactions;
+}
@@ -39,8 +39,11 @@ function clearToken() {
 	localStorage.removeItem('token');
 }
 
-async function api(path, { method = 'GET', body = null, auth = false } = {}) {
+async function api(path, { method = 'GET', body = null, auth = false, idempotencyKey = null } = {}) {
 	const headers = { 'Content-Type': 'application/json' };
+	if (idempotencyKey) {
+		headers['Idempotency-Key'] = idempotencyKey;
+	}
 	if (auth) {
 		const t = getToken();
 		if (t) {
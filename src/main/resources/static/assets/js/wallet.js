@@ -5,6 +5,7 @@ let currentExchangeRate = null;
 let transactionPage = 1;
 let allTransactionsCache = [];
 let recentTransactionsPage = 1;
+let recentTransactionsCursor = null;
 let user2FAEnabled = false;
 let currentTxForDownload = null;
 let userHasActiveCard = false;
@@ -57,6 +58,16 @@ async function loadAllWallets() {
     }
 }
 
+// Respuesta paginada por cursor de /api/wallet/transactions
+function extractTransactionPage(response) {
+    const data = response && response.data ? response.data : {};
+    return {
+        transactions: Array.isArray(data.transactions) ? data.transactions : [],
+        nextCursor: data.nextCursor || null,
+        hasMore: !!data.hasMore
+    };
+}
+
 // Función para cargar transacciones
 async function loadTransactions(pageNumber = 1) {
     if (pageNumber !== 1) return;
@@ -66,16 +77,8 @@ async function loadTransactions(pageNumber = 1) {
 
     list.innerHTML = `<p class="text-center py-4 text-blue-300">Cargando...</p>`;
     try {
-        const response = await api(`/api/wallet/transactions?limit=5&page=1&currency=${selectedCurrency}`, { auth: true });
-
-        let txs = response;
-        if (response && response.data && Array.isArray(response.data)) {
-            txs = response.data;
-        } else if (response && Array.isArray(response.transactions)) {
-            txs = response.transactions;
-        } else if (!Array.isArray(response)) {
-            txs = [];
-        }
+        const response = await api(`/api/wallet/transactions?limit=5&currency=${selectedCurrency}`, { auth: true });
+        const txs = extractTransactionPage(response).transactions;
 
         if (!txs || txs.length === 0) {
             list.innerHTML = `<p class="text-center py-8 text-gray-400"><i class="bi bi-inbox text-4xl mb-2 block"></i> No hay movimientos recientes.</p>`;
@@ -120,33 +123,15 @@ async function loadDetailedTransactions(page = null, reset = false) {
     try {
         if (reset || allTransactionsCache.length === 0) {
             let allTxs = [];
-            let currentP = 1;
-            let hasMore = true;
-            const fetchL = 50;
-
-            while (hasMore) {
-                const url = `/api/wallet/transactions?limit=${fetchL}&page=${currentP}`;
-                const pageResponse = await api(url, { auth: true });
-
-                let pageTxs = pageResponse;
-                if (pageResponse && pageResponse.data && Array.isArray(pageResponse.data)) {
-                    pageTxs = pageResponse.data;
-                } else if (pageResponse && Array.isArray(pageResponse.transactions)) {
-                    pageTxs = pageResponse.transactions;
-                } else if (!Array.isArray(pageResponse)) {
-                    pageTxs = [];
-                }
-
-                if (!pageTxs || pageTxs.length === 0) {
-                    hasMore = false;
-                } else {
-                    allTxs = allTxs.concat(pageTxs);
-                    if (pageTxs.length < fetchL) {
-                        hasMore = false;
-                    }
-                    currentP++;
-                }
-            }
+            let cursor = null;
+            const fetchL = 100;
+
+            do {
+                const url = `/api/wallet/transactions?limit=${fetchL}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : '');
+                const page = extractTransactionPage(await api(url, { auth: true }));
+                allTxs = allTxs.concat(page.transactions);
+                cursor = page.hasMore ? page.nextCursor : null;
+            } while (cursor);
             allTransactionsCache = allTxs;
         }
 
@@ -213,16 +198,14 @@ async function loadRecentDetails() {
 
     try {
         document.getElementById('recentDetailsCurrency').textContent = selectedCurrency;
-        const response = await api(`/api/wallet/transactions?limit=${limit}&page=${recentTransactionsPage}&currency=${selectedCurrency}`, { auth: true });
-
-        let txs = response;
-        if (response && response.data && Array.isArray(response.data)) {
-            txs = response.data;
-        } else if (response && Array.isArray(response.transactions)) {
-            txs = response.transactions;
-        } else if (!Array.isArray(response)) {
-            txs = [];
+        if (recentTransactionsPage === 1) {
+            recentTransactionsCursor = null;
         }
+        const cursorParam = recentTransactionsCursor ? `&cursor=${encodeURIComponent(recentTransactionsCursor)}` : '';
+        const response = await api(`/api/wallet/transactions?limit=${limit}&currency=${selectedCurrency}${cursorParam}`, { auth: true });
+        const page = extractTransactionPage(response);
+        const txs = page.transactions;
+        recentTransactionsCursor = page.nextCursor;
 
         if (recentTransactionsPage === 1 && (!txs || txs.length === 0)) {
             list.innerHTML = `<p class="text-center py-8 text-gray-400"><i class="bi bi-inbox text-4xl mb-2 block"></i> No hay movimientos.</p>`;
@@ -246,7 +229,7 @@ async function loadRecentDetails() {
             }
         });
 
-        btn.classList.toggle('hidden', txs.length < limit);
+        btn.classList.toggle('hidden', !page.hasMore);
     } catch (err) {
         console.error('Recent Details Error:', err);
         showError(`Error: ${err.message}`);
@@ -991,7 +974,9 @@ if (window.location.pathname.includes('transfer.html')) {
                     currency: currency,
                     amount: amount,
                     description: description,
-                    timestamp: Date.now()
+                    timestamp: Date.now(),
+                    // Reintentos desde la página de confirmación reutilizan esta clave
+                    idempotencyKey: crypto.randomUUID()
                 };
 
                 sessionStorage.setItem('pendingTransfer', JSON.stringify(transferData));
@@ -1080,7 +1065,8 @@ if (window.location.pathname.includes('confirm-transfer.html')) {
                     const response = await api('/api/wallet/transfer', {
                         method: 'POST',
                         body: payload,
-                        auth: true
+                        auth: true,
+                        idempotencyKey: data.idempotencyKey
                     });
 
                     // Éxito
@@ -0,0 +1,151 @@
+package com.enone.application.ledger;
+
+import com.enone.domain.model.ReconciliationRun;
+import com.enone.domain.model.ReconciliationStatus;
+import com.enone.util.UuidUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de la conciliación sobre wallets y movimientos sintéticos con ids altos
+ * (se borran al terminar). Una wallet de cada mil se deja descuadrada a propósito y
+ * una de cada diez es anterior al diario: su asiento de apertura, posterior a sus
+ * movimientos, ya trae el saldo con todo su historial y no debe dar diferencias.
+ * Requiere MySQL local y usa el esquema del perfil benchmark; se ejecuta con:
+ * ./mvnw test -Dbenchmark=true -Dtest=LedgerReconciliationBenchmarkTests [-Dbenchmark.wallets=20000 -Dbenchmark.txPerWallet=100]
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LedgerReconciliationBenchmarkTests {
+
+    private static final long BASE_ID = 9_000_000_000_000L;
+    private static final int BATCH = 1_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE wallet_id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM journal_postings WHERE entry_id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM journal_entries WHERE id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM reconciliation_mismatches WHERE wallet_id >= ?", BASE_ID);
+        jdbcTemplate.update("DELETE FROM wallets WHERE id >= ?", BASE_ID);
+    }
+
+    @Test
+    void transactionsPerMinute() {
+        int walletCount = Integer.getInteger("benchmark.wallets", 20_000);
+        int txPerWallet = Integer.getInteger("benchmark.txPerWallet", 100);
+        int broken = seed(walletCount, txPerWallet);
+
+        ReconciliationRun run = ledgerReconciler.reconcile("benchmark");
+        long elapsedMs = run.getFinishedAt().toEpochMilli() - run.getStartedAt().toEpochMilli();
+        log.info("{} wallets={} transactions={} mismatches={} elapsed={}ms throughput={} tx/min",
+                getClass().getSimpleName(), run.getWalletsChecked(), run.getTransactionsChecked(),
+                run.getMismatchCount(), elapsedMs,
+                Math.round(run.getTransactionsChecked() * 60_000.0 / Math.max(elapsedMs, 1)));
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        Long found = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reconciliation_mismatches WHERE run_id = ? AND wallet_id >= ?",
+                Long.class, run.getId(), BASE_ID);
+        assertEquals(broken, found);
+    }
+
+    private int seed(int walletCount, int txPerWallet) {
+        Timestamp now = Timestamp.from(Instant.now());
+        BigDecimal balance = AMOUNT.multiply(BigDecimal.valueOf(txPerWallet));
+        List<Object[]> wallets = new ArrayList<>(BATCH);
+        int broken = 0;
+        for (int w = 0; w < walletCount; w++) {
+            long walletId = BASE_ID + w;
+            boolean off = w % 1_000 == 0;
+            broken += off ? 1 : 0;
+            wallets.add(new Object[]{walletId, "BR" + walletId, 0L, off ? balance.add(AMOUNT) : balance, "PEN",
+                    "ACTIVE", now, now});
+            if (wallets.size() == BATCH) {
+                insertWallets(wallets);
+            }
+        }
+        insertWallets(wallets);
+
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        long txId = BASE_ID;
+        for (int w = 0; w < walletCount; w++) {
+            long walletId = BASE_ID + w;
+            for (int t = 1; t <= txPerWallet; t++) {
+                rows.add(new Object[]{txId++, UuidUtil.toBytes(UuidUtil.timeOrdered()), walletId, AMOUNT,
+                        AMOUNT.multiply(BigDecimal.valueOf(t)),
+                        new Timestamp(now.getTime() + t)});
+                if (rows.size() == BATCH) {
+                    insertTransactions(rows);
+                }
+            }
+        }
+        insertTransactions(rows);
+
+        // Wallets anteriores al diario: apertura por el saldo actual, registrada después de sus movimientos
+        Timestamp openedAt = new Timestamp(now.getTime() + txPerWallet + 1);
+        List<Object[]> entries = new ArrayList<>(BATCH);
+        List<Object[]> postings = new ArrayList<>(BATCH);
+        for (int w = 5; w < walletCount; w += 10) {
+            long walletId = BASE_ID + w;
+            entries.add(new Object[]{walletId, "BR" + walletId, openedAt});
+            postings.add(new Object[]{walletId, walletId, balance, openedAt});
+            if (entries.size() == BATCH) {
+                insertOpenings(entries, postings);
+            }
+        }
+        insertOpenings(entries, postings);
+        return broken;
+    }
+
+    private void insertWallets(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO wallets (id, wallet_number, user_id, balance, currency, status, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private void insertOpenings(List<Object[]> entries, List<Object[]> postings) {
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO journal_entries (id, type, reference, description, created_at) "
+                    + "VALUES (?, 'OPENING_BALANCE', ?, 'Saldo de apertura', ?)", entries);
+            jdbcTemplate.batchUpdate("INSERT INTO journal_postings (entry_id, account_type, wallet_id, currency, "
+                    + "amount, created_at) VALUES (?, 'WALLET', ?, 'PEN', ?, ?)", postings);
+            entries.clear();
+            postings.clear();
+        }
+    }
+
+    private void insertTransactions(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_uid, wallet_id, type, amount, currency, "
+                    + "balance_after, status, created_at) VALUES (?, ?, ?, 'DEPOSIT', ?, 'PEN', ?, 'COMPLETED', ?)",
+                    rows);
+            rows.clear();
+        }
+    }
+}
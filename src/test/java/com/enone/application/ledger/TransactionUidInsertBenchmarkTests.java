@@ -0,0 +1,108 @@
+package com.enone.application.ledger;
+
+import com.enone.util.UuidUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de inserción con índice único sobre el uid: UUID aleatorio en CHAR(36)
+ * (esquema anterior) contra UUIDv7 en BINARY(16). Usa tablas propias, no transactions.
+ * Requiere MySQL local y usa el esquema del perfil benchmark; se ejecuta con:
+ * ./mvnw test -Dbenchmark=true -Dtest=TransactionUidInsertBenchmarkTests [-Dbenchmark.rows=10000000]
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionUidInsertBenchmarkTests {
+
+    private static final int BATCH = 1_000;
+    private static final int REPORT_EVERY = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uid_random");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uid_v7");
+    }
+
+    @Test
+    void randomUuidAsText() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uid_random");
+        jdbcTemplate.execute("CREATE TABLE bench_uid_random (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "transaction_uid CHAR(36) NOT NULL, amount DECIMAL(19,2) NOT NULL, "
+                + "UNIQUE KEY uk_bench_uid_random (transaction_uid)) ENGINE=InnoDB");
+        run("bench_uid_random", (ps, i) -> ps.setString(1, UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void timeOrderedUuidAsBinary() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uid_v7");
+        jdbcTemplate.execute("CREATE TABLE bench_uid_v7 (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "transaction_uid BINARY(16) NOT NULL, amount DECIMAL(19,2) NOT NULL, "
+                + "UNIQUE KEY uk_bench_uid_v7 (transaction_uid)) ENGINE=InnoDB");
+        run("bench_uid_v7", (ps, i) -> ps.setBytes(1, UuidUtil.toBytes(UuidUtil.timeOrdered())));
+    }
+
+    private void run(String table, UidBinder binder) {
+        long rows = Long.getLong("benchmark.rows", 10_000_000L);
+        String sql = "INSERT INTO " + table + " (transaction_uid, amount) VALUES (?, 1.00)";
+
+        long t0 = System.nanoTime();
+        long windowStart = t0;
+        for (long inserted = 0; inserted < rows; inserted += BATCH) {
+            int size = (int) Math.min(BATCH, rows - inserted);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    binder.bind(ps, i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+
+            long done = inserted + size;
+            if (done % REPORT_EVERY == 0 || done == rows) {
+                long now = System.nanoTime();
+                long windowRows = done % REPORT_EVERY == 0 ? REPORT_EVERY : done % REPORT_EVERY;
+                log.info("{} rows={} window={} rows/s total={}s", table, done,
+                        String.format("%.1f", windowRows / ((now - windowStart) / 1_000_000_000.0)),
+                        (now - t0) / 1_000_000_000);
+                windowStart = now;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - t0;
+        Long indexBytes = jdbcTemplate.queryForObject(
+                "SELECT INDEX_LENGTH FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Long.class, table);
+        log.info("{} rows={} elapsed={}ms throughput={} rows/s secondaryIndex={}MB", table, rows,
+                elapsedNanos / 1_000_000, String.format("%.1f", rows / (elapsedNanos / 1_000_000_000.0)),
+                indexBytes != null ? indexBytes / (1024 * 1024) : -1);
+
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+    }
+
+    @FunctionalInterface
+    private interface UidBinder {
+        void bind(PreparedStatement ps, int index) throws SQLException;
+    }
+}
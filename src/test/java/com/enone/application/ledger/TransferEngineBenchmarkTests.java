@@ -0,0 +1,14 @@
+package com.enone.application.ledger;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Mismos escenarios que {@link WalletTransferBenchmarkTests}, pero con el motor de
+ * particiones activo. Comparar ambas salidas:
+ * ./mvnw test -Dbenchmark=true -Dtest='WalletTransferBenchmarkTests,TransferEngineBenchmarkTests'
+ */
+@SpringBootTest(properties = "app.ledger.engine.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransferEngineBenchmarkTests extends WalletTransferBenchmarkTests {
+}
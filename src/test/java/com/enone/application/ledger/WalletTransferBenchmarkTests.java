@@ -0,0 +1,168 @@
+package com.enone.application.ledger;
+
+import com.enone.application.service.LedgerService;
+import com.enone.application.service.WalletService;
+import com.enone.domain.model.JournalEntry;
+import com.enone.domain.model.JournalEntryType;
+import com.enone.domain.model.LedgerAccountType;
+import com.enone.domain.model.User;
+import com.enone.domain.model.UserProfile;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.model.WalletStatus;
+import com.enone.domain.repository.UserProfileRepository;
+import com.enone.domain.repository.UserRepository;
+import com.enone.domain.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de transferencias concurrentes hacia una misma wallet "caliente".
+ * Requiere MySQL local y usa el esquema del perfil benchmark; se ejecuta con:
+ * ./mvnw test -Dbenchmark=true -Dtest=WalletTransferBenchmarkTests
+ *
+ * El saldo inicial de cada wallet se registra como asiento de apertura, así el diario
+ * cuadra con las wallets sintéticas igual que con las reales.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WalletTransferBenchmarkTests {
+
+    private static final int TRANSFERS_PER_SENDER = 200;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerJournal ledgerJournal;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void transfersPerSecondOnHotWallet() throws Exception {
+        runBenchmark(createUser(BigDecimal.ZERO));
+    }
+
+    @Test
+    void transfersPerSecondOnShardedHotWallet() throws Exception {
+        Long hotUserId = createUser(BigDecimal.ZERO);
+        Long walletId = walletRepository.findIdByUserIdAndCurrency(hotUserId, "PEN").orElseThrow();
+        ledgerService.enableHotWallet(walletId, 16);
+        runBenchmark(hotUserId);
+    }
+
+    private void runBenchmark(Long hotUserId) throws Exception {
+        for (int senders : new int[] { 1, 8, 64 }) {
+            List<Long> senderIds = new ArrayList<>();
+            for (int i = 0; i < senders; i++) {
+                senderIds.add(createUser(new BigDecimal("1000000.00")));
+            }
+
+            BigDecimal before = walletRepository.findByUserIdAndCurrency(hotUserId, "PEN").orElseThrow().getBalance();
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(senders);
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (Long senderId : senderIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_SENDER; i++) {
+                        try {
+                            walletService.transfer(senderId, hotUserId, AMOUNT, "benchmark", null, "PEN");
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedNanos = System.nanoTime() - t0;
+            pool.shutdown();
+
+            int total = senders * TRANSFERS_PER_SENDER;
+            int ok = total - failures.get();
+            double perSecond = ok / (elapsedNanos / 1_000_000_000.0);
+            log.info("{} senders={} transfers={} failed={} elapsed={}ms throughput={} tx/s",
+                    getClass().getSimpleName(), senders, total, failures.get(), elapsedNanos / 1_000_000,
+                    String.format("%.1f", perSecond));
+
+            BigDecimal after = walletRepository.findByUserIdAndCurrency(hotUserId, "PEN").orElseThrow().getBalance();
+            // Ninguna actualización se pierde: el saldo destino crece exactamente lo transferido
+            assertEquals(0, after.subtract(before).compareTo(AMOUNT.multiply(BigDecimal.valueOf(ok))));
+        }
+    }
+
+    private Long createUser(BigDecimal balance) {
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+
+        User user = new User();
+        user.setUsername("bench-" + suffix + "@enone.test");
+        user.setPassword("benchmark");
+        user.setEnabled(true);
+        user = userRepository.save(user);
+
+        UserProfile profile = new UserProfile();
+        profile.setUser(user);
+        profile.setEmail(user.getUsername());
+        profile.setFirstName("Bench");
+        profile.setLastName(suffix);
+        profile.setTwoFactorEnabled(false);
+        profile.setDailyTransactionLimit(new BigDecimal("100000000.00"));
+        userProfileRepository.save(profile);
+
+        Wallet wallet = walletRepository.save(Wallet.builder()
+                .userId(user.getId())
+                .walletNumber("BN" + suffix.replace("-", "").toUpperCase())
+                .balance(balance)
+                .currency("PEN")
+                .status(WalletStatus.ACTIVE)
+                .build());
+
+        if (balance.signum() != 0) {
+            ledgerJournal.post(JournalEntry.builder()
+                    .type(JournalEntryType.OPENING_BALANCE)
+                    .reference(wallet.getWalletNumber())
+                    .description("Saldo de apertura")
+                    .build()
+                    .walletPosting(wallet.getId(), wallet.getCurrency(), balance)
+                    .systemPosting(LedgerAccountType.OPENING_EQUITY, wallet.getCurrency(), balance.negate()));
+        }
+
+        return user.getId();
+    }
+}
@@ -0,0 +1,154 @@
+package com.enone.application.service.impl;
+
+import com.enone.application.cache.WalletReadCache;
+import com.enone.application.ledger.LedgerJournal;
+import com.enone.application.ledger.WalletLockManager;
+import com.enone.application.limits.DailyLimitTracker;
+import com.enone.application.mapper.WalletMapper;
+import com.enone.application.notification.WalletEventHub;
+import com.enone.application.service.TwoFactorAuthService;
+import com.enone.domain.model.User;
+import com.enone.domain.model.UserProfile;
+import com.enone.domain.model.Wallet;
+import com.enone.domain.model.WalletStatus;
+import com.enone.domain.repository.TransactionRepository;
+import com.enone.domain.repository.UserProfileRepository;
+import com.enone.domain.repository.UserRepository;
+import com.enone.domain.repository.WalletRepository;
+import com.enone.web.dto.wallet.BatchTransferItem;
+import com.enone.web.dto.wallet.BatchTransferItemResult;
+import com.enone.web.dto.wallet.BatchTransferRequest;
+import com.enone.web.dto.wallet.BatchTransferResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resolución de destinatarios de {@link WalletServiceImpl#transferBatch}, con
+ * repositorios simulados y sin contexto de Spring.
+ */
+@ExtendWith(MockitoExtension.class)
+class WalletServiceImplBatchTests {
+
+    private static final Long FROM_USER_ID = 1L;
+    private static final Long TO_USER_ID = 2L;
+    private static final Long FROM_WALLET_ID = 10L;
+    private static final Long TO_WALLET_ID = 20L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletLockManager walletLockManager;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TwoFactorAuthService twoFactorAuthService;
+
+    @Mock
+    private DailyLimitTracker dailyLimitTracker;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    @Mock
+    private WalletReadCache walletReadCache;
+
+    @Mock
+    private WalletEventHub walletEventHub;
+
+    @Mock
+    private WalletMapper walletMapper;
+
+    @InjectMocks
+    private WalletServiceImpl walletService;
+
+    @Test
+    void batchMatchesRecipientsIgnoringCaseAndSpaces() {
+        User sender = user(FROM_USER_ID, "origen@enone.test", "Origen");
+        User recipient = user(TO_USER_ID, "Ana@Enone.test", "Ana");
+        Wallet fromWallet = wallet(FROM_WALLET_ID, FROM_USER_ID, "100.00");
+        Wallet toWallet = wallet(TO_WALLET_ID, TO_USER_ID, "0.00");
+
+        when(userRepository.findById(FROM_USER_ID)).thenReturn(Optional.of(sender));
+        when(walletRepository.findIdByUserIdAndCurrency(FROM_USER_ID, "PEN")).thenReturn(Optional.of(FROM_WALLET_ID));
+        when(userRepository.findAllByEmailOrPhoneIn(Set.of("ana@enone.test"))).thenReturn(List.of(recipient));
+        when(walletRepository.findIdsByUserIdInAndCurrency(anyCollection(), eq("PEN")))
+                .thenReturn(List.<Object[]>of(new Object[] { TO_USER_ID, TO_WALLET_ID }));
+        when(userProfileRepository.findByUserId(FROM_USER_ID)).thenReturn(Optional.of(sender.getProfile()));
+        when(walletLockManager.executeLocked(anyCollection(), any())).thenAnswer(invocation -> {
+            Function<Map<Long, Wallet>, ?> work = invocation.getArgument(1);
+            return work.apply(Map.of(FROM_WALLET_ID, fromWallet, TO_WALLET_ID, toWallet));
+        });
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setCurrency("pen");
+        request.setItems(List.of(item("  ANA@enone.test "), item("ana@ENONE.TEST")));
+
+        BatchTransferResponse response = walletService.transferBatch(FROM_USER_ID, request);
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        for (BatchTransferItemResult result : response.getResults()) {
+            assertTrue(result.getSuccess(), result.getError());
+        }
+        assertEquals(0, new BigDecimal("90.00").compareTo(response.getBalanceAfter()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(toWallet.getBalance()));
+    }
+
+    private static BatchTransferItem item(String toUsername) {
+        BatchTransferItem item = new BatchTransferItem();
+        item.setToUsername(toUsername);
+        item.setAmount(new BigDecimal("5.00"));
+        item.setDescription("lote");
+        return item;
+    }
+
+    private static User user(Long id, String email, String firstName) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(email);
+        user.setEnabled(true);
+        UserProfile profile = new UserProfile();
+        profile.setUser(user);
+        profile.setEmail(email);
+        profile.setFirstName(firstName);
+        profile.setDailyTransactionLimit(new BigDecimal("1000.00"));
+        user.setProfile(profile);
+        return user;
+    }
+
+    private static Wallet wallet(Long id, Long userId, String balance) {
+        return Wallet.builder()
+                .id(id)
+                .userId(userId)
+                .balance(new BigDecimal(balance))
+                .currency("PEN")
+                .status(WalletStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.enone.util.http;
+
+import com.enone.util.http.OutboundIntegration.CircuitState;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timeouts, circuit breaker y bulkhead de {@link OutboundIntegration} contra un
+ * servidor HTTP local (com.sun.net.httpserver), sin red ni contexto de Spring.
+ */
+class OutboundIntegrationTests {
+
+    private static final long SLOW_MS = 1_500;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+    private final AtomicInteger failHits = new AtomicInteger();
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "ok"));
+        server.createContext("/fail", exchange -> {
+            failHits.incrementAndGet();
+            respond(exchange, 500, "error");
+        });
+        server.createContext("/slow", exchange -> {
+            slowStarted.countDown();
+            try {
+                Thread.sleep(SLOW_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "slow");
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void readTimeoutFailsWithoutWaitingForTheProvider() {
+        OutboundIntegration integration = integration(Duration.ofMillis(200), 10, 5, Duration.ofSeconds(30));
+        RestTemplate restTemplate = integration.getRestTemplate();
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForEntity(baseUrl + "/slow", String.class));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs < SLOW_MS, "La llamada esperó " + elapsedMs + "ms");
+        assertEquals(1L, integration.stats().getTimeouts());
+        assertEquals(0, integration.stats().getInFlight());
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailuresAndClosesAfterSuccessfulTrial() throws InterruptedException {
+        OutboundIntegration integration = integration(Duration.ofSeconds(2), 10, 3, Duration.ofMillis(300));
+        RestTemplate restTemplate = integration.getRestTemplate();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.getForEntity(baseUrl + "/fail", String.class));
+        }
+        assertEquals(CircuitState.OPEN, integration.getState());
+
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForEntity(baseUrl + "/fail", String.class));
+        assertInstanceOf(OutboundCallRejectedException.class, rejected.getCause());
+        assertEquals(3, failHits.get());
+        assertEquals(1L, integration.stats().getShortCircuits());
+
+        Thread.sleep(400);
+        assertEquals("ok", restTemplate.getForObject(baseUrl + "/ok", String.class));
+        assertEquals(CircuitState.CLOSED, integration.getState());
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() throws InterruptedException {
+        OutboundIntegration integration = integration(Duration.ofSeconds(2), 10, 1, Duration.ofMillis(300));
+        RestTemplate restTemplate = integration.getRestTemplate();
+
+        assertThrows(HttpServerErrorException.class, () -> restTemplate.getForEntity(baseUrl + "/fail", String.class));
+        assertEquals(CircuitState.OPEN, integration.getState());
+
+        Thread.sleep(400);
+        assertThrows(HttpServerErrorException.class, () -> restTemplate.getForEntity(baseUrl + "/fail", String.class));
+        assertEquals(CircuitState.OPEN, integration.getState());
+        assertEquals(2, failHits.get());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+        OutboundIntegration integration = integration(Duration.ofSeconds(5), 1, 5, Duration.ofSeconds(30));
+        RestTemplate restTemplate = integration.getRestTemplate();
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(
+                () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForEntity(baseUrl + "/ok", String.class));
+        assertInstanceOf(OutboundCallRejectedException.class, rejected.getCause());
+        assertEquals(1L, integration.stats().getBulkheadRejections());
+
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", restTemplate.getForObject(baseUrl + "/ok", String.class));
+        assertEquals(CircuitState.CLOSED, integration.getState());
+    }
+
+    private static OutboundIntegration integration(Duration readTimeout, int maxConcurrent, int failureThreshold,
+                                                   Duration openDuration) {
+        return new OutboundIntegration("stub", new OutboundIntegration.Settings(Duration.ofSeconds(1), readTimeout,
+                maxConcurrent, Duration.ZERO, failureThreshold, openDuration));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}